@@ -0,0 +1,207 @@
+#!/usr/bin/env python
+"""
+Benchmark de Historico - Operadora Digital do Futuro
+====================================================
+
+Mede o custo do historico por instancia do processo V2:
+- Linhas de historico por instancia (ACT_HI_ACTINST, ACT_HI_VARINST,
+  ACT_HI_DETAIL, ACT_HI_JOB_LOG), numa amostra de instancias concluidas
+- Throughput ponta a ponta (instancias concluidas por segundo)
+
+Rode uma vez com cada history level e compare:
+
+    # app com camunda.bpm.history-level=full
+    python scripts/benchmark_historico.py --instancias=2000 --rotulo=full
+    # app com camunda.bpm.history-level=seletivo (banco novo)
+    python scripts/benchmark_historico.py --instancias=2000 --rotulo=seletivo \\
+        --comparar=historico_full.json
+
+Cada execucao grava historico_<rotulo>.json no diretorio atual.
+"""
+
+import argparse
+import json
+import logging
+import os
+import statistics
+import sys
+import time
+import uuid
+from concurrent.futures import ThreadPoolExecutor
+from pathlib import Path
+
+import requests
+from requests.adapters import HTTPAdapter
+from dotenv import load_dotenv
+
+# Configuracao de paths
+PROJECT_ROOT = Path(__file__).parent.parent
+load_dotenv(PROJECT_ROOT / '.env')
+
+# Configuracao de logging
+logging.basicConfig(
+    level=logging.INFO,
+    format='%(asctime)s - %(levelname)s - %(message)s'
+)
+logger = logging.getLogger(__name__)
+
+PROCESS_KEY = "Process_Coordenacao_Cuidado_V2"
+
+# Tabela -> recurso REST de contagem por instancia
+TABELAS = {
+    "ACT_HI_ACTINST": "history/activity-instance/count",
+    "ACT_HI_VARINST": "history/variable-instance/count",
+    "ACT_HI_DETAIL": "history/detail/count",
+    "ACT_HI_JOB_LOG": "history/job-log/count",
+}
+
+
+def get_camunda_url() -> str:
+    """Obtem URL do Camunda."""
+    return os.getenv("CAMUNDA_URL", "http://localhost:8080/engine-rest")
+
+
+def montar_variaveis(indice: int) -> dict:
+    """Variaveis de um beneficiario sintetico (mistura de niveis de risco)."""
+    idade = 25 + (indice * 7) % 60
+    return {
+        "beneficiario_cpf": {"value": f"{70000000000 + indice}", "type": "String"},
+        "beneficiario_nome": {"value": f"Beneficiario Historico {indice}", "type": "String"},
+        "beneficiario_telefone": {"value": f"119{indice % 100000000:08d}", "type": "String"},
+        "idade": {"value": idade, "type": "Integer"},
+        "tem_doenca_cronica": {"value": indice % 3 == 0, "type": "Boolean"},
+        "fumante": {"value": indice % 5 == 0, "type": "Boolean"},
+        "imc": {"value": 20.0 + (indice % 15), "type": "Double"},
+    }
+
+
+def iniciar(session: requests.Session, url: str, prefixo: str, indice: int) -> bool:
+    """Inicia uma instancia."""
+    payload = {"businessKey": f"{prefixo}{indice}", "variables": montar_variaveis(indice)}
+    try:
+        response = session.post(url, json=payload, timeout=60)
+        return response.status_code in [200, 201]
+    except Exception as e:
+        logger.warning(f"Start falhou: {e}")
+        return False
+
+
+def instancias_concluidas(camunda_url: str, prefixo: str, maximo: int = None) -> list:
+    """IDs das instancias finalizadas desta execucao (ou so a contagem)."""
+    filtro = {
+        "processDefinitionKey": PROCESS_KEY,
+        "processInstanceBusinessKeyLike": f"{prefixo}%",
+        "finished": True,
+    }
+    if maximo is None:
+        response = requests.post(f"{camunda_url}/history/process-instance/count", json=filtro, timeout=30)
+        response.raise_for_status()
+        return response.json()["count"]
+    response = requests.post(f"{camunda_url}/history/process-instance",
+                             params={"maxResults": maximo}, json=filtro, timeout=60)
+    response.raise_for_status()
+    return [p["id"] for p in response.json()]
+
+
+def linhas_por_instancia(camunda_url: str, instance_id: str) -> dict:
+    """Conta as linhas de historico de uma instancia por tabela."""
+    linhas = {}
+    for tabela, recurso in TABELAS.items():
+        response = requests.get(f"{camunda_url}/{recurso}",
+                                params={"processInstanceId": instance_id}, timeout=30)
+        response.raise_for_status()
+        linhas[tabela] = response.json()["count"]
+    return linhas
+
+
+def executar(instancias: int, concorrencia: int, amostra: int, timeout_s: int) -> dict:
+    """Executa a carga e mede o historico gerado."""
+    camunda_url = get_camunda_url()
+    url = f"{camunda_url}/process-definition/key/{PROCESS_KEY}/start"
+    prefixo = f"HIST-{uuid.uuid4().hex[:8]}-"
+
+    session = requests.Session()
+    adapter = HTTPAdapter(pool_connections=concorrencia, pool_maxsize=concorrencia)
+    session.mount("http://", adapter)
+    session.mount("https://", adapter)
+
+    logger.info(f"Iniciando {instancias} instancias (prefixo {prefixo})")
+    inicio = time.perf_counter()
+    with ThreadPoolExecutor(max_workers=concorrencia) as pool:
+        iniciadas = sum(pool.map(lambda i: iniciar(session, url, prefixo, i), range(instancias)))
+
+    concluidas = 0
+    limite = time.perf_counter() + timeout_s
+    while time.perf_counter() < limite:
+        concluidas = instancias_concluidas(camunda_url, prefixo)
+        if concluidas >= iniciadas:
+            break
+        time.sleep(1)
+    duracao = time.perf_counter() - inicio
+
+    if concluidas < iniciadas:
+        logger.warning(f"Timeout: apenas {concluidas}/{iniciadas} instancias concluidas")
+
+    ids = instancias_concluidas(camunda_url, prefixo, amostra)
+    contagens = [linhas_por_instancia(camunda_url, i) for i in ids]
+
+    metricas = {
+        "instancias": instancias,
+        "iniciadas": iniciadas,
+        "concluidas": concluidas,
+        "amostra": len(contagens),
+        "concluidas_por_segundo": round(concluidas / duracao, 1) if duracao else 0.0,
+    }
+    for tabela in TABELAS:
+        valores = [c[tabela] for c in contagens]
+        metricas[tabela] = round(statistics.mean(valores), 1) if valores else 0.0
+    metricas["total_por_instancia"] = round(sum(metricas[t] for t in TABELAS), 1)
+    return metricas
+
+
+def imprimir(metricas: dict, anterior: dict = None):
+    """Imprime metricas (e comparacao, se houver)."""
+    print("\n" + "=" * 70)
+    print(f"{'Metrica':<28}{'Atual':>14}" + (f"{'Anterior':>14}{'Variacao':>14}" if anterior else ""))
+    print("-" * 70)
+    for chave in list(TABELAS) + ["total_por_instancia", "concluidas_por_segundo"]:
+        linha = f"{chave:<28}{metricas[chave]:>14}"
+        if anterior and chave in anterior:
+            base = anterior[chave]
+            variacao = ((metricas[chave] - base) / base * 100) if base else 0.0
+            linha += f"{base:>14}{variacao:>13.1f}%"
+        print(linha)
+    print("=" * 70 + "\n")
+
+
+def main():
+    """Funcao principal."""
+    parser = argparse.ArgumentParser(
+        description='Linhas de historico por instancia e throughput do processo V2'
+    )
+    parser.add_argument('--instancias', type=int, default=1000, help='Total de instancias')
+    parser.add_argument('--concorrencia', type=int, default=50, help='Starts simultaneos')
+    parser.add_argument('--amostra', type=int, default=100, help='Instancias para contar linhas')
+    parser.add_argument('--timeout', type=int, default=600, help='Espera maxima pela conclusao (s)')
+    parser.add_argument('--rotulo', type=str, default='atual', help='Rotulo da execucao (ex: full, seletivo)')
+    parser.add_argument('--comparar', type=str, help='Arquivo JSON de execucao anterior')
+
+    args = parser.parse_args()
+
+    metricas = executar(args.instancias, args.concorrencia, args.amostra, args.timeout)
+    metricas["rotulo"] = args.rotulo
+
+    saida = Path(f"historico_{args.rotulo}.json")
+    saida.write_text(json.dumps(metricas, indent=2))
+    logger.info(f"Resultado gravado em {saida}")
+
+    anterior = None
+    if args.comparar:
+        anterior = json.loads(Path(args.comparar).read_text())
+
+    imprimir(metricas, anterior)
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,170 @@
+#!/usr/bin/env python
+"""
+Benchmark de Inicio em Lote - Operadora Digital do Futuro
+=========================================================
+
+Compara instancias iniciadas por segundo do processo V2:
+- REST um a um: POST /engine-rest/process-definition/key/.../start por
+  beneficiario, em sequencia (como scripts/iniciar_processo.py)
+- Lote: POST /api/onboarding/lote com todos os beneficiarios em NDJSON
+
+Uso:
+    python scripts/benchmark_inicio_lote.py --instancias=20000 --instancias-rest=1000
+
+Cada execucao grava inicio_lote_<rotulo>.json no diretorio atual.
+"""
+
+import argparse
+import json
+import logging
+import os
+import random
+import sys
+import time
+from pathlib import Path
+
+import requests
+from dotenv import load_dotenv
+
+# Configuracao de paths
+PROJECT_ROOT = Path(__file__).parent.parent
+load_dotenv(PROJECT_ROOT / '.env')
+
+# Configuracao de logging
+logging.basicConfig(
+    level=logging.INFO,
+    format='%(asctime)s - %(levelname)s - %(message)s'
+)
+logger = logging.getLogger(__name__)
+
+PROCESS_KEY = "Process_Coordenacao_Cuidado_V2"
+
+
+def get_camunda_url() -> str:
+    """Obtem URL do Camunda."""
+    return os.getenv("CAMUNDA_URL", "http://localhost:8080/engine-rest")
+
+
+def get_app_url() -> str:
+    """Obtem URL da aplicacao (APIs /api)."""
+    return os.getenv("APP_URL", get_camunda_url().rsplit("/engine-rest", 1)[0])
+
+
+def beneficiario(cpf: int, indice: int) -> dict:
+    """Variaveis de um beneficiario sintetico (mistura de niveis de risco)."""
+    return {
+        "beneficiario_cpf": f"{cpf:011d}",
+        "beneficiario_nome": f"Beneficiario Lote {indice}",
+        "beneficiario_telefone": f"119{indice % 100000000:08d}",
+        "idade": 25 + (indice * 7) % 60,
+        "tem_doenca_cronica": indice % 3 == 0,
+        "fumante": indice % 5 == 0,
+        "imc": 20.0 + (indice % 15),
+    }
+
+
+def formatar(variaveis: dict) -> dict:
+    """Variaveis no formato da REST API do Camunda."""
+    formatadas = {}
+    for chave, valor in variaveis.items():
+        if isinstance(valor, bool):
+            formatadas[chave] = {"value": valor, "type": "Boolean"}
+        elif isinstance(valor, int):
+            formatadas[chave] = {"value": valor, "type": "Integer"}
+        elif isinstance(valor, float):
+            formatadas[chave] = {"value": valor, "type": "Double"}
+        else:
+            formatadas[chave] = {"value": str(valor), "type": "String"}
+    return formatadas
+
+
+def executar_rest(beneficiarios: list) -> dict:
+    """Inicia um a um pela REST API do engine."""
+    url = f"{get_camunda_url()}/process-definition/key/{PROCESS_KEY}/start"
+    session = requests.Session()
+    iniciadas = 0
+
+    inicio = time.perf_counter()
+    for b in beneficiarios:
+        payload = {"businessKey": f"BEN-{b['beneficiario_cpf']}", "variables": formatar(b)}
+        try:
+            response = session.post(url, json=payload, timeout=60)
+            if response.status_code in [200, 201]:
+                iniciadas += 1
+        except Exception as e:
+            logger.warning(f"Start falhou: {e}")
+    duracao = time.perf_counter() - inicio
+
+    return {
+        "iniciadas": iniciadas,
+        "duracao_s": round(duracao, 2),
+        "instancias_por_segundo": round(iniciadas / duracao, 1) if duracao > 0 else 0.0,
+    }
+
+
+def executar_lote(beneficiarios: list) -> dict:
+    """Inicia todos numa chamada NDJSON ao endpoint de lote."""
+    corpo = "".join(json.dumps(b) + "\n" for b in beneficiarios).encode("utf-8")
+
+    inicio = time.perf_counter()
+    response = requests.post(
+        f"{get_app_url()}/api/onboarding/lote",
+        data=corpo,
+        headers={"Content-Type": "application/x-ndjson"},
+        timeout=3600
+    )
+    duracao = time.perf_counter() - inicio
+    response.raise_for_status()
+    resumo = response.json()
+
+    return {
+        "iniciadas": resumo["iniciados"],
+        "duplicados": resumo["duplicados"],
+        "erros": resumo["erros"],
+        "duracao_s": round(duracao, 2),
+        "instancias_por_segundo": round(resumo["iniciados"] / duracao, 1) if duracao > 0 else 0.0,
+        "instancias_por_segundo_servidor": round(resumo["instanciasPorSegundo"], 1),
+    }
+
+
+def main():
+    """Funcao principal."""
+    parser = argparse.ArgumentParser(description='Benchmark do inicio em lote do processo V2')
+    parser.add_argument('--instancias', type=int, default=20000, help='Beneficiarios no lote')
+    parser.add_argument('--instancias-rest', type=int, default=1000, help='Beneficiarios iniciados um a um')
+    parser.add_argument('--rotulo', type=str, default='atual', help='Rotulo da execucao')
+
+    args = parser.parse_args()
+
+    # CPFs novos a cada execucao
+    base = random.randint(10, 89) * 1_000_000_000
+
+    logger.info(f"REST um a um: {args.instancias_rest} instancias")
+    rest = executar_rest([beneficiario(base + i, i) for i in range(args.instancias_rest)])
+
+    logger.info(f"Lote: {args.instancias} instancias")
+    deslocamento = args.instancias_rest
+    lote = executar_lote([beneficiario(base + deslocamento + i, i) for i in range(args.instancias)])
+
+    metricas = {"rotulo": args.rotulo, "rest": rest, "lote": lote}
+    if rest["instancias_por_segundo"]:
+        metricas["aceleracao"] = round(lote["instancias_por_segundo"] / rest["instancias_por_segundo"], 1)
+
+    saida = Path(f"inicio_lote_{args.rotulo}.json")
+    saida.write_text(json.dumps(metricas, indent=2))
+    logger.info(f"Resultado gravado em {saida}")
+
+    print("\n" + "=" * 60)
+    print(f"{'Modo':<20}{'Iniciadas':>12}{'Duracao (s)':>14}{'Inst/s':>14}")
+    print("-" * 60)
+    for modo, m in [("REST um a um", rest), ("Lote", lote)]:
+        print(f"{modo:<20}{m['iniciadas']:>12}{m['duracao_s']:>14}{m['instancias_por_segundo']:>14}")
+    if "aceleracao" in metricas:
+        print(f"\nAceleracao do lote: {metricas['aceleracao']}x")
+    print("=" * 60 + "\n")
+
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,241 @@
+#!/usr/bin/env python
+"""
+Benchmark do Job Executor - Operadora Digital do Futuro
+=======================================================
+
+Mede o job executor com um estoque de jobs pendentes:
+- Jobs executados por segundo (ate drenar todas as instancias)
+- Tempo ate execucao dos jobs do estoque (p50/p95/p99 desde a liberacao),
+  aproximando a latencia de aquisicao sob carga
+
+Para cada tamanho de estoque:
+1. Suspende as definicoes de job do processo V2 (jobs novos nascem suspensos)
+2. Inicia N instancias - cada uma para no primeiro asyncBefore
+3. Reativa as definicoes e os jobs de uma vez e mede a drenagem
+
+Requer historico full (job log). Exemplo, comparando pool x virtual threads:
+
+    # app com --spring.profiles.active=prod
+    python scripts/benchmark_jobs.py --pendentes 1000 10000 100000 --rotulo=pool
+    # app com --spring.profiles.active=prod e JOB_EXECUTOR_VIRTUAL_THREADS=true (Java 21)
+    python scripts/benchmark_jobs.py --pendentes 1000 10000 100000 --rotulo=virtual \\
+        --comparar=jobs_pool.json
+"""
+
+import argparse
+import json
+import logging
+import os
+import sys
+import time
+import uuid
+from concurrent.futures import ThreadPoolExecutor
+from datetime import datetime, timezone
+from pathlib import Path
+
+import requests
+from requests.adapters import HTTPAdapter
+from dotenv import load_dotenv
+
+# Configuracao de paths
+PROJECT_ROOT = Path(__file__).parent.parent
+load_dotenv(PROJECT_ROOT / '.env')
+
+# Configuracao de logging
+logging.basicConfig(
+    level=logging.INFO,
+    format='%(asctime)s - %(levelname)s - %(message)s'
+)
+logger = logging.getLogger(__name__)
+
+PROCESS_KEY = "Process_Coordenacao_Cuidado_V2"
+PRIMEIRA_ATIVIDADE = "Task_EnviarBoasVindas"
+
+
+def get_camunda_url() -> str:
+    """Obtem URL do Camunda."""
+    return os.getenv("CAMUNDA_URL", "http://localhost:8080/engine-rest")
+
+
+def suspender_jobs(camunda_url: str, suspenso: bool):
+    """Suspende/reativa as definicoes de job (e os jobs existentes) do processo."""
+    response = requests.put(
+        f"{camunda_url}/job-definition/suspended",
+        json={
+            "processDefinitionKey": PROCESS_KEY,
+            "suspended": suspenso,
+            "includeJobs": True,
+        },
+        timeout=60
+    )
+    response.raise_for_status()
+
+
+def iniciar(session: requests.Session, url: str, prefixo: str, indice: int) -> bool:
+    """Inicia uma instancia (para no primeiro job suspenso)."""
+    payload = {
+        "businessKey": f"{prefixo}{indice}",
+        "variables": {
+            "beneficiario_cpf": {"value": f"{80000000000 + indice}", "type": "String"},
+            "beneficiario_nome": {"value": f"Beneficiario Bench {indice}", "type": "String"},
+            "beneficiario_telefone": {"value": f"119{indice % 100000000:08d}", "type": "String"},
+            "idade": {"value": 30 + indice % 50, "type": "Integer"},
+        },
+    }
+    try:
+        response = session.post(url, json=payload, timeout=60)
+        return response.status_code in [200, 201]
+    except Exception as e:
+        logger.warning(f"Start falhou: {e}")
+        return False
+
+
+def contar(camunda_url: str, recurso: str, filtro: dict) -> int:
+    """POST /<recurso>/count."""
+    response = requests.post(f"{camunda_url}/{recurso}/count", json=filtro, timeout=60)
+    response.raise_for_status()
+    return response.json()["count"]
+
+
+def tempos_execucao(camunda_url: str, liberacao: datetime, amostra: int) -> list:
+    """Segundos entre a liberacao e a execucao dos jobs do estoque (amostra)."""
+    response = requests.get(
+        f"{camunda_url}/history/job-log",
+        params={
+            "processDefinitionKey": PROCESS_KEY,
+            "activityIdIn": PRIMEIRA_ATIVIDADE,
+            "successLog": "true",
+            "sortBy": "timestamp",
+            "sortOrder": "desc",
+            "maxResults": amostra,
+        },
+        timeout=120
+    )
+    response.raise_for_status()
+    tempos = []
+    for log in response.json():
+        ts = datetime.strptime(log["timestamp"], "%Y-%m-%dT%H:%M:%S.%f%z")
+        tempos.append(max(0.0, (ts - liberacao).total_seconds()))
+    return tempos
+
+
+def percentil(valores: list, p: float) -> float:
+    """Percentil por vizinho mais proximo."""
+    if not valores:
+        return 0.0
+    ordenados = sorted(valores)
+    idx = min(len(ordenados) - 1, int(round(p / 100.0 * (len(ordenados) - 1))))
+    return ordenados[idx]
+
+
+def executar(pendentes: int, concorrencia: int, timeout_s: int) -> dict:
+    """Roda o benchmark para um tamanho de estoque."""
+    camunda_url = get_camunda_url()
+    prefixo = f"BENCH-{uuid.uuid4().hex[:8]}-"
+    filtro_instancias = {
+        "processDefinitionKey": PROCESS_KEY,
+        "processInstanceBusinessKeyLike": f"{prefixo}%",
+    }
+
+    # 1. Estoque de jobs suspensos
+    suspender_jobs(camunda_url, True)
+    logger.info(f"[{pendentes}] Criando estoque de jobs (prefixo {prefixo})")
+
+    session = requests.Session()
+    adapter = HTTPAdapter(pool_connections=concorrencia, pool_maxsize=concorrencia)
+    session.mount("http://", adapter)
+    session.mount("https://", adapter)
+    url = f"{camunda_url}/process-definition/key/{PROCESS_KEY}/start"
+    with ThreadPoolExecutor(max_workers=concorrencia) as pool:
+        iniciadas = sum(pool.map(lambda i: iniciar(session, url, prefixo, i), range(pendentes)))
+
+    executados_antes = contar(camunda_url, "history/job-log",
+                              {"processDefinitionKey": PROCESS_KEY, "successLog": True})
+
+    # 2. Libera o estoque
+    liberacao = datetime.now(timezone.utc)
+    inicio = time.perf_counter()
+    suspender_jobs(camunda_url, False)
+    logger.info(f"[{pendentes}] {iniciadas} instancias liberadas")
+
+    # 3. Aguarda drenagem (todas as instancias do lote concluidas)
+    concluidas = 0
+    limite = inicio + timeout_s
+    while time.perf_counter() < limite:
+        concluidas = contar(camunda_url, "history/process-instance", {**filtro_instancias, "finished": True})
+        if concluidas >= iniciadas:
+            break
+        time.sleep(1)
+    duracao = time.perf_counter() - inicio
+
+    executados = contar(camunda_url, "history/job-log",
+                        {"processDefinitionKey": PROCESS_KEY, "successLog": True}) - executados_antes
+    tempos = tempos_execucao(camunda_url, liberacao, min(iniciadas, 10000))
+
+    if concluidas < iniciadas:
+        logger.warning(f"[{pendentes}] Timeout: {concluidas}/{iniciadas} instancias concluidas")
+
+    return {
+        "pendentes": pendentes,
+        "iniciadas": iniciadas,
+        "concluidas": concluidas,
+        "jobs_executados": executados,
+        "duracao_s": round(duracao, 1),
+        "jobs_por_segundo": round(executados / duracao, 1) if duracao else 0.0,
+        "execucao_s_p50": round(percentil(tempos, 50), 2),
+        "execucao_s_p95": round(percentil(tempos, 95), 2),
+        "execucao_s_p99": round(percentil(tempos, 99), 2),
+    }
+
+
+def imprimir(resultados: list, anteriores: dict):
+    """Tabela de resultados (com comparacao, se houver)."""
+    print("\n" + "=" * 86)
+    print(f"{'Pendentes':>10}{'Jobs':>10}{'Jobs/s':>10}{'Ant. Jobs/s':>13}"
+          f"{'p50 (s)':>10}{'p95 (s)':>10}{'p99 (s)':>10}{'Ant. p95':>13}")
+    print("-" * 86)
+    for r in resultados:
+        ant = anteriores.get(r["pendentes"], {})
+        print(f"{r['pendentes']:>10}{r['jobs_executados']:>10}{r['jobs_por_segundo']:>10}"
+              f"{ant.get('jobs_por_segundo', '-'):>13}"
+              f"{r['execucao_s_p50']:>10}{r['execucao_s_p95']:>10}{r['execucao_s_p99']:>10}"
+              f"{ant.get('execucao_s_p95', '-'):>13}")
+    print("=" * 86 + "\n")
+
+
+def main():
+    """Funcao principal."""
+    parser = argparse.ArgumentParser(
+        description='Benchmark do job executor com estoque de jobs pendentes'
+    )
+    parser.add_argument('--pendentes', type=int, nargs='+', default=[1000, 10000, 100000],
+                        help='Tamanhos de estoque (jobs pendentes)')
+    parser.add_argument('--concorrencia', type=int, default=50, help='Starts simultaneos na preparacao')
+    parser.add_argument('--timeout', type=int, default=3600, help='Espera maxima por estoque (s)')
+    parser.add_argument('--rotulo', type=str, default='atual', help='Rotulo da execucao (ex: pool, virtual)')
+    parser.add_argument('--comparar', type=str, help='Arquivo JSON de execucao anterior')
+
+    args = parser.parse_args()
+
+    resultados = []
+    try:
+        for pendentes in args.pendentes:
+            resultados.append(executar(pendentes, args.concorrencia, args.timeout))
+    finally:
+        suspender_jobs(get_camunda_url(), False)
+
+    saida = Path(f"jobs_{args.rotulo}.json")
+    saida.write_text(json.dumps({"rotulo": args.rotulo, "resultados": resultados}, indent=2))
+    logger.info(f"Resultado gravado em {saida}")
+
+    anteriores = {}
+    if args.comparar:
+        for r in json.loads(Path(args.comparar).read_text())["resultados"]:
+            anteriores[r["pendentes"]] = r
+
+    imprimir(resultados, anteriores)
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
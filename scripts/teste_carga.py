@@ -0,0 +1,205 @@
+#!/usr/bin/env python
+"""
+Teste de Carga - Operadora Digital do Futuro
+============================================
+
+Mede, para o processo V2 (Java Delegates):
+- Latencia do start de instancia (POST /process-definition/key/.../start)
+- Throughput ponta a ponta (instancias concluidas por segundo)
+
+Para comparar antes/depois de uma mudanca (ex: continuacoes assincronas),
+rode uma vez em cada versao e compare os resultados:
+
+    python scripts/teste_carga.py --instancias=2000 --concorrencia=50 --rotulo=antes
+    python scripts/teste_carga.py --instancias=2000 --concorrencia=50 --rotulo=depois \\
+        --comparar=carga_antes.json
+
+Cada execucao grava carga_<rotulo>.json no diretorio atual.
+"""
+
+import argparse
+import json
+import logging
+import os
+import statistics
+import sys
+import time
+import uuid
+from concurrent.futures import ThreadPoolExecutor
+from pathlib import Path
+
+import requests
+from requests.adapters import HTTPAdapter
+from dotenv import load_dotenv
+
+# Configuracao de paths
+PROJECT_ROOT = Path(__file__).parent.parent
+load_dotenv(PROJECT_ROOT / '.env')
+
+# Configuracao de logging
+logging.basicConfig(
+    level=logging.INFO,
+    format='%(asctime)s - %(levelname)s - %(message)s'
+)
+logger = logging.getLogger(__name__)
+
+PROCESS_KEY = "Process_Coordenacao_Cuidado_V2"
+
+
+def get_camunda_url() -> str:
+    """Obtem URL do Camunda."""
+    return os.getenv("CAMUNDA_URL", "http://localhost:8080/engine-rest")
+
+
+def montar_variaveis(indice: int) -> dict:
+    """Variaveis de um beneficiario sintetico (mistura de niveis de risco)."""
+    idade = 25 + (indice * 7) % 60
+    return {
+        "beneficiario_cpf": {"value": f"{90000000000 + indice}", "type": "String"},
+        "beneficiario_nome": {"value": f"Beneficiario Carga {indice}", "type": "String"},
+        "beneficiario_telefone": {"value": f"119{indice % 100000000:08d}", "type": "String"},
+        "idade": {"value": idade, "type": "Integer"},
+        "tem_doenca_cronica": {"value": indice % 3 == 0, "type": "Boolean"},
+        "fumante": {"value": indice % 5 == 0, "type": "Boolean"},
+        "imc": {"value": 20.0 + (indice % 15), "type": "Double"},
+    }
+
+
+def iniciar(session: requests.Session, url: str, prefixo: str, indice: int) -> tuple:
+    """Inicia uma instancia e retorna (sucesso, latencia_ms)."""
+    payload = {
+        "businessKey": f"{prefixo}{indice}",
+        "variables": montar_variaveis(indice),
+    }
+    inicio = time.perf_counter()
+    try:
+        response = session.post(url, json=payload, timeout=60)
+        sucesso = response.status_code in [200, 201]
+        if not sucesso:
+            logger.warning(f"Start falhou ({response.status_code}): {response.text[:200]}")
+    except Exception as e:
+        logger.warning(f"Start falhou: {e}")
+        sucesso = False
+    return sucesso, (time.perf_counter() - inicio) * 1000
+
+
+def contar_concluidas(camunda_url: str, prefixo: str) -> int:
+    """Conta instancias finalizadas desta execucao no historico."""
+    response = requests.post(
+        f"{camunda_url}/history/process-instance/count",
+        json={
+            "processDefinitionKey": PROCESS_KEY,
+            "processInstanceBusinessKeyLike": f"{prefixo}%",
+            "finished": True,
+        },
+        timeout=30
+    )
+    response.raise_for_status()
+    return response.json()["count"]
+
+
+def percentil(valores: list, p: float) -> float:
+    """Percentil por vizinho mais proximo."""
+    if not valores:
+        return 0.0
+    ordenados = sorted(valores)
+    idx = min(len(ordenados) - 1, int(round(p / 100.0 * (len(ordenados) - 1))))
+    return ordenados[idx]
+
+
+def executar(instancias: int, concorrencia: int, timeout_s: int) -> dict:
+    """Executa a carga e retorna as metricas."""
+    camunda_url = get_camunda_url()
+    url = f"{camunda_url}/process-definition/key/{PROCESS_KEY}/start"
+    prefixo = f"CARGA-{uuid.uuid4().hex[:8]}-"
+
+    logger.info(f"Iniciando {instancias} instancias com concorrencia {concorrencia} (prefixo {prefixo})")
+
+    session = requests.Session()
+    adapter = HTTPAdapter(pool_connections=concorrencia, pool_maxsize=concorrencia)
+    session.mount("http://", adapter)
+    session.mount("https://", adapter)
+
+    inicio = time.perf_counter()
+    with ThreadPoolExecutor(max_workers=concorrencia) as pool:
+        resultados = list(pool.map(lambda i: iniciar(session, url, prefixo, i), range(instancias)))
+    fim_starts = time.perf_counter()
+
+    latencias = [lat for ok, lat in resultados if ok]
+    iniciadas = len(latencias)
+    logger.info(f"Starts concluidos: {iniciadas}/{instancias} em {fim_starts - inicio:.1f}s")
+
+    # Aguarda as instancias terminarem (assincronas seguem no job executor)
+    concluidas = 0
+    limite = time.perf_counter() + timeout_s
+    while time.perf_counter() < limite:
+        concluidas = contar_concluidas(camunda_url, prefixo)
+        if concluidas >= iniciadas:
+            break
+        time.sleep(1)
+    fim = time.perf_counter()
+
+    if concluidas < iniciadas:
+        logger.warning(f"Timeout: apenas {concluidas}/{iniciadas} instancias concluidas")
+
+    return {
+        "instancias": instancias,
+        "concorrencia": concorrencia,
+        "iniciadas": iniciadas,
+        "concluidas": concluidas,
+        "start_ms_p50": round(percentil(latencias, 50), 1),
+        "start_ms_p95": round(percentil(latencias, 95), 1),
+        "start_ms_p99": round(percentil(latencias, 99), 1),
+        "start_ms_media": round(statistics.mean(latencias), 1) if latencias else 0.0,
+        "starts_por_segundo": round(iniciadas / (fim_starts - inicio), 1),
+        "ponta_a_ponta_s": round(fim - inicio, 1),
+        "concluidas_por_segundo": round(concluidas / (fim - inicio), 1),
+    }
+
+
+def imprimir(metricas: dict, anterior: dict = None):
+    """Imprime metricas (e comparacao, se houver)."""
+    print("\n" + "=" * 70)
+    print(f"{'Metrica':<28}{'Atual':>14}" + (f"{'Anterior':>14}{'Variacao':>14}" if anterior else ""))
+    print("-" * 70)
+    for chave in ["start_ms_p50", "start_ms_p95", "start_ms_p99", "start_ms_media",
+                  "starts_por_segundo", "ponta_a_ponta_s", "concluidas_por_segundo"]:
+        linha = f"{chave:<28}{metricas[chave]:>14}"
+        if anterior and chave in anterior:
+            base = anterior[chave]
+            variacao = ((metricas[chave] - base) / base * 100) if base else 0.0
+            linha += f"{base:>14}{variacao:>13.1f}%"
+        print(linha)
+    print("=" * 70 + "\n")
+
+
+def main():
+    """Funcao principal."""
+    parser = argparse.ArgumentParser(
+        description='Teste de carga do processo de Coordenacao do Cuidado V2'
+    )
+    parser.add_argument('--instancias', type=int, default=1000, help='Total de instancias')
+    parser.add_argument('--concorrencia', type=int, default=50, help='Starts simultaneos')
+    parser.add_argument('--timeout', type=int, default=600, help='Espera maxima pela conclusao (s)')
+    parser.add_argument('--rotulo', type=str, default='atual', help='Rotulo da execucao (ex: antes, depois)')
+    parser.add_argument('--comparar', type=str, help='Arquivo JSON de execucao anterior')
+
+    args = parser.parse_args()
+
+    metricas = executar(args.instancias, args.concorrencia, args.timeout)
+    metricas["rotulo"] = args.rotulo
+
+    saida = Path(f"carga_{args.rotulo}.json")
+    saida.write_text(json.dumps(metricas, indent=2))
+    logger.info(f"Resultado gravado em {saida}")
+
+    anterior = None
+    if args.comparar:
+        anterior = json.loads(Path(args.comparar).read_text())
+
+    imprimir(metricas, anterior)
+    return 0 if metricas["concluidas"] >= metricas["iniciadas"] else 1
+
+
+if __name__ == "__main__":
+    sys.exit(main())
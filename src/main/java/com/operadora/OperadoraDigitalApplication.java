@@ -3,6 +3,7 @@ package com.operadora;
 import org.camunda.bpm.spring.boot.starter.annotation.EnableProcessApplication;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Aplicacao Principal - Operadora Digital do Futuro
@@ -20,6 +21,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @EnableProcessApplication
+@EnableScheduling
 public class OperadoraDigitalApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,436 @@
+package com.operadora.analytics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Armazem colunar de desfechos
+ * =============================
+ *
+ * Registro append-only dos desfechos (nivel de risco, NPS, categoria,
+ * navegador) em segmentos diarios com colunas primitivas (ver
+ * SegmentoDesfechos). As consultas agregadas percorrem as colunas mapeadas
+ * em memoria, sem passar pelo historico do Camunda.
+ *
+ * - Registros ficam num buffer e sao gravados a cada flush-ms (ou ao
+ *   atingir max-pendentes); consultas enxergam os dados gravados
+ * - Falha de gravacao devolve ao buffer os registros dos dias nao gravados,
+ *   tentados de novo no proximo flush
+ * - Navegadores sao codificados num dicionario (navegadores.txt), gravado
+ *   antes das colunas que o referenciam
+ * - Um registro so entra no armazem apos o commit da transacao do engine
+ *   (ver AnalyticsService)
+ */
+@Component
+public class ArmazemDesfechos {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArmazemDesfechos.class);
+
+    static final String[] NIVEIS = {"BAIXO", "MODERADO", "ALTO", "COMPLEXO", "OUTRO"};
+    static final String[] CATEGORIAS = {"POSITIVO", "NEUTRO", "NEGATIVO"};
+    static final String SEM_NAVEGADOR = "SEM_NAVEGADOR";
+    private static final String DICIONARIO = "navegadores.txt";
+
+    @Value("${analytics.desfechos.diretorio:./data/desfechos}")
+    private String diretorio;
+
+    @Value("${analytics.desfechos.max-pendentes:10000}")
+    private int maxPendentes;
+
+    @Value("${analytics.desfechos.fuso:America/Sao_Paulo}")
+    private String fuso;
+
+    private Path raiz;
+    private ZoneId zona;
+
+    private final NavigableMap<LocalDate, SegmentoDesfechos> segmentos = new ConcurrentSkipListMap<>();
+    private final List<String> navegadores = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> idsNavegador = new ConcurrentHashMap<>();
+    private int navegadoresGravados;
+
+    private final Object lockPendentes = new Object();
+    private List<Registro> pendentes = new ArrayList<>();
+    private final Object lockGravacao = new Object();
+
+    @PostConstruct
+    void init() throws IOException {
+        raiz = Paths.get(diretorio);
+        zona = ZoneId.of(fuso);
+        Files.createDirectories(raiz);
+
+        navegadores.add(SEM_NAVEGADOR);
+        Path dicionario = raiz.resolve(DICIONARIO);
+        if (Files.exists(dicionario)) {
+            for (String nome : Files.readAllLines(dicionario, StandardCharsets.UTF_8)) {
+                if (!nome.isBlank()) {
+                    navegadores.add(nome);
+                }
+            }
+        }
+        for (int i = 0; i < navegadores.size(); i++) {
+            idsNavegador.put(navegadores.get(i), i);
+        }
+        navegadoresGravados = navegadores.size();
+
+        long total = 0;
+        try (DirectoryStream<Path> dias = Files.newDirectoryStream(raiz, Files::isDirectory)) {
+            for (Path dir : dias) {
+                try {
+                    LocalDate dia = LocalDate.parse(dir.getFileName().toString());
+                    SegmentoDesfechos segmento = SegmentoDesfechos.abrir(dir, dia);
+                    segmentos.put(dia, segmento);
+                    total += segmento.getLinhas();
+                } catch (DateTimeParseException e) {
+                    logger.warn("Ignorando diretorio fora do padrao de segmento: {}", dir);
+                }
+            }
+        }
+
+        logger.info("Armazem de desfechos carregado: {} segmentos, {} desfechos - Diretorio: {}",
+                    segmentos.size(), total, raiz.toAbsolutePath());
+    }
+
+    /**
+     * Registra um desfecho (gravado no proximo flush).
+     */
+    public void registrar(String nivelRisco, int nps, String categoria, String navegadorId) {
+        Registro registro = new Registro(
+            LocalDate.now(zona),
+            (byte) codigo(NIVEIS, nivelRisco, NIVEIS.length - 1),
+            (byte) Math.max(0, Math.min(10, nps)),
+            (byte) codigo(CATEGORIAS, categoria, 1),
+            navegadorId != null && !navegadorId.isBlank() ? navegadorId : SEM_NAVEGADOR);
+
+        boolean cheio;
+        synchronized (lockPendentes) {
+            pendentes.add(registro);
+            // Igualdade: com registros devolvidos por falha de gravacao, o
+            // buffer passa do limite e fica com o flush agendado
+            cheio = pendentes.size() == maxPendentes;
+        }
+        if (cheio) {
+            flush();
+        }
+    }
+
+    /**
+     * Grava os desfechos pendentes nos segmentos e reabre os dias alterados.
+     */
+    @Scheduled(fixedDelayString = "${analytics.desfechos.flush-ms:1000}")
+    public void flush() {
+        synchronized (lockGravacao) {
+            List<Registro> lote;
+            synchronized (lockPendentes) {
+                if (pendentes.isEmpty()) {
+                    return;
+                }
+                lote = pendentes;
+                pendentes = new ArrayList<>();
+            }
+
+            Map<LocalDate, List<Registro>> porDia = new TreeMap<>();
+            for (Registro r : lote) {
+                porDia.computeIfAbsent(r.dia, d -> new ArrayList<>()).add(r);
+            }
+
+            try {
+                for (Registro r : lote) {
+                    r.navegadorId = idNavegador(r.navegador);
+                }
+                gravarDicionario();
+            } catch (IOException e) {
+                logger.error("Falha ao gravar dicionario de navegadores ({} desfechos pendentes): {}",
+                             lote.size(), e.getMessage(), e);
+                devolver(lote);
+                return;
+            }
+
+            List<Registro> naoGravados = new ArrayList<>();
+            for (Map.Entry<LocalDate, List<Registro>> entrada : porDia.entrySet()) {
+                Path dir = raiz.resolve(entrada.getKey().toString());
+                try {
+                    Files.createDirectories(dir);
+                    // Append interrompido e sobrescrito na proxima tentativa (ver anexar)
+                    anexar(dir, entrada.getValue());
+                } catch (IOException e) {
+                    logger.error("Falha ao gravar desfechos do dia {}: {}", entrada.getKey(), e.getMessage(), e);
+                    naoGravados.addAll(entrada.getValue());
+                    continue;
+                }
+                try {
+                    segmentos.put(entrada.getKey(), SegmentoDesfechos.abrir(dir, entrada.getKey()));
+                } catch (IOException e) {
+                    // Ja gravado: o segmento e reaberto no proximo flush do dia ou na inicializacao
+                    logger.error("Falha ao reabrir segmento do dia {}: {}", entrada.getKey(), e.getMessage(), e);
+                }
+            }
+            if (!naoGravados.isEmpty()) {
+                logger.warn("{} desfechos devolvidos ao buffer para o proximo flush", naoGravados.size());
+                devolver(naoGravados);
+            }
+        }
+    }
+
+    /**
+     * Recoloca registros nao gravados no inicio do buffer.
+     */
+    private void devolver(List<Registro> registros) {
+        synchronized (lockPendentes) {
+            List<Registro> novos = pendentes;
+            pendentes = new ArrayList<>(registros.size() + novos.size());
+            pendentes.addAll(registros);
+            pendentes.addAll(novos);
+        }
+    }
+
+    /**
+     * NPS por nivel de risco no periodo.
+     *
+     * @param de Primeiro dia (inclusive, null = inicio)
+     * @param ate Ultimo dia (inclusive, null = hoje)
+     */
+    public Map<String, ResumoNps> npsPorNivelRisco(LocalDate de, LocalDate ate) {
+        long[][] contagem = new long[NIVEIS.length][3];
+        for (SegmentoDesfechos s : periodo(de, ate)) {
+            for (int i = 0, n = s.getLinhas(); i < n; i++) {
+                contagem[s.nivel(i)][faixaNps(s.nps(i))]++;
+            }
+        }
+
+        Map<String, ResumoNps> resultado = new LinkedHashMap<>();
+        for (int nivel = 0; nivel < NIVEIS.length; nivel++) {
+            ResumoNps resumo = new ResumoNps(contagem[nivel][0], contagem[nivel][1], contagem[nivel][2]);
+            if (resumo.getTotal() > 0) {
+                resultado.put(NIVEIS[nivel], resumo);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Taxa de detratores (NPS 0-6) por navegador no periodo.
+     *
+     * @param de Primeiro dia (inclusive, null = inicio)
+     * @param ate Ultimo dia (inclusive, null = hoje)
+     */
+    public Map<String, ResumoDetratores> detratoresPorNavegador(LocalDate de, LocalDate ate) {
+        // Segmentos antes do dicionario: todo id gravado ja esta no dicionario
+        List<SegmentoDesfechos> selecionados = new ArrayList<>();
+        periodo(de, ate).forEach(selecionados::add);
+        List<String> nomes = List.copyOf(navegadores);
+
+        long[] total = new long[nomes.size()];
+        long[] detratores = new long[nomes.size()];
+        for (SegmentoDesfechos s : selecionados) {
+            for (int i = 0, n = s.getLinhas(); i < n; i++) {
+                int navegador = s.navegador(i);
+                total[navegador]++;
+                if (s.nps(i) <= 6) {
+                    detratores[navegador]++;
+                }
+            }
+        }
+
+        Map<String, ResumoDetratores> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < total.length; i++) {
+            if (total[i] > 0) {
+                resultado.put(nomes.get(i), new ResumoDetratores(total[i], detratores[i]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Total de desfechos gravados no periodo.
+     */
+    public long total(LocalDate de, LocalDate ate) {
+        long total = 0;
+        for (SegmentoDesfechos s : periodo(de, ate)) {
+            total += s.getLinhas();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        flush();
+    }
+
+    private Iterable<SegmentoDesfechos> periodo(LocalDate de, LocalDate ate) {
+        LocalDate inicio = de != null ? de : LocalDate.MIN;
+        LocalDate fim = ate != null ? ate : LocalDate.MAX;
+        return segmentos.subMap(inicio, true, fim, true).values();
+    }
+
+    /** 0 = promotor (9-10), 1 = neutro (7-8), 2 = detrator (0-6). */
+    private static int faixaNps(byte nps) {
+        return nps >= 9 ? 0 : nps >= 7 ? 1 : 2;
+    }
+
+    private static int codigo(String[] valores, String valor, int padrao) {
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i].equalsIgnoreCase(valor)) {
+                return i;
+            }
+        }
+        return padrao;
+    }
+
+    private int idNavegador(String nome) {
+        Integer id = idsNavegador.get(nome);
+        if (id == null) {
+            navegadores.add(nome);
+            id = navegadores.size() - 1;
+            idsNavegador.put(nome, id);
+        }
+        return id;
+    }
+
+    private void gravarDicionario() throws IOException {
+        if (navegadoresGravados == navegadores.size()) {
+            return;
+        }
+        // Regrava o dicionario inteiro e troca o arquivo: uma falha no meio nao
+        // deixa nomes repetidos (que deslocariam os ids na recarga)
+        int total = navegadores.size();
+        Path temporario = raiz.resolve(DICIONARIO + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder conteudo = new StringBuilder();
+            for (int i = 1; i < total; i++) {
+                conteudo.append(navegadores.get(i)).append('\n');
+            }
+            ByteBuffer dados = ByteBuffer.wrap(conteudo.toString().getBytes(StandardCharsets.UTF_8));
+            while (dados.hasRemaining()) {
+                canal.write(dados);
+            }
+            canal.force(false);
+        }
+        Files.move(temporario, raiz.resolve(DICIONARIO),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        navegadoresGravados = total;
+    }
+
+    private static void anexar(Path dir, List<Registro> registros) throws IOException {
+        int n = registros.size();
+        ByteBuffer nivel = ByteBuffer.allocate(n);
+        ByteBuffer nps = ByteBuffer.allocate(n);
+        ByteBuffer categoria = ByteBuffer.allocate(n);
+        ByteBuffer navegador = ByteBuffer.allocate(n * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (Registro r : registros) {
+            nivel.put(r.nivel);
+            nps.put(r.nps);
+            categoria.put(r.categoria);
+            navegador.putInt(r.navegadorId);
+        }
+
+        // Append a partir do menor tamanho comum (sobrescreve sobra de append interrompido)
+        int linhas = SegmentoDesfechos.contarLinhas(dir);
+        escrever(dir.resolve(SegmentoDesfechos.NIVEL), nivel, linhas);
+        escrever(dir.resolve(SegmentoDesfechos.NPS), nps, linhas);
+        escrever(dir.resolve(SegmentoDesfechos.CATEGORIA), categoria, linhas);
+        escrever(dir.resolve(SegmentoDesfechos.NAVEGADOR), navegador, linhas * 4L);
+    }
+
+    private static void escrever(Path arquivo, ByteBuffer dados, long posicao) throws IOException {
+        dados.flip();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            canal.position(posicao);
+            while (dados.hasRemaining()) {
+                canal.write(dados);
+            }
+            canal.force(false);
+        }
+    }
+
+    private static final class Registro {
+        private final LocalDate dia;
+        private final byte nivel;
+        private final byte nps;
+        private final byte categoria;
+        private final String navegador;
+        private int navegadorId;
+
+        private Registro(LocalDate dia, byte nivel, byte nps, byte categoria, String navegador) {
+            this.dia = dia;
+            this.nivel = nivel;
+            this.nps = nps;
+            this.categoria = categoria;
+            this.navegador = navegador;
+        }
+    }
+
+    /**
+     * NPS de um grupo: % promotores - % detratores.
+     */
+    public static class ResumoNps {
+        private final long promotores;
+        private final long neutros;
+        private final long detratores;
+
+        public ResumoNps(long promotores, long neutros, long detratores) {
+            this.promotores = promotores;
+            this.neutros = neutros;
+            this.detratores = detratores;
+        }
+
+        public long getTotal() { return promotores + neutros + detratores; }
+        public long getPromotores() { return promotores; }
+        public long getNeutros() { return neutros; }
+        public long getDetratores() { return detratores; }
+
+        public double getNps() {
+            long total = getTotal();
+            return total == 0 ? 0.0 : 100.0 * (promotores - detratores) / total;
+        }
+    }
+
+    /**
+     * Taxa de detratores de um navegador.
+     */
+    public static class ResumoDetratores {
+        private final long total;
+        private final long detratores;
+
+        public ResumoDetratores(long total, long detratores) {
+            this.total = total;
+            this.detratores = detratores;
+        }
+
+        public long getTotal() { return total; }
+        public long getDetratores() { return detratores; }
+
+        public double getTaxa() {
+            return total == 0 ? 0.0 : (double) detratores / total;
+        }
+    }
+}
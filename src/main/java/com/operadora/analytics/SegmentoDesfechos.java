@@ -0,0 +1,97 @@
+package com.operadora.analytics;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Segmento diario do armazem de desfechos
+ * ========================================
+ *
+ * Um diretorio por dia com uma coluna por arquivo, todas com o mesmo
+ * numero de linhas:
+ *   nivel.u8      codigo do nivel de risco (ver ArmazemDesfechos.NIVEIS)
+ *   nps.u8        score NPS 0-10
+ *   categoria.u8  codigo da categoria (ver ArmazemDesfechos.CATEGORIAS)
+ *   navegador.i32 id do navegador no dicionario (0 = sem navegador)
+ *
+ * Instancia imutavel: mapeia as colunas em memoria (somente leitura) com o
+ * numero de linhas do momento da abertura. Apos um append, o armazem abre
+ * uma nova instancia do dia.
+ */
+final class SegmentoDesfechos {
+
+    static final String NIVEL = "nivel.u8";
+    static final String NPS = "nps.u8";
+    static final String CATEGORIA = "categoria.u8";
+    static final String NAVEGADOR = "navegador.i32";
+
+    private final LocalDate dia;
+    private final int linhas;
+    private final MappedByteBuffer nivel;
+    private final MappedByteBuffer nps;
+    private final MappedByteBuffer categoria;
+    private final MappedByteBuffer navegador;
+
+    private SegmentoDesfechos(LocalDate dia, int linhas, MappedByteBuffer nivel, MappedByteBuffer nps,
+                              MappedByteBuffer categoria, MappedByteBuffer navegador) {
+        this.dia = dia;
+        this.linhas = linhas;
+        this.nivel = nivel;
+        this.nps = nps;
+        this.categoria = categoria;
+        this.navegador = navegador;
+    }
+
+    /**
+     * Abre o segmento do dia com o menor numero de linhas comum as colunas
+     * (bytes a mais de um append interrompido sao ignorados e sobrescritos
+     * no proximo append).
+     */
+    static SegmentoDesfechos abrir(Path diretorio, LocalDate dia) throws IOException {
+        int linhas = contarLinhas(diretorio);
+        return new SegmentoDesfechos(dia, linhas,
+            mapear(diretorio.resolve(NIVEL), linhas),
+            mapear(diretorio.resolve(NPS), linhas),
+            mapear(diretorio.resolve(CATEGORIA), linhas),
+            mapear(diretorio.resolve(NAVEGADOR), linhas * 4L));
+    }
+
+    static int contarLinhas(Path diretorio) throws IOException {
+        return (int) Math.min(
+            Math.min(tamanho(diretorio.resolve(NIVEL)), tamanho(diretorio.resolve(NPS))),
+            Math.min(tamanho(diretorio.resolve(CATEGORIA)), tamanho(diretorio.resolve(NAVEGADOR)) / 4));
+    }
+
+    LocalDate getDia() { return dia; }
+
+    int getLinhas() { return linhas; }
+
+    byte nivel(int linha) { return nivel.get(linha); }
+
+    byte nps(int linha) { return nps.get(linha); }
+
+    byte categoria(int linha) { return categoria.get(linha); }
+
+    int navegador(int linha) { return navegador.getInt(linha * 4); }
+
+    private static long tamanho(Path arquivo) throws IOException {
+        return Files.exists(arquivo) ? Files.size(arquivo) : 0;
+    }
+
+    private static MappedByteBuffer mapear(Path arquivo, long bytes) throws IOException {
+        if (bytes == 0) {
+            return null;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+}
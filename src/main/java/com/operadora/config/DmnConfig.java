@@ -0,0 +1,106 @@
+package com.operadora.config;
+
+import com.operadora.dmn.AvaliadorDecisoes;
+import com.operadora.dmn.CacheDecisoes;
+import com.operadora.dmn.ComportamentoDecisao;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuracao: DMN compilado e cache de decisoes
+ * ================================================
+ *
+ * Troca o comportamento dos businessRuleTask com camunda:decisionRef por
+ * ComportamentoDecisao (tabela compilada e/ou cache de resultados). Tarefas
+ * com binding diferente de latest, tenant ou mapDecisionResult nao
+ * suportado seguem com o comportamento padrao.
+ *
+ * Com o cache ativo, cada deploy de DMN descarta os resultados das versoes
+ * anteriores das decisoes deployadas.
+ *
+ * Ativacao: dmn.compilado.enabled=true e/ou dmn.cache.enabled=true
+ */
+@Configuration
+@ConditionalOnExpression("${dmn.compilado.enabled:false} or ${dmn.cache.enabled:false}")
+public class DmnConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DmnConfig.class);
+
+    @Value("${dmn.compilado.enabled:false}")
+    private boolean compilado;
+
+    @Bean
+    public ProcessEnginePlugin dmnDecisaoPlugin(AvaliadorDecisoes avaliadorDecisoes,
+                                                ObjectProvider<CacheDecisoes> cacheDecisoes) {
+        AvaliadorDecisoes avaliador = compilado ? avaliadorDecisoes : null;
+        CacheDecisoes cache = cacheDecisoes.getIfAvailable();
+
+        BpmnParseListener listener = new AbstractBpmnParseListener() {
+            @Override
+            public void parseBusinessRuleTask(Element element, ScopeImpl scope, ActivityImpl activity) {
+                String decisionRef = element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "decisionRef");
+                String binding = element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "decisionRefBinding");
+                String tenant = element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "decisionRefTenantId");
+                String mapeamento = element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "mapDecisionResult");
+
+                if (decisionRef == null || decisionRef.contains("${") || decisionRef.contains("#{")
+                        || (binding != null && !binding.equals("latest")) || tenant != null
+                        || !ComportamentoDecisao.suportado(mapeamento)) {
+                    logger.info("Business rule task {} segue com o engine", activity.getId());
+                    return;
+                }
+
+                activity.setActivityBehavior(new ComportamentoDecisao(
+                    activity.getActivityBehavior(), avaliador, cache, decisionRef,
+                    element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "resultVariable"), mapeamento));
+            }
+        };
+
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                List<BpmnParseListener> listeners = configuration.getCustomPostBPMNParseListeners() != null
+                    ? new ArrayList<>(configuration.getCustomPostBPMNParseListeners())
+                    : new ArrayList<>();
+                listeners.add(listener);
+                configuration.setCustomPostBPMNParseListeners(listeners);
+
+                if (cache != null) {
+                    List<Deployer> deployers = configuration.getCustomPostDeployers() != null
+                        ? new ArrayList<>(configuration.getCustomPostDeployers())
+                        : new ArrayList<>();
+                    deployers.add(deployment -> {
+                        List<DecisionDefinitionEntity> decisoes =
+                            deployment.getDeployedArtifacts(DecisionDefinitionEntity.class);
+                        if (decisoes != null) {
+                            decisoes.forEach(d -> cache.invalidar(d.getKey(), d.getId(), d.getVersion()));
+                        }
+                    });
+                    configuration.setCustomPostDeployers(deployers);
+                }
+
+                logger.info("Business rule tasks - Tabela compilada: {}, Cache de resultados: {}",
+                            avaliador != null, cache != null);
+            }
+        };
+    }
+}
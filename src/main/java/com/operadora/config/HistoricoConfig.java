@@ -0,0 +1,93 @@
+package com.operadora.config;
+
+import com.operadora.historico.GravadorHistoricoVariaveis;
+import com.operadora.historico.HistoryEventHandlerAssincrono;
+import com.operadora.historico.HistoryLevelSeletivo;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuracao: Historico seletivo
+ * =================================
+ *
+ * Registra o history level "seletivo" no engine. Com historico full cada
+ * atualizacao de variavel gera linhas em ACT_HI_VARINST e ACT_HI_DETAIL, e
+ * variaveis de controle (delegate_status, timestamps, ids de mensagem) sao
+ * a maior parte das escritas. O seletivo descarta o historico dessas
+ * variaveis e mantem o resto igual ao full.
+ *
+ * O registro e sempre feito; o level so e usado com
+ *   camunda.bpm.history-level: seletivo
+ *
+ * Com historico.assincrono.enabled, o historico de variaveis sai da
+ * transacao do engine e e gravado em lote nas tabelas do proprio engine
+ * (ver HistoryEventHandlerAssincrono e GravadorHistoricoVariaveis).
+ *
+ * Atencao: o engine grava o level no banco (ACT_GE_PROPERTY). Para trocar
+ * o level de um banco existente e preciso atualizar essa propriedade.
+ */
+@Configuration
+public class HistoricoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricoConfig.class);
+
+    @Value("${historico.seletivo.permitir:}")
+    private String[] permitir;
+
+    @Value("${historico.seletivo.negar:delegate_status,delegate_erro,*_timestamp,*_message_id,*_outbox_id}")
+    private String[] negar;
+
+    @Value("${historico.seletivo.detalhe:true}")
+    private boolean detalhe;
+
+    @Bean
+    public ProcessEnginePlugin historicoSeletivoPlugin() {
+        HistoryLevelSeletivo level = new HistoryLevelSeletivo(Arrays.asList(permitir), Arrays.asList(negar), detalhe);
+
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                List<HistoryLevel> levels = configuration.getCustomHistoryLevels() != null
+                    ? new ArrayList<>(configuration.getCustomHistoryLevels())
+                    : new ArrayList<>();
+                levels.add(level);
+                configuration.setCustomHistoryLevels(levels);
+
+                logger.info("History level '{}' registrado - Negar: {}, Permitir: {}, Detalhe: {}",
+                            HistoryLevelSeletivo.NOME, Arrays.asList(negar), Arrays.asList(permitir), detalhe);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "historico.assincrono.enabled", havingValue = "true")
+    public ProcessEnginePlugin historicoAssincronoPlugin(GravadorHistoricoVariaveis gravador) {
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                configuration.setHistoryEventHandler(
+                    new HistoryEventHandlerAssincrono(new DbHistoryEventHandler(), gravador));
+
+                logger.info("Historico de variaveis gravado fora da transacao do engine (em lote)");
+            }
+
+            @Override
+            public void postInit(ProcessEngineConfigurationImpl configuration) {
+                gravador.usarEngine(configuration);
+            }
+        };
+    }
+}
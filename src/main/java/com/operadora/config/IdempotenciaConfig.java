@@ -0,0 +1,77 @@
+package com.operadora.config;
+
+import com.operadora.idempotencia.IndiceBeneficiariosAtivos;
+import com.operadora.idempotencia.ListenerBeneficiarioAtivo;
+import com.operadora.services.InicioLoteService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuracao: Start idempotente do processo V2
+ * ===============================================
+ *
+ * Adiciona ao Process_Coordenacao_Cuidado_V2 o listener que reserva o CPF
+ * no inicio e libera no fim da instancia (ListenerBeneficiarioAtivo). Vale
+ * para qualquer forma de start (REST do engine, lote, mensagens): um
+ * segundo start do mesmo CPF com instancia ativa e recusado.
+ *
+ * Os listeners sao built-in: rodam mesmo com skipCustomListeners. No build
+ * do engine o indice registra as instancias V2 ja em execucao.
+ *
+ * Ativacao: idempotencia.enabled=true
+ */
+@Configuration
+@ConditionalOnProperty(name = "idempotencia.enabled", havingValue = "true")
+public class IdempotenciaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaConfig.class);
+
+    @Bean
+    public ProcessEnginePlugin idempotenciaPlugin(IndiceBeneficiariosAtivos indice) {
+        ExecutionListener listener = new ListenerBeneficiarioAtivo(indice);
+
+        BpmnParseListener parseListener = new AbstractBpmnParseListener() {
+            @Override
+            public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+                if (InicioLoteService.PROCESSO_V2.equals(processDefinition.getKey())) {
+                    processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_START, listener);
+                    processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_END, listener);
+                }
+            }
+        };
+
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                List<BpmnParseListener> listeners = configuration.getCustomPostBPMNParseListeners() != null
+                    ? new ArrayList<>(configuration.getCustomPostBPMNParseListeners())
+                    : new ArrayList<>();
+                listeners.add(parseListener);
+                configuration.setCustomPostBPMNParseListeners(listeners);
+
+                logger.info("Start idempotente por beneficiario_cpf em {}", InicioLoteService.PROCESSO_V2);
+            }
+
+            @Override
+            public void postProcessEngineBuild(ProcessEngine processEngine) {
+                // Instancias ja em execucao entram no indice antes do primeiro start
+                indice.recarregar();
+            }
+        };
+    }
+}
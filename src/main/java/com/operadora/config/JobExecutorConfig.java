@@ -0,0 +1,50 @@
+package com.operadora.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Configuracao: Job Executor com Virtual Threads
+ * ===============================================
+ *
+ * Substitui o pool de threads do job executor do Camunda (bean
+ * "camundaTaskExecutor") por um executor de virtual threads. Os delegates
+ * passam a maior parte do tempo bloqueados em I/O (WhatsApp, ML, rede
+ * credenciada); com virtual threads esse bloqueio nao ocupa thread de
+ * plataforma.
+ *
+ * O limite de concorrencia mantem a contencao no banco sob controle: ao
+ * atingir o limite, a thread de aquisicao espera por uma vaga em vez de
+ * adquirir mais jobs do que consegue executar.
+ *
+ * Ativacao (requer Java 21, ver profile Maven "java21"):
+ *   job-executor.virtual-threads.enabled: true
+ */
+@Configuration
+@ConditionalOnJava(JavaVersion.TWENTY_ONE)
+@ConditionalOnProperty(name = "job-executor.virtual-threads.enabled", havingValue = "true")
+public class JobExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobExecutorConfig.class);
+
+    @Value("${job-executor.virtual-threads.max-concorrencia:200}")
+    private int maxConcorrencia;
+
+    @Bean(name = "camundaTaskExecutor")
+    public TaskExecutor camundaTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("camunda-job-vt-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxConcorrencia);
+
+        logger.info("Job executor em virtual threads - Concorrencia maxima: {}", maxConcorrencia);
+        return executor;
+    }
+}
@@ -0,0 +1,65 @@
+package com.operadora.config;
+
+import com.operadora.delegates.navegacao.ListenerLiberarNavegador;
+import com.operadora.services.NavegadorService;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuracao: Liberacao da vaga do navegador
+ * =============================================
+ *
+ * Adiciona aos processos de coordenacao (V1 e V2) o listener de fim que
+ * devolve a vaga do navegador atribuido (ListenerLiberarNavegador). O
+ * listener e built-in: dispara no fim normal, nos eventos de fim de erro e
+ * timeout e no cancelamento, mesmo com skipCustomListeners.
+ */
+@Configuration
+public class NavegadorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(NavegadorConfig.class);
+
+    private static final Set<String> PROCESSOS = Set.of(
+        "Process_Coordenacao_Cuidado", "Process_Coordenacao_Cuidado_V2");
+
+    @Bean
+    public ProcessEnginePlugin navegadorPlugin(NavegadorService navegadorService) {
+        ExecutionListener listener = new ListenerLiberarNavegador(navegadorService);
+
+        BpmnParseListener parseListener = new AbstractBpmnParseListener() {
+            @Override
+            public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+                if (PROCESSOS.contains(processDefinition.getKey())) {
+                    processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_END, listener);
+                }
+            }
+        };
+
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                List<BpmnParseListener> listeners = configuration.getCustomPostBPMNParseListeners() != null
+                    ? new ArrayList<>(configuration.getCustomPostBPMNParseListeners())
+                    : new ArrayList<>();
+                listeners.add(parseListener);
+                configuration.setCustomPostBPMNParseListeners(listeners);
+
+                logger.info("Liberacao de vaga do navegador no fim de {}", PROCESSOS);
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.operadora.config;
+
+import com.operadora.delegates.support.VariaveisExecucao;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuracao: Resultados compactos dos delegates
+ * =================================================
+ *
+ * Liga a gravacao das saidas de cada delegate num unico JSON
+ * ("resultado_&lt;grupo&gt;") em vez de uma variavel por campo. Com historico
+ * full cada variavel vira linhas em ACT_RU_VARIABLE, ACT_HI_VARINST e
+ * ACT_HI_DETAIL; compactando, sao uma por delegate.
+ *
+ * Os escalares listados continuam variaveis simples: sao lidos por
+ * gateways e tabelas DMN (que nao enxergam campos do JSON).
+ *
+ *   variaveis.compactacao.enabled: true
+ *   variaveis.compactacao.escalares: nivel_risco,idade,...
+ */
+@Configuration
+public class VariaveisConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariaveisConfig.class);
+
+    @Value("${variaveis.compactacao.enabled:false}")
+    private boolean compactacao;
+
+    @Value("${variaveis.compactacao.escalares:nivel_risco,idade,tem_doenca_cronica,delegate_status,delegate_erro}")
+    private String[] escalares;
+
+    @PostConstruct
+    void configurar() {
+        List<String> nomes = Arrays.stream(escalares).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        VariaveisExecucao.configurarCompactacao(compactacao, nomes);
+
+        if (compactacao) {
+            logger.info("Resultados compactos dos delegates ativos - Escalares: {}", nomes);
+        }
+    }
+}
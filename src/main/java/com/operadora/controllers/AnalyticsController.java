@@ -0,0 +1,52 @@
+package com.operadora.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.operadora.analytics.ArmazemDesfechos;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Controller: Analytics de Desfechos
+ * ===================================
+ *
+ * GET /api/analytics/desfechos/nps-por-risco?de=2024-01-01&ate=2024-01-31
+ * GET /api/analytics/desfechos/detratores-por-navegador?de=...&ate=...
+ * GET /api/analytics/desfechos/total?de=...&ate=...
+ *
+ * Periodo opcional (dias inclusivos); sem periodo, considera todo o armazem.
+ */
+@RestController
+@RequestMapping("/api/analytics/desfechos")
+public class AnalyticsController {
+
+    @Autowired
+    private ArmazemDesfechos armazem;
+
+    @GetMapping("/nps-por-risco")
+    public Map<String, ArmazemDesfechos.ResumoNps> npsPorRisco(
+            @RequestParam(name = "de", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(name = "ate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        return armazem.npsPorNivelRisco(de, ate);
+    }
+
+    @GetMapping("/detratores-por-navegador")
+    public Map<String, ArmazemDesfechos.ResumoDetratores> detratoresPorNavegador(
+            @RequestParam(name = "de", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(name = "ate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        return armazem.detratoresPorNavegador(de, ate);
+    }
+
+    @GetMapping("/total")
+    public Map<String, Long> total(
+            @RequestParam(name = "de", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(name = "ate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        return Map.of("desfechos", armazem.total(de, ate));
+    }
+}
@@ -0,0 +1,93 @@
+package com.operadora.controllers;
+
+import org.camunda.bpm.dmn.engine.DmnDecisionResult;
+import org.camunda.bpm.engine.DecisionService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.operadora.dmn.AvaliadorDecisoes;
+import com.operadora.dmn.CacheDecisoes;
+import com.operadora.dmn.TabelaCompilada;
+import com.operadora.services.AvaliacaoLoteService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Controller: Decisoes DMN
+ * ========================
+ *
+ * POST /api/decisoes/{key}/avaliar       -> avalia (tabela compilada ou engine)
+ * POST /api/decisoes/{key}/lote          -> NDJSON de entradas -> NDJSON de resultados (streaming)
+ * GET  /api/decisoes/cache               -> taxa de acerto e tempo economizado do cache
+ *
+ * Equivalencia compilado x engine e benchmark: TabelaCompiladaEquivalenciaTest
+ * e TabelaCompiladaBenchmark (src/test).
+ */
+@RestController
+@RequestMapping("/api/decisoes")
+public class DecisaoController {
+
+    @Autowired
+    private AvaliadorDecisoes avaliadorDecisoes;
+
+    @Autowired
+    private DecisionService decisionService;
+
+    @Autowired
+    private ObjectProvider<CacheDecisoes> cacheDecisoes;
+
+    @Autowired
+    private AvaliacaoLoteService avaliacaoLoteService;
+
+    @PostMapping("/{key}/avaliar")
+    public Map<String, Object> avaliar(@PathVariable("key") String key, @RequestBody Map<String, Object> variaveis) {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        TabelaCompilada tabela = avaliadorDecisoes.obter(avaliadorDecisoes.ultimaVersao(key));
+        if (tabela != null) {
+            try {
+                resposta.put("origem", "compilado");
+                resposta.put("resultado", tabela.avaliar(variaveis));
+                return resposta;
+            } catch (IllegalArgumentException e) {
+                // tipo inesperado: segue com o engine
+            }
+        }
+        DmnDecisionResult resultado = decisionService.evaluateDecisionByKey(key).variables(variaveis).evaluate();
+        resposta.put("origem", "engine");
+        resposta.put("resultado", resultado.getFirstResult() != null
+            ? new HashMap<>(resultado.getFirstResult().getEntryMap()) : null);
+        return resposta;
+    }
+
+    @PostMapping(value = "/{key}/lote", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> lote(@PathVariable("key") String key, HttpServletRequest request) {
+        Function<Map<String, Object>, Map<String, Object>> avaliador;
+        try {
+            avaliador = avaliacaoLoteService.preparar(key);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("erro", e.getMessage()));
+        }
+        StreamingResponseBody corpo = saida -> avaliacaoLoteService.avaliar(key, avaliador, request.getInputStream(), saida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cache() {
+        CacheDecisoes cache = cacheDecisoes.getIfAvailable();
+        return cache != null ? ResponseEntity.ok(cache.estatisticas()) : ResponseEntity.notFound().build();
+    }
+}
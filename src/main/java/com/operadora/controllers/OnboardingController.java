@@ -0,0 +1,34 @@
+package com.operadora.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.operadora.services.InicioLoteService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+
+/**
+ * Controller: Onboarding em Lote
+ * ==============================
+ *
+ * POST /api/onboarding/lote  (corpo NDJSON, um beneficiario por linha)
+ *   -> inicia Process_Coordenacao_Cuidado_V2 por CPF e retorna o resumo
+ *      (iniciados, duplicados, ja ativos, erros, instancias por segundo)
+ */
+@RestController
+@RequestMapping("/api/onboarding")
+public class OnboardingController {
+
+    @Autowired
+    private InicioLoteService inicioLoteService;
+
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public InicioLoteService.Resumo iniciarLote(HttpServletRequest request) throws IOException, InterruptedException {
+        return inicioLoteService.iniciar(request.getInputStream());
+    }
+}
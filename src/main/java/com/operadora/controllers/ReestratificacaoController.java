@@ -0,0 +1,45 @@
+package com.operadora.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.operadora.services.ReestratificacaoService;
+
+import java.util.Map;
+
+/**
+ * Controller: Re-estratificacao em Massa
+ * =======================================
+ *
+ * POST /api/reestratificacao?arquivo=base.csv  -> inicia execucao
+ *      (arquivo relativo a reestratificacao.diretorio-importacao)
+ * GET  /api/reestratificacao/{id}              -> progresso e throughput
+ */
+@RestController
+@RequestMapping("/api/reestratificacao")
+public class ReestratificacaoController {
+
+    @Autowired
+    private ReestratificacaoService reestratificacaoService;
+
+    @PostMapping
+    public ResponseEntity<?> iniciar(@RequestParam("arquivo") String arquivo) {
+        try {
+            return ResponseEntity.ok(reestratificacaoService.iniciar(arquivo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReestratificacaoService.Progresso> progresso(@PathVariable("id") String id) {
+        ReestratificacaoService.Progresso progresso = reestratificacaoService.getProgresso(id);
+        return progresso != null ? ResponseEntity.ok(progresso) : ResponseEntity.notFound().build();
+    }
+}
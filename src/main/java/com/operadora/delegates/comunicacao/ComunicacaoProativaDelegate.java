@@ -7,14 +7,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.operadora.services.WhatsAppService;
+import java.util.Map;
+
+import com.operadora.delegates.support.VariaveisExecucao;
+import com.operadora.services.OutboxWhatsAppService;
+import com.operadora.services.MensagemTemplateService;
 
 /**
  * Delegate: Comunicacao Proativa
  * ===============================
  *
  * Responsabilidade TECNICA:
- * - Envia comunicacoes proativas via WhatsApp
+ * - Registra comunicacoes proativas na outbox WhatsApp
  * - Lembretes, dicas de saude, campanhas preventivas
  *
  * INPUT (variaveis esperadas):
@@ -24,8 +28,12 @@ import com.operadora.services.WhatsAppService;
  * - acoes_preventivas (String[]): Lista de acoes
  *
  * OUTPUT (variaveis criadas):
- * - comunicacao_enviada (Boolean): Se mensagem foi enviada
+ * - comunicacao_enviada (Boolean): false; true na correlacao da entrega
+ * - comunicacao_outbox_id (Long): ID da mensagem na outbox
  * - comunicacao_tipo (String): Tipo de comunicacao enviada
+ *
+ * Entregue a mensagem, o OutboxDispatcherService correlaciona
+ * Message_WhatsAppEntregue com comunicacao_enviada=true e comunicacao_message_id.
  */
 @Component("comunicacaoProativaDelegate")
 public class ComunicacaoProativaDelegate implements JavaDelegate {
@@ -33,7 +41,10 @@ public class ComunicacaoProativaDelegate implements JavaDelegate {
     private static final Logger logger = LoggerFactory.getLogger(ComunicacaoProativaDelegate.class);
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private OutboxWhatsAppService outboxWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -42,62 +53,47 @@ public class ComunicacaoProativaDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando comunicacao proativa - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_nome", "beneficiario_telefone", "proxima_acao")
+            .resultadoEm("comunicacao");
+
         try {
             // 1. LER variaveis de entrada
-            String nome = getRequiredVariable(execution, "beneficiario_nome", String.class);
-            String telefone = getRequiredVariable(execution, "beneficiario_telefone", String.class);
-            String proximaAcao = getOptionalVariable(execution, "proxima_acao", String.class, "LEMBRETE_SAUDE");
+            String nome = vars.obrigatoria("beneficiario_nome", String.class);
+            String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+            String proximaAcao = vars.opcional("proxima_acao", String.class, "LEMBRETE_SAUDE");
 
             // 2. EXECUTAR logica tecnica
             String mensagem = construirMensagem(nome, proximaAcao);
-            WhatsAppService.SendResult resultado = whatsAppService.enviarMensagem(telefone, mensagem);
+            Long outboxId = outboxWhatsApp.registrar(processInstanceId, "comunicacao", telefone, mensagem);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("comunicacao_enviada", resultado.isSuccess());
-            execution.setVariable("comunicacao_tipo", proximaAcao);
-            execution.setVariable("comunicacao_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("comunicacao_enviada", false);
+            vars.definir("comunicacao_outbox_id", outboxId);
+            vars.definir("comunicacao_tipo", proximaAcao);
+            vars.definir("comunicacao_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
-            logger.info("[{}] Comunicacao enviada - Tipo: {}, Sucesso: {}",
-                        activityId, proximaAcao, resultado.isSuccess());
+            logger.info("[{}] Comunicacao registrada na outbox - Tipo: {}, OutboxID: {}",
+                        activityId, proximaAcao, outboxId);
 
         } catch (Exception e) {
             logger.error("[{}] Erro na comunicacao: {}", activityId, e.getMessage(), e);
-            execution.setVariable("comunicacao_enviada", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("comunicacao_enviada", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
 
     private String construirMensagem(String nome, String tipoAcao) {
-        switch (tipoAcao) {
-            case "VACINA":
-                return String.format("Ola %s! Chegou a hora de atualizar suas vacinas. " +
-                    "Consulte a rede credenciada mais proxima.", nome);
-            case "CHECKUP":
-                return String.format("Ola %s! Voce esta em dia com seus exames de rotina? " +
-                    "Agende seu checkup anual.", nome);
-            case "MEDICAMENTO":
-                return String.format("Ola %s! Lembre-se de tomar seus medicamentos conforme prescrito.", nome);
-            default:
-                return String.format("Ola %s! A Operadora Digital do Futuro esta cuidando de voce. " +
-                    "Qualquer duvida, estamos aqui!", nome);
+        // Templates: comunicacao.VACINA, comunicacao.CHECKUP, comunicacao.MEDICAMENTO
+        String chave = "comunicacao." + tipoAcao;
+        if (!templates.existe(chave)) {
+            chave = "comunicacao.PADRAO";
         }
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
+        return templates.renderizar(chave, Map.of("nome", nome));
     }
 }
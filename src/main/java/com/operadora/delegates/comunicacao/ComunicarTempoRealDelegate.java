@@ -7,14 +7,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.operadora.services.WhatsAppService;
+import java.util.Map;
+
+import com.operadora.delegates.support.VariaveisExecucao;
+import com.operadora.services.OutboxWhatsAppService;
+import com.operadora.services.MensagemTemplateService;
 
 /**
  * Delegate: Comunicar Tempo Real
  * ===============================
  *
  * Responsabilidade TECNICA:
- * - Envia atualizacoes em tempo real para pacientes de alto risco
+ * - Registra atualizacoes para pacientes de alto risco na outbox WhatsApp
  * - Status de autorizacoes, agendamentos, resultados
  *
  * INPUT (variaveis esperadas):
@@ -24,8 +28,12 @@ import com.operadora.services.WhatsAppService;
  * - jornada_status (String): Status atual da jornada
  *
  * OUTPUT (variaveis criadas):
- * - notificacao_enviada (Boolean): Se notificacao foi enviada
+ * - notificacao_enviada (Boolean): false; true na correlacao da entrega
+ * - notificacao_outbox_id (Long): ID da mensagem na outbox
  * - notificacao_tipo (String): Tipo de notificacao
+ *
+ * Entregue a mensagem, o OutboxDispatcherService correlaciona
+ * Message_WhatsAppEntregue com notificacao_enviada=true e notificacao_message_id.
  */
 @Component("comunicarTempoRealDelegate")
 public class ComunicarTempoRealDelegate implements JavaDelegate {
@@ -33,7 +41,10 @@ public class ComunicarTempoRealDelegate implements JavaDelegate {
     private static final Logger logger = LoggerFactory.getLogger(ComunicarTempoRealDelegate.class);
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private OutboxWhatsAppService outboxWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -42,35 +53,42 @@ public class ComunicarTempoRealDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando comunicacao tempo real - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_nome", "beneficiario_telefone", "navegador_nome", "jornada_status")
+            .resultadoEm("notificacao");
+
         try {
             // 1. LER variaveis de entrada
-            String nome = getRequiredVariable(execution, "beneficiario_nome", String.class);
-            String telefone = getRequiredVariable(execution, "beneficiario_telefone", String.class);
-            String navegadorNome = getOptionalVariable(execution, "navegador_nome", String.class, "Equipe de Cuidados");
-            String jornadaStatus = getOptionalVariable(execution, "jornada_status", String.class, "EM_ACOMPANHAMENTO");
+            String nome = vars.obrigatoria("beneficiario_nome", String.class);
+            String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+            String navegadorNome = vars.opcional("navegador_nome", String.class, "Equipe de Cuidados");
+            String jornadaStatus = vars.opcional("jornada_status", String.class, "EM_ACOMPANHAMENTO");
 
             // 2. EXECUTAR logica tecnica
-            String mensagem = String.format(
-                "Ola %s! Seu navegador de saude %s esta acompanhando sua jornada. " +
-                "Status atual: %s. Em caso de duvidas, responda esta mensagem.",
-                nome, navegadorNome, traduzirStatus(jornadaStatus)
-            );
+            String mensagem = templates.renderizar("tempo_real", Map.of(
+                "nome", nome,
+                "navegador", navegadorNome,
+                "status", traduzirStatus(jornadaStatus)
+            ));
 
-            WhatsAppService.SendResult resultado = whatsAppService.enviarMensagem(telefone, mensagem);
+            Long outboxId = outboxWhatsApp.registrar(processInstanceId, "notificacao", telefone, mensagem);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("notificacao_enviada", resultado.isSuccess());
-            execution.setVariable("notificacao_tipo", "ATUALIZACAO_JORNADA");
-            execution.setVariable("notificacao_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("notificacao_enviada", false);
+            vars.definir("notificacao_outbox_id", outboxId);
+            vars.definir("notificacao_tipo", "ATUALIZACAO_JORNADA");
+            vars.definir("notificacao_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
-            logger.info("[{}] Notificacao enviada - Sucesso: {}", activityId, resultado.isSuccess());
+            logger.info("[{}] Notificacao registrada na outbox - OutboxID: {}", activityId, outboxId);
 
         } catch (Exception e) {
             logger.error("[{}] Erro na notificacao: {}", activityId, e.getMessage(), e);
-            execution.setVariable("notificacao_enviada", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("notificacao_enviada", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
@@ -85,19 +103,4 @@ public class ComunicarTempoRealDelegate implements JavaDelegate {
             default: return status;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.MonitoramentoService;
 
 /**
@@ -42,39 +43,35 @@ public class MonitoramentoProativoDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando monitoramento proativo - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution, "beneficiario_cpf", "nivel_risco")
+            .resultadoEm("monitoramento");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String nivelRisco = getRequiredVariable(execution, "nivel_risco", String.class);
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String nivelRisco = vars.obrigatoria("nivel_risco", String.class);
 
             // 2. EXECUTAR logica tecnica
             MonitoramentoService.MonitoramentoResult resultado =
                 monitoramentoService.verificarGatilhos(cpf, nivelRisco);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("gatilhos_identificados", resultado.getGatilhos());
-            execution.setVariable("acoes_preventivas", resultado.getAcoesPreventivas());
-            execution.setVariable("requer_contato_imediato", resultado.isRequerContatoImediato());
-            execution.setVariable("proxima_acao", resultado.getProximaAcao());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("gatilhos_identificados", resultado.getGatilhos());
+            vars.definir("acoes_preventivas", resultado.getAcoesPreventivas());
+            vars.definir("requer_contato_imediato", resultado.isRequerContatoImediato());
+            vars.definir("proxima_acao", resultado.getProximaAcao());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Monitoramento concluido - Gatilhos: {}, Contato imediato: {}",
                         activityId, resultado.getGatilhos().size(), resultado.isRequerContatoImediato());
 
         } catch (Exception e) {
             logger.error("[{}] Erro no monitoramento: {}", activityId, e.getMessage(), e);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
 }
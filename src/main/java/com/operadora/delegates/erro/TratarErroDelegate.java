@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.NotificacaoService;
 
 /**
@@ -41,11 +42,15 @@ public class TratarErroDelegate implements JavaDelegate {
 
         logger.error("[{}] Tratando erro de integracao - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "delegate_erro", "delegate_status")
+            .resultadoEm("erro");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getOptionalVariable(execution, "beneficiario_cpf", String.class, "");
-            String erroMensagem = getOptionalVariable(execution, "delegate_erro", String.class, "Erro desconhecido");
-            String erroStatus = getOptionalVariable(execution, "delegate_status", String.class, "ERRO");
+            String cpf = vars.opcional("beneficiario_cpf", String.class, "");
+            String erroMensagem = vars.opcional("delegate_erro", String.class, "Erro desconhecido");
+            String erroStatus = vars.opcional("delegate_status", String.class, "ERRO");
 
             // 2. EXECUTAR logica tecnica
             // Gera ID do incidente
@@ -59,25 +64,21 @@ public class TratarErroDelegate implements JavaDelegate {
                     incidenteId, processInstanceId, cpf, erroMensagem));
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("erro_tratado", true);
-            execution.setVariable("erro_tipo", erroStatus);
-            execution.setVariable("erro_incidente_id", incidenteId);
-            execution.setVariable("erro_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "ERRO_TRATADO");
+            vars.definir("erro_tratado", true);
+            vars.definir("erro_tipo", erroStatus);
+            vars.definir("erro_incidente_id", incidenteId);
+            vars.definir("erro_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "ERRO_TRATADO");
+            vars.gravar();
 
             logger.info("[{}] Erro tratado - Incidente: {}", activityId, incidenteId);
 
         } catch (Exception e) {
             logger.error("[{}] Erro ao tratar erro (meta-erro): {}", activityId, e.getMessage(), e);
-            execution.setVariable("erro_tratado", false);
-            execution.setVariable("delegate_status", "ERRO_CRITICO");
+            vars.definir("erro_tratado", false);
+            vars.definir("delegate_status", "ERRO_CRITICO");
+            vars.gravar();
             // Nao relanca excecao - ja estamos no fluxo de erro
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.NotificacaoService;
 
 /**
@@ -42,11 +43,15 @@ public class TratarTimeoutDelegate implements JavaDelegate {
 
         logger.warn("[{}] Tratando timeout de screening - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "beneficiario_nome", "beneficiario_telefone")
+            .resultadoEm("timeout");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getOptionalVariable(execution, "beneficiario_cpf", String.class, "");
-            String nome = getOptionalVariable(execution, "beneficiario_nome", String.class, "Beneficiario");
-            String telefone = getOptionalVariable(execution, "beneficiario_telefone", String.class, "");
+            String cpf = vars.opcional("beneficiario_cpf", String.class, "");
+            String nome = vars.opcional("beneficiario_nome", String.class, "Beneficiario");
+            String telefone = vars.opcional("beneficiario_telefone", String.class, "");
 
             // 2. EXECUTAR logica tecnica
             // Registra o timeout
@@ -63,26 +68,22 @@ public class TratarTimeoutDelegate implements JavaDelegate {
                 String.format("Beneficiario %s (CPF: %s) nao completou screening em 24h", nome, cpf));
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("timeout_tratado", true);
-            execution.setVariable("timeout_acao", "LEMBRETE_ENVIADO");
-            execution.setVariable("timeout_motivo", "SCREENING_NAO_COMPLETADO_24H");
-            execution.setVariable("timeout_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("timeout_tratado", true);
+            vars.definir("timeout_acao", "LEMBRETE_ENVIADO");
+            vars.definir("timeout_motivo", "SCREENING_NAO_COMPLETADO_24H");
+            vars.definir("timeout_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Timeout tratado - Acao: LEMBRETE_ENVIADO", activityId);
 
         } catch (Exception e) {
             logger.error("[{}] Erro ao tratar timeout: {}", activityId, e.getMessage(), e);
-            execution.setVariable("timeout_tratado", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("timeout_tratado", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             // Nao relanca excecao - timeout ja e um fluxo de erro
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
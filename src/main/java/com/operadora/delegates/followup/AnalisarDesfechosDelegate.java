@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.AnalyticsService;
 
 /**
@@ -15,17 +16,18 @@ import com.operadora.services.AnalyticsService;
  *
  * Responsabilidade TECNICA:
  * - Analisa desfechos clinicos e operacionais
- * - Registra metricas para machine learning
+ * - Registra o desfecho no armazem de analytics (ArmazemDesfechos)
  *
  * INPUT (variaveis esperadas):
  * - beneficiario_cpf (String): CPF do beneficiario
  * - nivel_risco (String): Nivel de risco do beneficiario
  * - nps_score (Integer): Score NPS coletado
  * - jornada_id (String): ID da jornada (se houver)
+ * - navegador_id (String): Navegador responsavel (se houver)
  *
  * OUTPUT (variaveis criadas):
  * - desfecho_categoria (String): POSITIVO, NEUTRO, NEGATIVO
- * - desfecho_metricas (Object): Metricas coletadas
+ * - desfecho_recomendacoes (List): Recomendacoes para a categoria
  * - ciclo_completo (Boolean): Se ciclo foi finalizado
  */
 @Component("analisarDesfechosDelegate")
@@ -43,50 +45,41 @@ public class AnalisarDesfechosDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando analise de desfechos - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "nivel_risco", "nps_score", "jornada_id", "navegador_id")
+            .resultadoEm("desfecho");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String nivelRisco = getOptionalVariable(execution, "nivel_risco", String.class, "BAIXO");
-            Integer npsScore = getOptionalVariable(execution, "nps_score", Integer.class, 7);
-            String jornadaId = getOptionalVariable(execution, "jornada_id", String.class, null);
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String nivelRisco = vars.opcional("nivel_risco", String.class, "BAIXO");
+            Integer npsScore = vars.opcional("nps_score", Integer.class, 7);
+            String jornadaId = vars.opcional("jornada_id", String.class, null);
+            String navegadorId = vars.opcional("navegador_id", String.class, null);
 
             // 2. EXECUTAR logica tecnica
             AnalyticsService.DesfechoResult resultado = analyticsService.analisarDesfechos(
-                cpf, nivelRisco, npsScore, jornadaId, processInstanceId
+                cpf, nivelRisco, npsScore, jornadaId, navegadorId, processInstanceId
             );
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("desfecho_categoria", resultado.getCategoria());
-            execution.setVariable("desfecho_metricas", resultado.getMetricasJson());
-            execution.setVariable("desfecho_recomendacoes", resultado.getRecomendacoes());
-            execution.setVariable("ciclo_completo", true);
-            execution.setVariable("ciclo_data_fim", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("desfecho_categoria", resultado.getCategoria());
+            vars.definir("desfecho_recomendacoes", resultado.getRecomendacoes());
+            vars.definir("ciclo_completo", true);
+            vars.definir("ciclo_data_fim", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Desfechos analisados - Categoria: {}, Ciclo completo",
                         activityId, resultado.getCategoria());
 
         } catch (Exception e) {
             logger.error("[{}] Erro na analise de desfechos: {}", activityId, e.getMessage(), e);
-            execution.setVariable("ciclo_completo", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("ciclo_completo", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
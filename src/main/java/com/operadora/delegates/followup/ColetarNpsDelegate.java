@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.NpsService;
 
 /**
@@ -43,41 +44,38 @@ public class ColetarNpsDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando coleta de NPS - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "beneficiario_nome", "beneficiario_telefone")
+            .resultadoEm("nps");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String nome = getRequiredVariable(execution, "beneficiario_nome", String.class);
-            String telefone = getRequiredVariable(execution, "beneficiario_telefone", String.class);
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String nome = vars.obrigatoria("beneficiario_nome", String.class);
+            String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
 
             // 2. EXECUTAR logica tecnica
             NpsService.NpsResult resultado = npsService.coletarNps(cpf, nome, telefone);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("nps_enviado", true);
-            execution.setVariable("nps_score", resultado.getScore());
-            execution.setVariable("nps_categoria", resultado.getCategoria());
-            execution.setVariable("nps_comentario", resultado.getComentario());
-            execution.setVariable("nps_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("nps_enviado", true);
+            vars.definir("nps_score", resultado.getScore());
+            vars.definir("nps_categoria", resultado.getCategoria());
+            vars.definir("nps_comentario", resultado.getComentario());
+            vars.definir("nps_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] NPS coletado - Score: {}, Categoria: {}",
                         activityId, resultado.getScore(), resultado.getCategoria());
 
         } catch (Exception e) {
             logger.error("[{}] Erro na coleta NPS: {}", activityId, e.getMessage(), e);
-            execution.setVariable("nps_enviado", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("nps_enviado", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.FollowupService;
 
 /**
@@ -43,46 +44,37 @@ public class FollowupPosDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando follow-up pos-atendimento - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "beneficiario_nome", "beneficiario_telefone", "jornada_id")
+            .resultadoEm("followup");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String nome = getRequiredVariable(execution, "beneficiario_nome", String.class);
-            String telefone = getRequiredVariable(execution, "beneficiario_telefone", String.class);
-            String jornadaId = getOptionalVariable(execution, "jornada_id", String.class, null);
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String nome = vars.obrigatoria("beneficiario_nome", String.class);
+            String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+            String jornadaId = vars.opcional("jornada_id", String.class, null);
 
             // 2. EXECUTAR logica tecnica
             FollowupService.FollowupResult resultado = followupService.realizarFollowup(cpf, nome, telefone, jornadaId);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("followup_realizado", true);
-            execution.setVariable("followup_resposta", resultado.getResposta());
-            execution.setVariable("followup_satisfacao", resultado.getSatisfacao());
-            execution.setVariable("followup_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("followup_realizado", true);
+            vars.definir("followup_resposta", resultado.getResposta());
+            vars.definir("followup_satisfacao", resultado.getSatisfacao());
+            vars.definir("followup_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Follow-up realizado - Satisfacao: {}/5", activityId, resultado.getSatisfacao());
 
         } catch (Exception e) {
             logger.error("[{}] Erro no follow-up: {}", activityId, e.getMessage(), e);
-            execution.setVariable("followup_realizado", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("followup_realizado", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
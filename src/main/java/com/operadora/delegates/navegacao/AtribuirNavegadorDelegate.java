@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.NavegadorService;
 
 /**
@@ -43,47 +44,38 @@ public class AtribuirNavegadorDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando atribuicao de navegador - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "nivel_risco", "fatores_risco")
+            .resultadoEm("navegador");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String nivelRisco = getRequiredVariable(execution, "nivel_risco", String.class);
-            String fatoresRisco = getOptionalVariable(execution, "fatores_risco", String.class, "");
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String nivelRisco = vars.obrigatoria("nivel_risco", String.class);
+            String fatoresRisco = vars.opcional("fatores_risco", String.class, "");
 
             // 2. EXECUTAR logica tecnica
             NavegadorService.Navegador navegador = navegadorService.atribuirNavegador(cpf, nivelRisco, fatoresRisco);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("navegador_id", navegador.getId());
-            execution.setVariable("navegador_nome", navegador.getNome());
-            execution.setVariable("navegador_telefone", navegador.getTelefone());
-            execution.setVariable("navegador_especialidade", navegador.getEspecialidade());
-            execution.setVariable("navegador_atribuido", true);
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("navegador_id", navegador.getId());
+            vars.definir("navegador_nome", navegador.getNome());
+            vars.definir("navegador_telefone", navegador.getTelefone());
+            vars.definir("navegador_especialidade", navegador.getEspecialidade());
+            vars.definir("navegador_atribuido", true);
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Navegador atribuido - ID: {}, Nome: {}, Especialidade: {}",
                         activityId, navegador.getId(), navegador.getNome(), navegador.getEspecialidade());
 
         } catch (Exception e) {
             logger.error("[{}] Erro ao atribuir navegador: {}", activityId, e.getMessage(), e);
-            execution.setVariable("navegador_atribuido", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("navegador_atribuido", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
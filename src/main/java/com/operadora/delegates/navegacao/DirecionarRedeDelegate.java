@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
+import com.operadora.services.NavegadorService;
 import com.operadora.services.RedeCredenciadaService;
 
 /**
@@ -16,11 +18,15 @@ import com.operadora.services.RedeCredenciadaService;
  * Responsabilidade TECNICA:
  * - Identifica a melhor rede credenciada para o paciente
  * - Considera localizacao, especialidade e qualidade
+ * - Roda em paralelo com AtribuirNavegadorDelegate: a especialidade e
+ *   derivada de fatores_risco (mesma regra do NavegadorService), sem
+ *   depender do navegador ja atribuido
  *
  * INPUT (variaveis esperadas):
  * - beneficiario_cpf (String): CPF do beneficiario
  * - fatores_risco (String): Fatores de risco identificados
- * - navegador_especialidade (String): Especialidade do navegador
+ * - beneficiario_latitude (Double, opcional): Latitude do beneficiario
+ * - beneficiario_longitude (Double, opcional): Longitude do beneficiario
  *
  * OUTPUT (variaveis criadas):
  * - rede_prestador_id (String): ID do prestador selecionado
@@ -28,6 +34,7 @@ import com.operadora.services.RedeCredenciadaService;
  * - rede_prestador_endereco (String): Endereco
  * - rede_prestador_telefone (String): Telefone
  * - rede_qualidade_score (Double): Score de qualidade
+ * - rede_distancia_km (Double): Distancia ate o prestador
  */
 @Component("direcionarRedeDelegate")
 public class DirecionarRedeDelegate implements JavaDelegate {
@@ -44,48 +51,42 @@ public class DirecionarRedeDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando direcionamento para rede - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "fatores_risco", "beneficiario_latitude", "beneficiario_longitude")
+            .resultadoEm("rede");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String fatoresRisco = getOptionalVariable(execution, "fatores_risco", String.class, "");
-            String especialidade = getOptionalVariable(execution, "navegador_especialidade", String.class, "CLINICO_GERAL");
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String fatoresRisco = vars.opcional("fatores_risco", String.class, "");
+            String especialidade = NavegadorService.definirEspecialidade(fatoresRisco);
+            Double latitude = vars.opcional("beneficiario_latitude", Double.class, null);
+            Double longitude = vars.opcional("beneficiario_longitude", Double.class, null);
 
             // 2. EXECUTAR logica tecnica
-            RedeCredenciadaService.Prestador prestador = redeService.buscarMelhorPrestador(cpf, especialidade, fatoresRisco);
+            RedeCredenciadaService.Prestador prestador =
+                redeService.buscarMelhorPrestador(cpf, especialidade, fatoresRisco, latitude, longitude);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("rede_prestador_id", prestador.getId());
-            execution.setVariable("rede_prestador_nome", prestador.getNome());
-            execution.setVariable("rede_prestador_endereco", prestador.getEndereco());
-            execution.setVariable("rede_prestador_telefone", prestador.getTelefone());
-            execution.setVariable("rede_qualidade_score", prestador.getQualidadeScore());
-            execution.setVariable("rede_direcionada", true);
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("rede_prestador_id", prestador.getId());
+            vars.definir("rede_prestador_nome", prestador.getNome());
+            vars.definir("rede_prestador_endereco", prestador.getEndereco());
+            vars.definir("rede_prestador_telefone", prestador.getTelefone());
+            vars.definir("rede_qualidade_score", prestador.getQualidadeScore());
+            vars.definir("rede_distancia_km", prestador.getDistanciaKm());
+            vars.definir("rede_direcionada", true);
+            vars.gravar();
 
             logger.info("[{}] Rede direcionada - Prestador: {}, Score: {:.2f}",
                         activityId, prestador.getNome(), prestador.getQualidadeScore());
 
         } catch (Exception e) {
             logger.error("[{}] Erro ao direcionar rede: {}", activityId, e.getMessage(), e);
-            execution.setVariable("rede_direcionada", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            // delegate_status/delegate_erro ficam com o ramo do navegador: os dois
+            // ramos gravando a mesma variavel em paralelo gerariam OptimisticLockingException
+            vars.definir("rede_direcionada", false);
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
@@ -0,0 +1,44 @@
+package com.operadora.delegates.navegacao;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.operadora.delegates.support.VariaveisExecucao;
+import com.operadora.services.NavegadorService;
+
+/**
+ * Listener de fim dos processos de coordenacao: libera a vaga do navegador
+ * atribuido (navegador_id) quando a instancia termina, por qualquer evento
+ * de fim ou cancelamento. A liberacao acontece apos o commit, para nao
+ * devolver a vaga de um fim que foi desfeito.
+ */
+public class ListenerLiberarNavegador implements ExecutionListener {
+
+    private final NavegadorService navegadorService;
+
+    public ListenerLiberarNavegador(NavegadorService navegadorService) {
+        this.navegadorService = navegadorService;
+    }
+
+    @Override
+    public void notify(DelegateExecution execution) {
+        Object navegadorId = VariaveisExecucao.campo(execution, "navegador_id");
+        if (navegadorId == null || navegadorId.toString().isBlank()) {
+            return;
+        }
+        String id = navegadorId.toString();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            navegadorService.liberarNavegador(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                navegadorService.liberarNavegador(id);
+            }
+        });
+    }
+}
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.JornadaService;
 
 /**
@@ -44,49 +45,40 @@ public class OrquestrarJornadaDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando orquestracao de jornada - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "beneficiario_cpf", "navegador_id", "rede_prestador_id", "fatores_risco")
+            .resultadoEm("jornada");
+
         try {
             // 1. LER variaveis de entrada
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
-            String navegadorId = getRequiredVariable(execution, "navegador_id", String.class);
-            String prestadorId = getOptionalVariable(execution, "rede_prestador_id", String.class, "");
-            String fatoresRisco = getOptionalVariable(execution, "fatores_risco", String.class, "");
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+            String navegadorId = vars.obrigatoria("navegador_id", String.class);
+            String prestadorId = vars.opcional("rede_prestador_id", String.class, "");
+            String fatoresRisco = vars.opcional("fatores_risco", String.class, "");
 
             // 2. EXECUTAR logica tecnica
             JornadaService.Jornada jornada = jornadaService.criarJornada(cpf, navegadorId, prestadorId, fatoresRisco);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("jornada_id", jornada.getId());
-            execution.setVariable("jornada_status", jornada.getStatus());
-            execution.setVariable("jornada_etapas", jornada.getEtapas());
-            execution.setVariable("jornada_proxima_etapa", jornada.getProximaEtapa());
-            execution.setVariable("jornada_data_inicio", jornada.getDataInicio());
-            execution.setVariable("jornada_criada", true);
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("jornada_id", jornada.getId());
+            vars.definir("jornada_status", jornada.getStatus());
+            vars.definir("jornada_etapas", jornada.getEtapas());
+            vars.definir("jornada_proxima_etapa", jornada.getProximaEtapa());
+            vars.definir("jornada_data_inicio", jornada.getDataInicio());
+            vars.definir("jornada_criada", true);
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Jornada criada - ID: {}, Etapas: {}, Proxima: {}",
                         activityId, jornada.getId(), jornada.getEtapas().size(), jornada.getProximaEtapa());
 
         } catch (Exception e) {
             logger.error("[{}] Erro ao orquestrar jornada: {}", activityId, e.getMessage(), e);
-            execution.setVariable("jornada_criada", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("jornada_criada", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
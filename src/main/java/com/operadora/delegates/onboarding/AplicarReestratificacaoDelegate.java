@@ -0,0 +1,90 @@
+package com.operadora.delegates.onboarding;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.operadora.delegates.support.VariaveisExecucao;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Delegate: Aplicar Re-estratificacao
+ * ====================================
+ *
+ * Responsabilidade TECNICA:
+ * - Aplica na instancia o risco recalculado pela re-estratificacao em massa
+ *   (ReestratificacaoService), recebido pela mensagem
+ *   Message_RiscoReestratificado no subprocesso de evento
+ * - Roda como job da instancia (asyncBefore), serializado com as demais
+ *   etapas: nao concorre com elas pelas variaveis
+ *
+ * INPUT (variaveis esperadas):
+ * - reestratificacao_nivel_risco (String): Nivel recalculado
+ * - reestratificacao_score_risco (Double): Score recalculado
+ * - reestratificacao_probabilidade_internacao (Double): Prob. recalculada
+ * - reestratificacao_fatores_risco (String): Fatores recalculados
+ * - nivel_risco (String): Nivel em uso pela instancia
+ *
+ * OUTPUT (variaveis criadas):
+ * - nivel_risco, score_risco, probabilidade_internacao, fatores_risco
+ * - nivel_risco_anterior (String): Nivel substituido
+ * - reestratificacao_timestamp (String): Data/hora da aplicacao
+ * - reestratificacao_navegador (Boolean, local ao subprocesso): true se a
+ *   instancia seguiu o caminho BAIXO/MODERADO e passou a ALTO/COMPLEXO
+ *   sem navegador atribuido
+ *
+ * Instancia que ainda nao foi estratificada (sem plano_cuidados) nao e
+ * alterada: a estratificacao do proprio fluxo ja usa o modelo atual.
+ */
+@Component("aplicarReestratificacaoDelegate")
+public class AplicarReestratificacaoDelegate implements JavaDelegate {
+
+    private static final Logger logger = LoggerFactory.getLogger(AplicarReestratificacaoDelegate.class);
+
+    private static final Set<String> NIVEIS_NAVEGADOR = Set.of("ALTO", "COMPLEXO");
+
+    @Override
+    public void execute(DelegateExecution execution) throws Exception {
+        String activityId = execution.getCurrentActivityId();
+        String processInstanceId = execution.getProcessInstanceId();
+
+        if (!execution.hasVariable("plano_cuidados")) {
+            logger.info("[{}] Instancia ainda nao estratificada, re-estratificacao ignorada - Process: {}",
+                        activityId, processInstanceId);
+            execution.setVariableLocal("reestratificacao_navegador", false);
+            return;
+        }
+
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "nivel_risco", "reestratificacao_nivel_risco", "reestratificacao_score_risco",
+            "reestratificacao_probabilidade_internacao", "reestratificacao_fatores_risco")
+            .resultadoEm("estratificacao");
+
+        // 1. LER variaveis de entrada
+        String nivelAnterior = vars.obrigatoria("nivel_risco", String.class);
+        String nivelNovo = vars.obrigatoria("reestratificacao_nivel_risco", String.class);
+
+        // 2. ESCREVER variaveis de saida
+        vars.definir("nivel_risco", nivelNovo);
+        vars.definir("score_risco", vars.obrigatoria("reestratificacao_score_risco", Double.class));
+        vars.definir("probabilidade_internacao",
+                     vars.obrigatoria("reestratificacao_probabilidade_internacao", Double.class));
+        vars.definir("fatores_risco", vars.opcional("reestratificacao_fatores_risco", String.class, ""));
+        vars.definir("nivel_risco_anterior", nivelAnterior);
+        vars.definir("reestratificacao_timestamp", Instant.now().toString());
+        vars.gravar();
+
+        // 3. Escalonamento: o caminho BAIXO/MODERADO nao atribui navegador
+        boolean escalonou = !NIVEIS_NAVEGADOR.contains(nivelAnterior)
+            && NIVEIS_NAVEGADOR.contains(nivelNovo)
+            && VariaveisExecucao.campo(execution, "navegador_id") == null;
+        execution.setVariableLocal("reestratificacao_navegador", escalonou);
+
+        logger.info("[{}] Re-estratificacao aplicada - Process: {}, Nivel: {} -> {}, Atribuir navegador: {}",
+                    activityId, processInstanceId, nivelAnterior, nivelNovo, escalonou);
+    }
+}
@@ -7,24 +7,31 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.operadora.services.WhatsAppService;
+import java.util.Map;
+
+import com.operadora.delegates.support.VariaveisExecucao;
+import com.operadora.services.OutboxWhatsAppService;
+import com.operadora.services.MensagemTemplateService;
 
 /**
  * Delegate: Enviar Boas-Vindas WhatsApp
  * =====================================
  *
  * Responsabilidade TECNICA:
- * - Envia mensagem de boas-vindas via WhatsApp Business API
- * - Registra o envio no historico de comunicacoes
+ * - Registra mensagem de boas-vindas na outbox WhatsApp (mesma transacao)
+ * - O envio e feito pelo OutboxDispatcherService
  *
  * INPUT (variaveis esperadas):
  * - beneficiario_nome (String): Nome do beneficiario
  * - beneficiario_telefone (String): Telefone do beneficiario
  *
  * OUTPUT (variaveis criadas):
- * - boas_vindas_enviada (Boolean): Se mensagem foi enviada
- * - boas_vindas_message_id (String): ID da mensagem no WhatsApp
- * - boas_vindas_timestamp (String): Data/hora do envio
+ * - boas_vindas_enviada (Boolean): false; true na correlacao da entrega
+ * - boas_vindas_outbox_id (Long): ID da mensagem na outbox
+ * - boas_vindas_timestamp (String): Data/hora do registro
+ *
+ * Entregue a mensagem, o OutboxDispatcherService correlaciona
+ * Message_WhatsAppEntregue com boas_vindas_enviada=true e boas_vindas_message_id.
  */
 @Component("enviarBoasVindasDelegate")
 public class EnviarBoasVindasDelegate implements JavaDelegate {
@@ -32,7 +39,10 @@ public class EnviarBoasVindasDelegate implements JavaDelegate {
     private static final Logger logger = LoggerFactory.getLogger(EnviarBoasVindasDelegate.class);
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private OutboxWhatsAppService outboxWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -43,47 +53,38 @@ public class EnviarBoasVindasDelegate implements JavaDelegate {
         logger.info("[{}] Iniciando envio de boas-vindas - Process: {}, BusinessKey: {}",
                     activityId, processInstanceId, businessKey);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution, "beneficiario_nome", "beneficiario_telefone")
+            .resultadoEm("boas_vindas");
+
         try {
             // 1. LER variaveis de entrada
-            String nome = getRequiredVariable(execution, "beneficiario_nome", String.class);
-            String telefone = getRequiredVariable(execution, "beneficiario_telefone", String.class);
+            String nome = vars.obrigatoria("beneficiario_nome", String.class);
+            String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
 
             logger.debug("[{}] Beneficiario: {} - Telefone: {}", activityId, nome, telefone);
 
             // 2. EXECUTAR logica tecnica
-            String mensagem = String.format(
-                "Ola %s! Bem-vindo(a) a Operadora Digital do Futuro! " +
-                "Estamos muito felizes em te-lo(a) conosco. " +
-                "Em breve, enviaremos um questionario rapido de saude para conhece-lo(a) melhor.",
-                nome
-            );
+            String mensagem = templates.renderizar("boas_vindas", Map.of("nome", nome));
 
-            WhatsAppService.SendResult resultado = whatsAppService.enviarMensagem(telefone, mensagem);
+            Long outboxId = outboxWhatsApp.registrar(processInstanceId, "boas_vindas", telefone, mensagem);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("boas_vindas_enviada", resultado.isSuccess());
-            execution.setVariable("boas_vindas_message_id", resultado.getMessageId());
-            execution.setVariable("boas_vindas_timestamp", java.time.Instant.now().toString());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("boas_vindas_enviada", false);
+            vars.definir("boas_vindas_outbox_id", outboxId);
+            vars.definir("boas_vindas_timestamp", java.time.Instant.now().toString());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
-            logger.info("[{}] Boas-vindas enviadas com sucesso - MessageID: {}",
-                        activityId, resultado.getMessageId());
+            logger.info("[{}] Boas-vindas registradas na outbox - OutboxID: {}",
+                        activityId, outboxId);
 
         } catch (Exception e) {
             logger.error("[{}] Erro ao enviar boas-vindas: {}", activityId, e.getMessage(), e);
-            execution.setVariable("boas_vindas_enviada", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("boas_vindas_enviada", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
 }
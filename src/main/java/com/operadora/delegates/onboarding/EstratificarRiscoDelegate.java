@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.MLService;
 
 /**
@@ -51,13 +52,17 @@ public class EstratificarRiscoDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando estratificacao de risco - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution,
+            "screening_score", "idade", "tem_doenca_cronica", "imc", "fumante")
+            .resultadoEm("estratificacao");
+
         try {
             // 1. LER variaveis de entrada
-            Integer screeningScore = getOptionalVariable(execution, "screening_score", Integer.class, 50);
-            Integer idade = getRequiredVariable(execution, "idade", Integer.class);
-            Boolean temDoencaCronica = getOptionalVariable(execution, "tem_doenca_cronica", Boolean.class, false);
-            Double imc = getOptionalVariable(execution, "imc", Double.class, 25.0);
-            Boolean fumante = getOptionalVariable(execution, "fumante", Boolean.class, false);
+            Integer screeningScore = vars.opcional("screening_score", Integer.class, 50);
+            Integer idade = vars.obrigatoria("idade", Integer.class);
+            Boolean temDoencaCronica = vars.opcional("tem_doenca_cronica", Boolean.class, false);
+            Double imc = vars.opcional("imc", Double.class, 25.0);
+            Boolean fumante = vars.opcional("fumante", Boolean.class, false);
 
             logger.debug("[{}] Dados para ML - Score: {}, Idade: {}, Cronico: {}, IMC: {}, Fumante: {}",
                         activityId, screeningScore, idade, temDoencaCronica, imc, fumante);
@@ -68,41 +73,29 @@ public class EstratificarRiscoDelegate implements JavaDelegate {
             );
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("nivel_risco", resultado.getNivelRisco());
-            execution.setVariable("score_risco", resultado.getScoreRisco());
-            execution.setVariable("probabilidade_internacao", resultado.getProbabilidadeInternacao());
-            execution.setVariable("fatores_risco", resultado.getFatoresRisco());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("nivel_risco", resultado.getNivelRisco());
+            vars.definir("score_risco", resultado.getScoreRisco());
+            vars.definir("probabilidade_internacao", resultado.getProbabilidadeInternacao());
+            vars.definir("fatores_risco", resultado.getFatoresRisco());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Estratificacao concluida - Nivel: {}, Score: {:.2f}",
                         activityId, resultado.getNivelRisco(), resultado.getScoreRisco());
 
         } catch (MLService.MLServiceException e) {
             logger.error("[{}] Erro de integracao ML: {}", activityId, e.getMessage(), e);
-            execution.setVariable("delegate_status", "ERRO_INTEGRACAO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("delegate_status", "ERRO_INTEGRACAO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw new BpmnError(ERRO_INTEGRACAO, "Falha na estratificacao ML: " + e.getMessage());
 
         } catch (Exception e) {
             logger.error("[{}] Erro inesperado: {}", activityId, e.getMessage(), e);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.operadora.delegates.support.VariaveisExecucao;
 import com.operadora.services.ScreeningService;
 
 /**
@@ -44,49 +45,39 @@ public class RealizarScreeningDelegate implements JavaDelegate {
 
         logger.info("[{}] Iniciando screening de saude - Process: {}", activityId, processInstanceId);
 
+        VariaveisExecucao vars = VariaveisExecucao.carregar(execution, "beneficiario_id", "beneficiario_cpf")
+            .resultadoEm("screening");
+
         try {
             // 1. LER variaveis de entrada
-            String beneficiarioId = getOptionalVariable(execution, "beneficiario_id", String.class, "");
-            String cpf = getRequiredVariable(execution, "beneficiario_cpf", String.class);
+            String beneficiarioId = vars.opcional("beneficiario_id", String.class, "");
+            String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
 
             // 2. EXECUTAR logica tecnica
             ScreeningService.ScreeningResult resultado = screeningService.realizarScreening(cpf);
 
             // 3. ESCREVER variaveis de saida
-            execution.setVariable("screening_completo", true);
-            execution.setVariable("screening_score", resultado.getScore());
-            execution.setVariable("idade", resultado.getIdade());
-            execution.setVariable("tem_doenca_cronica", resultado.isTemDoencaCronica());
-            execution.setVariable("imc", resultado.getImc());
-            execution.setVariable("fumante", resultado.isFumante());
-            execution.setVariable("pratica_exercicio", resultado.isPraticaExercicio());
-            execution.setVariable("respostas_screening", resultado.getRespostasJson());
-            execution.setVariable("delegate_status", "SUCESSO");
+            vars.definir("screening_completo", true);
+            vars.definir("screening_score", resultado.getScore());
+            vars.definir("idade", resultado.getIdade());
+            vars.definir("tem_doenca_cronica", resultado.isTemDoencaCronica());
+            vars.definir("imc", resultado.getImc());
+            vars.definir("fumante", resultado.isFumante());
+            vars.definir("pratica_exercicio", resultado.isPraticaExercicio());
+            vars.definir("respostas_screening", resultado.getRespostasJson());
+            vars.definir("delegate_status", "SUCESSO");
+            vars.gravar();
 
             logger.info("[{}] Screening concluido - Score: {}, Idade: {}, Cronico: {}",
                         activityId, resultado.getScore(), resultado.getIdade(), resultado.isTemDoencaCronica());
 
         } catch (Exception e) {
             logger.error("[{}] Erro no screening: {}", activityId, e.getMessage(), e);
-            execution.setVariable("screening_completo", false);
-            execution.setVariable("delegate_status", "ERRO");
-            execution.setVariable("delegate_erro", e.getMessage());
+            vars.definir("screening_completo", false);
+            vars.definir("delegate_status", "ERRO");
+            vars.definir("delegate_erro", e.getMessage());
+            vars.gravar();
             throw e;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getRequiredVariable(DelegateExecution execution, String name, Class<T> type) {
-        Object value = execution.getVariable(name);
-        if (value == null) {
-            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + name);
-        }
-        return (T) value;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getOptionalVariable(DelegateExecution execution, String name, Class<T> type, T defaultValue) {
-        Object value = execution.getVariable(name);
-        return value != null ? (T) value : defaultValue;
-    }
 }
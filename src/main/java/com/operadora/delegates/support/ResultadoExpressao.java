@@ -0,0 +1,33 @@
+package com.operadora.delegates.support;
+
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bean de expressao: campos de resultados compactos
+ * ==================================================
+ *
+ * Com variaveis.compactacao.enabled, os campos de saida dos delegates ficam
+ * dentro de "resultado_&lt;grupo&gt;". Em condicoes, inputs e listeners:
+ *
+ *   ${resultado.campo(execution, 'navegador_nome')}
+ *   ${resultado.texto(execution, 'rede_prestador_id')}
+ *
+ * Retorna a variavel simples quando existir, senao o campo compactado.
+ */
+@Component("resultado")
+public class ResultadoExpressao {
+
+    public Object campo(VariableScope execution, String nome) {
+        return VariaveisExecucao.campo(execution, nome);
+    }
+
+    public String texto(VariableScope execution, String nome) {
+        Object valor = VariaveisExecucao.campo(execution, nome);
+        return valor != null ? valor.toString() : null;
+    }
+
+    public boolean verdadeiro(VariableScope execution, String nome) {
+        return Boolean.TRUE.equals(VariaveisExecucao.campo(execution, nome));
+    }
+}
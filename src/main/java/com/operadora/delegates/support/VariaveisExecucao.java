@@ -0,0 +1,259 @@
+package com.operadora.delegates.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operadora.support.ConversaoVariavel;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.SerializableValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Acesso tipado as variaveis de um delegate
+ * ==========================================
+ *
+ * Le de uma vez as variaveis de entrada declaradas pelo delegate, converte
+ * os tipos na leitura e acumula as saidas para gravar com um unico
+ * setVariables.
+ *
+ * Uso:
+ * <pre>
+ * VariaveisExecucao vars = VariaveisExecucao.carregar(execution, "beneficiario_cpf", "idade")
+ *     .resultadoEm("estratificacao");
+ * String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+ * ...
+ * vars.definir("nivel_risco", nivel).definir("delegate_status", "SUCESSO").gravar();
+ * </pre>
+ *
+ * O DelegateExecution nao tem leitura por lista de nomes; a carga usa
+ * getVariablesTyped(false), que resolve a hierarquia de escopos numa
+ * passada sem desserializar objetos. Variaveis de objeto declaradas como
+ * entrada sao desserializadas individualmente.
+ *
+ * Resultado compacto (variaveis.compactacao.enabled):
+ * as saidas do delegate sao gravadas num unico JSON na variavel
+ * "resultado_&lt;grupo&gt;" em vez de uma variavel por campo (uma linha em
+ * ACT_RU_VARIABLE e no historico por delegate). Continuam variaveis simples:
+ * - os escalares configurados (usados por gateways e DMN, ex: nivel_risco)
+ * - campos que ja existem como variavel simples na instancia (ex: gravados
+ *   por correlacao de mensagem), para nao haver duas versoes do mesmo campo
+ *
+ * A leitura procura primeiro a variavel simples e depois os resultados
+ * compactos; em expressoes, usar o bean "resultado" (ver ResultadoExpressao).
+ */
+public final class VariaveisExecucao {
+
+    /** Prefixo das variaveis de resultado compacto. */
+    public static final String PREFIXO_RESULTADO = "resultado_";
+
+    /** Acima disso o JSON vai como byte array (coluna TEXT_ tem 4000). */
+    private static final int MAX_TEXTO = 4000;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> TIPO_CAMPOS = new TypeReference<>() { };
+
+    private static volatile boolean compactacaoAtiva = false;
+    private static volatile Set<String> escalares = Set.of();
+
+    private final DelegateExecution execution;
+    private final VariableMap todas;
+    private final Map<String, Object> entradas;
+    private final Map<String, Object> saidas = new LinkedHashMap<>();
+    private Map<String, Object> campos;
+    private String grupo;
+
+    private VariaveisExecucao(DelegateExecution execution, VariableMap todas, Map<String, Object> entradas) {
+        this.execution = execution;
+        this.todas = todas;
+        this.entradas = entradas;
+    }
+
+    /**
+     * Define a politica de compactacao (chamado na inicializacao, ver VariaveisConfig).
+     *
+     * @param ativa Grava resultados compactos
+     * @param nomesEscalares Variaveis sempre gravadas como variavel simples
+     */
+    public static void configurarCompactacao(boolean ativa, Collection<String> nomesEscalares) {
+        escalares = Set.copyOf(nomesEscalares);
+        compactacaoAtiva = ativa;
+    }
+
+    /**
+     * Carrega as variaveis de entrada do delegate.
+     *
+     * @param execution Execucao atual
+     * @param nomes Variaveis lidas pelo delegate
+     */
+    public static VariaveisExecucao carregar(DelegateExecution execution, String... nomes) {
+        VariableMap todas = execution.getVariablesTyped(false);
+        Map<String, Object> entradas = new HashMap<>(nomes.length * 2);
+
+        for (String nome : nomes) {
+            TypedValue valor = todas.getValueTyped(nome);
+            if (valor == null) {
+                continue;
+            }
+            if (valor instanceof SerializableValue && !((SerializableValue) valor).isDeserialized()) {
+                entradas.put(nome, execution.getVariable(nome));
+            } else {
+                entradas.put(nome, valor.getValue());
+            }
+        }
+        return new VariaveisExecucao(execution, todas, entradas);
+    }
+
+    /**
+     * Grupo do resultado compacto deste delegate (variavel "resultado_&lt;grupo&gt;").
+     * Sem efeito com a compactacao desligada.
+     */
+    public VariaveisExecucao resultadoEm(String grupo) {
+        this.grupo = grupo;
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException se a variavel nao existir ou tiver tipo incompativel
+     */
+    public <T> T obrigatoria(String nome, Class<T> tipo) {
+        T valor = ler(nome, tipo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + nome);
+        }
+        return valor;
+    }
+
+    public <T> T opcional(String nome, Class<T> tipo, T padrao) {
+        T valor = ler(nome, tipo);
+        return valor != null ? valor : padrao;
+    }
+
+    /**
+     * Registra uma variavel de saida (gravada em {@link #gravar()}).
+     */
+    public VariaveisExecucao definir(String nome, Object valor) {
+        saidas.put(nome, valor);
+        return this;
+    }
+
+    /**
+     * Grava as saidas pendentes com um unico setVariables.
+     */
+    public void gravar() {
+        if (saidas.isEmpty()) {
+            return;
+        }
+        if (!compactacaoAtiva || grupo == null) {
+            execution.setVariables(saidas);
+            saidas.clear();
+            return;
+        }
+
+        Map<String, Object> simples = new LinkedHashMap<>();
+        String variavelGrupo = PREFIXO_RESULTADO + grupo;
+        Map<String, Object> resultado = new LinkedHashMap<>(lerGrupo(todas.getValueTyped(variavelGrupo)));
+        saidas.forEach((nome, valor) -> {
+            if (escalares.contains(nome) || todas.containsKey(nome)) {
+                simples.put(nome, valor);
+            } else {
+                resultado.put(nome, valor);
+            }
+        });
+
+        TypedValue valorGrupo = serializar(variavelGrupo, resultado);
+        simples.put(variavelGrupo, valorGrupo);
+        execution.setVariables(simples);
+
+        todas.putValueTyped(variavelGrupo, valorGrupo);
+        campos = null;
+        saidas.clear();
+    }
+
+    /**
+     * Valor de um campo em expressoes e leituras avulsas: variavel simples
+     * ou, se ausente, o campo de um resultado compacto.
+     */
+    public static Object campo(VariableScope escopo, String nome) {
+        Object valor = escopo.getVariable(nome);
+        if (valor != null) {
+            return valor;
+        }
+        return procurarEmGrupos(escopo.getVariablesTyped(false), nome);
+    }
+
+    private <T> T ler(String nome, Class<T> tipo) {
+        Object valor;
+        if (saidas.containsKey(nome)) {
+            valor = saidas.get(nome);
+        } else if (entradas.containsKey(nome)) {
+            valor = entradas.get(nome);
+        } else {
+            valor = camposCompactos().get(nome);
+        }
+        return ConversaoVariavel.converter(nome, valor, tipo);
+    }
+
+    private Map<String, Object> camposCompactos() {
+        if (campos == null) {
+            campos = new HashMap<>();
+            for (String nome : todas.keySet()) {
+                if (nome.startsWith(PREFIXO_RESULTADO)) {
+                    campos.putAll(lerGrupo(todas.getValueTyped(nome)));
+                }
+            }
+        }
+        return campos;
+    }
+
+    private static Object procurarEmGrupos(VariableMap variaveis, String nome) {
+        for (String variavel : variaveis.keySet()) {
+            if (variavel.startsWith(PREFIXO_RESULTADO)) {
+                Map<String, Object> grupo = lerGrupo(variaveis.getValueTyped(variavel));
+                if (grupo.containsKey(nome)) {
+                    return grupo.get(nome);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> lerGrupo(TypedValue valor) {
+        if (valor == null || valor.getValue() == null) {
+            return Map.of();
+        }
+        try {
+            Object bruto = valor.getValue();
+            if (bruto instanceof byte[]) {
+                return JSON.readValue((byte[]) bruto, TIPO_CAMPOS);
+            }
+            if (bruto instanceof String) {
+                return JSON.readValue((String) bruto, TIPO_CAMPOS);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Resultado compacto invalido: " + e.getMessage(), e);
+        }
+        return Map.of();
+    }
+
+    private static TypedValue serializar(String nome, Map<String, Object> resultado) {
+        try {
+            String json = JSON.writeValueAsString(resultado);
+            return json.length() <= MAX_TEXTO
+                ? Variables.stringValue(json)
+                : Variables.byteArrayValue(json.getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Resultado nao serializavel em " + nome + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.operadora.dmn;
+
+import org.camunda.bpm.dmn.engine.DmnDecision;
+import org.camunda.bpm.dmn.engine.DmnDecisionRuleResult;
+import org.camunda.bpm.dmn.engine.DmnEngine;
+import org.camunda.bpm.dmn.engine.DmnEngineConfiguration;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.DecisionDefinition;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Avaliador de Decisoes Compiladas
+ * =================================
+ *
+ * Mantem as tabelas FIRST compiladas por decision definition (id, ou seja,
+ * por versao). Uma tabela so e usada depois de conferida contra o DMN
+ * engine em todas as combinacoes do dominio das entradas (literais das
+ * celulas, limites numericos +-1, um valor fora da tabela e nulo); qualquer
+ * divergencia deixa a definicao com o engine.
+ *
+ * - Inicializacao: compila a ultima versao de cada decisao
+ * - Versao nova (deploy): compilada em background no primeiro uso; ate
+ *   la a avaliacao segue com o engine
+ *
+ * A conferencia usa um DMN engine standalone (sem historico). Com
+ * dmn.compilado.enabled=false nenhuma tabela e compilada nem usada.
+ *
+ * Equivalencia e desempenho fora da aplicacao: TabelaCompiladaEquivalenciaTest
+ * e TabelaCompiladaBenchmark (src/test).
+ */
+@Service
+public class AvaliadorDecisoes {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaliadorDecisoes.class);
+
+    private static final String FORA_DA_TABELA = "__fora_da_tabela__";
+
+    @Autowired
+    @Lazy
+    private RepositoryService repositoryService;
+
+    @Value("${dmn.compilado.enabled:false}")
+    private boolean habilitado;
+
+    @Value("${dmn.compilado.max-combinacoes:20000}")
+    private int maxCombinacoes;
+
+    /** decisionDefinitionId -> tabela (vazio = avaliada pelo engine). */
+    private final Map<String, Optional<TabelaCompilada>> tabelas = new ConcurrentHashMap<>();
+    private final Set<String> compilando = ConcurrentHashMap.newKeySet();
+    private final Map<String, ModeloDecisao> modelos = new ConcurrentHashMap<>();
+
+    private final ExecutorService compilador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dmn-compilador");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile DmnEngine engine;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void compilarDeployadas() {
+        if (!habilitado) {
+            return;
+        }
+        List<DecisionDefinition> definicoes = repositoryService.createDecisionDefinitionQuery()
+            .latestVersion()
+            .list();
+        int compiladas = 0;
+        for (DecisionDefinition definicao : definicoes) {
+            if (obter(definicao.getId()) != null) {
+                compiladas++;
+            }
+        }
+        logger.info("DMN compilado - {} de {} decisoes compiladas", compiladas, definicoes.size());
+    }
+
+    /**
+     * Tabela compilada da definicao, sem bloquear: se ainda nao foi
+     * compilada, agenda a compilacao e retorna null (usar o engine).
+     */
+    public TabelaCompilada tabela(String decisionDefinitionId) {
+        if (!habilitado) {
+            return null;
+        }
+        Optional<TabelaCompilada> tabela = tabelas.get(decisionDefinitionId);
+        if (tabela != null) {
+            return tabela.orElse(null);
+        }
+        if (compilando.add(decisionDefinitionId)) {
+            compilador.execute(() -> {
+                try {
+                    obter(decisionDefinitionId);
+                } finally {
+                    compilando.remove(decisionDefinitionId);
+                }
+            });
+        }
+        return null;
+    }
+
+    /**
+     * Tabela compilada e conferida da definicao (compila se preciso).
+     *
+     * @return tabela, ou null se desabilitado, se a decisao nao for compilavel
+     *         ou se divergir do engine
+     */
+    public TabelaCompilada obter(String decisionDefinitionId) {
+        if (!habilitado) {
+            return null;
+        }
+        return tabelas.computeIfAbsent(decisionDefinitionId, this::compilarEConferir).orElse(null);
+    }
+
+    /**
+     * Id da ultima versao da decisao.
+     */
+    public String ultimaVersao(String decisionKey) {
+        DecisionDefinition definicao = repositoryService.createDecisionDefinitionQuery()
+            .decisionDefinitionKey(decisionKey)
+            .latestVersion()
+            .singleResult();
+        if (definicao == null) {
+            throw new IllegalArgumentException("Decisao nao encontrada: " + decisionKey);
+        }
+        return definicao.getId();
+    }
+
+    private Optional<TabelaCompilada> compilarEConferir(String decisionDefinitionId) {
+        DecisionDefinition definicao = repositoryService.getDecisionDefinition(decisionDefinitionId);
+        TabelaCompilada tabela;
+        try {
+            tabela = TabelaCompilada.compilar(modelo(decisionDefinitionId).modelo, definicao.getKey());
+        } catch (IllegalArgumentException e) {
+            logger.info("Decisao {} (v{}) segue com o engine: {}", definicao.getKey(), definicao.getVersion(), e.getMessage());
+            return Optional.empty();
+        }
+
+        Equivalencia equivalencia = conferir(decisionDefinitionId, tabela);
+        if (equivalencia.getDivergencias() > 0) {
+            logger.warn("Decisao {} (v{}) diverge do engine em {} de {} combinacoes - segue com o engine. Ex.: {}",
+                        definicao.getKey(), definicao.getVersion(), equivalencia.getDivergencias(),
+                        equivalencia.getCombinacoes(), equivalencia.getExemplos());
+            return Optional.empty();
+        }
+        logger.info("Decisao {} (v{}) compilada - {} regras, {} combinacoes conferidas",
+                    definicao.getKey(), definicao.getVersion(), tabela.getNumeroRegras(), equivalencia.getCombinacoes());
+        return Optional.of(tabela);
+    }
+
+    /**
+     * Compara a tabela compilada com o engine em todas as combinacoes do
+     * dominio (amostra fixa se passar de max-combinacoes).
+     */
+    public Equivalencia conferir(String decisionDefinitionId, TabelaCompilada tabela) {
+        return conferir(modelo(decisionDefinitionId).decisao(tabela.getDecisionKey()), tabela);
+    }
+
+    Equivalencia conferir(DmnDecision decisao, TabelaCompilada tabela) {
+        Equivalencia equivalencia = new Equivalencia();
+
+        for (Map<String, Object> entradas : combinacoes(tabela)) {
+            Map<String, Object> esperado = avaliarEngine(decisao, entradas);
+            Map<String, Object> obtido;
+            try {
+                obtido = tabela.avaliar(entradas);
+            } catch (IllegalArgumentException e) {
+                // Em producao essa combinacao vai para o engine
+                equivalencia.combinacoes++;
+                equivalencia.encaminhadas++;
+                continue;
+            }
+            equivalencia.combinacoes++;
+            if (!Objects.equals(esperado, obtido)) {
+                equivalencia.divergencias++;
+                if (equivalencia.exemplos.size() < 10) {
+                    Map<String, Object> exemplo = new LinkedHashMap<>();
+                    exemplo.put("entradas", entradas);
+                    exemplo.put("engine", esperado);
+                    exemplo.put("compilado", obtido);
+                    equivalencia.exemplos.add(exemplo);
+                }
+            }
+        }
+        return equivalencia;
+    }
+
+    /**
+     * Avaliacao da ultima versao da decisao para uso em lote (thread-safe):
+     * tabela compilada quando houver, senao o DMN engine standalone (sem
+     * historico).
+     *
+     * @return funcao entradas -> saidas da primeira regra satisfeita (null se nenhuma)
+     */
+    public Function<Map<String, Object>, Map<String, Object>> avaliadorLote(String decisionKey) {
+        String id = ultimaVersao(decisionKey);
+        TabelaCompilada tabela = obter(id);
+        DmnDecision decisao = modelo(id).decisao(decisionKey);
+        return entradas -> {
+            if (tabela != null) {
+                try {
+                    return tabela.avaliar(entradas);
+                } catch (IllegalArgumentException e) {
+                    // tipo inesperado: engine
+                }
+            }
+            return avaliarEngine(decisao, entradas);
+        };
+    }
+
+    /**
+     * Decisao interpretada pelo DMN engine standalone (usado pelos testes).
+     */
+    DmnDecision decisao(DmnModelInstance modelo, String decisionKey) {
+        return engine().parseDecision(decisionKey, modelo);
+    }
+
+    Map<String, Object> avaliarEngine(DmnDecision decisao, Map<String, Object> entradas) {
+        DmnDecisionRuleResult primeiro = engine()
+            .evaluateDecisionTable(decisao, Variables.fromMap(entradas))
+            .getFirstResult();
+        return primeiro != null ? new HashMap<>(primeiro.getEntryMap()) : null;
+    }
+
+    /**
+     * Produto cartesiano dos dominios das entradas.
+     */
+    List<Map<String, Object>> combinacoes(TabelaCompilada tabela) {
+        String[] nomes = tabela.getEntradas();
+        List<List<Object>> dominios = new ArrayList<>();
+        long total = 1;
+        for (int i = 0; i < nomes.length; i++) {
+            List<Object> dominio = dominio(tabela, i);
+            dominios.add(dominio);
+            total = Math.min(total * dominio.size(), Long.MAX_VALUE / 64);
+        }
+
+        List<Map<String, Object>> combinacoes = new ArrayList<>();
+        if (total <= maxCombinacoes) {
+            int[] posicao = new int[nomes.length];
+            for (long n = 0; n < total; n++) {
+                Map<String, Object> entradas = new HashMap<>();
+                for (int i = 0; i < nomes.length; i++) {
+                    entradas.put(nomes[i], dominios.get(i).get(posicao[i]));
+                }
+                combinacoes.add(entradas);
+                for (int i = nomes.length - 1; i >= 0; i--) {
+                    if (++posicao[i] < dominios.get(i).size()) {
+                        break;
+                    }
+                    posicao[i] = 0;
+                }
+            }
+        } else {
+            Random random = new Random(7);
+            for (int n = 0; n < maxCombinacoes; n++) {
+                Map<String, Object> entradas = new HashMap<>();
+                for (int i = 0; i < nomes.length; i++) {
+                    List<Object> dominio = dominios.get(i);
+                    entradas.put(nomes[i], dominio.get(random.nextInt(dominio.size())));
+                }
+                combinacoes.add(entradas);
+            }
+        }
+        return combinacoes;
+    }
+
+    private List<Object> dominio(TabelaCompilada tabela, int entrada) {
+        String tipo = tabela.getTipoEntrada(entrada);
+        Set<Object> valores = new LinkedHashSet<>();
+
+        if ("boolean".equals(tipo)) {
+            valores.add(Boolean.TRUE);
+            valores.add(Boolean.FALSE);
+        } else if (CondicaoEntrada.ehNumerico(tipo)) {
+            Set<Double> pontos = new LinkedHashSet<>();
+            pontos.add(0.0);
+            for (int r = 0; r < tabela.getNumeroRegras(); r++) {
+                CondicaoEntrada condicao = tabela.getCondicao(r, entrada);
+                for (Object literal : condicao.getLiterais()) {
+                    double v = (Double) literal;
+                    pontos.add(v - 1);
+                    pontos.add(v);
+                    pontos.add(v + 1);
+                }
+                for (CondicaoEntrada.Faixa faixa : condicao.getFaixas()) {
+                    for (double limite : new double[]{faixa.inicio, faixa.fim}) {
+                        if (!Double.isInfinite(limite)) {
+                            pontos.add(limite - 1);
+                            pontos.add(limite);
+                            pontos.add(limite + 1);
+                        }
+                    }
+                }
+            }
+            for (double p : pontos) {
+                switch (tipo) {
+                    case "integer":
+                        valores.add((int) Math.floor(p));
+                        valores.add((int) Math.ceil(p));
+                        break;
+                    case "long":
+                        valores.add((long) Math.floor(p));
+                        valores.add((long) Math.ceil(p));
+                        break;
+                    default:
+                        valores.add(p);
+                        valores.add(p + 0.5);
+                        break;
+                }
+            }
+        } else {
+            for (int r = 0; r < tabela.getNumeroRegras(); r++) {
+                valores.addAll(tabela.getCondicao(r, entrada).getLiterais());
+            }
+            valores.add(FORA_DA_TABELA);
+        }
+
+        List<Object> dominio = new ArrayList<>(valores);
+        dominio.add(null);
+        return dominio;
+    }
+
+    private ModeloDecisao modelo(String decisionDefinitionId) {
+        return modelos.computeIfAbsent(decisionDefinitionId,
+            id -> new ModeloDecisao(repositoryService.getDmnModelInstance(id)));
+    }
+
+    private DmnEngine engine() {
+        if (engine == null) {
+            synchronized (this) {
+                if (engine == null) {
+                    engine = DmnEngineConfiguration.createDefaultDmnEngineConfiguration().buildEngine();
+                }
+            }
+        }
+        return engine;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        compilador.shutdownNow();
+    }
+
+    /**
+     * Modelo DMN da definicao e decisoes ja interpretadas pelo engine standalone.
+     */
+    private final class ModeloDecisao {
+        final DmnModelInstance modelo;
+        final Map<String, DmnDecision> decisoes = new ConcurrentHashMap<>();
+
+        ModeloDecisao(DmnModelInstance modelo) {
+            this.modelo = modelo;
+        }
+
+        DmnDecision decisao(String key) {
+            return decisoes.computeIfAbsent(key, k -> engine().parseDecision(k, modelo));
+        }
+    }
+
+    /**
+     * Resultado da conferencia contra o engine.
+     */
+    public static class Equivalencia {
+        private int combinacoes;
+        private int divergencias;
+        private int encaminhadas;
+        private final List<Map<String, Object>> exemplos = new ArrayList<>();
+
+        public int getCombinacoes() { return combinacoes; }
+        public int getDivergencias() { return divergencias; }
+        /** Combinacoes que a tabela compilada devolve ao engine (ex.: tipo inesperado). */
+        public int getEncaminhadas() { return encaminhadas; }
+        public List<Map<String, Object>> getExemplos() { return exemplos; }
+    }
+}
@@ -0,0 +1,245 @@
+package com.operadora.dmn;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.camunda.bpm.dmn.engine.impl.DmnDecisionTableImpl;
+import org.camunda.bpm.dmn.engine.impl.DmnDecisionTableInputImpl;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Cache de resultados de decisao
+ * ===============================
+ *
+ * Resultado de um businessRuleTask por (decision definition id + versao,
+ * valores das entradas). O id muda a cada deploy, entao uma versao nova
+ * nunca reaproveita resultados da anterior; as entradas da versao antiga
+ * sao descartadas no deploy (ou quando o task encontra uma versao nova
+ * deployada por outro no).
+ *
+ * Entra no cache somente decisao de tabela unica (sem required decisions),
+ * com entradas que sao nomes de variavel, valores de entrada escalares
+ * (String, Number, Boolean, nulo) e saidas escalares.
+ *
+ * Metricas: dmn.decisao (cache Caffeine: acertos, faltas, tamanho),
+ * dmn.decisao.avaliacao (tempo das faltas) e
+ * dmn.decisao.tempo_economizado (ms estimados pelas faltas de cada decisao).
+ *
+ * Ativacao: dmn.cache.enabled=true
+ */
+@Component
+@ConditionalOnProperty(name = "dmn.cache.enabled", havingValue = "true")
+public class CacheDecisoes {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheDecisoes.class);
+
+    private static final Pattern IDENTIFICADOR = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final String[] NAO_CACHEAVEL = new String[0];
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${dmn.cache.max-entradas:100000}")
+    private long maxEntradas;
+
+    private Cache<Chave, List<Map<String, Object>>> cache;
+
+    /** decisionDefinitionId -> nomes das entradas (NAO_CACHEAVEL = fora do cache). */
+    private final Map<String, String[]> entradas = new ConcurrentHashMap<>();
+    /** decisionKey -> id da versao em uso. */
+    private final Map<String, String> versoes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> numerosVersao = new ConcurrentHashMap<>();
+    /** decisionKey -> [nanos somados, avaliacoes] das faltas. */
+    private final Map<String, long[]> custo = new ConcurrentHashMap<>();
+
+    private final DoubleAdder economizadoMs = new DoubleAdder();
+    private Timer avaliacao;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxEntradas)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dmn.decisao");
+        avaliacao = meterRegistry.timer("dmn.decisao.avaliacao");
+        meterRegistry.gauge("dmn.decisao.tempo_economizado", economizadoMs, DoubleAdder::sum);
+    }
+
+    /**
+     * Chave do cache para a execucao, ou null se a decisao/valores nao
+     * forem cacheaveis.
+     */
+    public Chave chave(DecisionDefinitionEntity definicao, VariableScope variaveis) {
+        if (!definicao.getId().equals(versoes.get(definicao.getKey()))) {
+            invalidar(definicao.getKey(), definicao.getId(), definicao.getVersion());
+        }
+
+        String[] nomes = entradas.computeIfAbsent(definicao.getId(), id -> nomesEntradas(definicao));
+        if (nomes == NAO_CACHEAVEL) {
+            return null;
+        }
+        Object[] valores = new Object[nomes.length];
+        for (int i = 0; i < nomes.length; i++) {
+            Object valor = variaveis.getVariable(nomes[i]);
+            if (!escalar(valor)) {
+                return null;
+            }
+            valores[i] = valor;
+        }
+        return new Chave(definicao.getKey(), definicao.getId(), definicao.getVersion(), nomes, Arrays.asList(valores));
+    }
+
+    /**
+     * Resultado em cache, ou avalia e guarda (se as saidas forem escalares).
+     */
+    public List<Map<String, Object>> obter(Chave chave, Avaliacao avaliar) throws Exception {
+        List<Map<String, Object>> resultado = cache.getIfPresent(chave);
+        String decisionKey = chave.decisionKey();
+        if (resultado != null) {
+            long[] c = custo.get(decisionKey);
+            if (c != null && c[1] > 0) {
+                economizadoMs.add(c[0] / (double) c[1] / 1_000_000.0);
+            }
+            return resultado;
+        }
+
+        long inicio = System.nanoTime();
+        resultado = avaliar.avaliar();
+        long nanos = System.nanoTime() - inicio;
+        avaliacao.record(nanos, TimeUnit.NANOSECONDS);
+        custo.compute(decisionKey, (k, c) -> {
+            long[] novo = c == null ? new long[2] : c;
+            novo[0] += nanos;
+            novo[1]++;
+            return novo;
+        });
+
+        List<Map<String, Object>> imutavel = imutavel(resultado);
+        if (imutavel != null) {
+            cache.put(chave, imutavel);
+            return imutavel;
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra a versao nova da decisao e descarta os resultados das
+     * anteriores (versao menor ou igual a atual e ignorada).
+     */
+    public synchronized void invalidar(String decisionKey, String definicaoIdAtual, int versao) {
+        Integer atual = numerosVersao.get(decisionKey);
+        if (atual != null && versao <= atual) {
+            return;
+        }
+        numerosVersao.put(decisionKey, versao);
+        String anterior = versoes.put(decisionKey, definicaoIdAtual);
+        if (anterior == null) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(c -> c.decisionKey().equals(decisionKey)
+                                             && !c.definicaoId().equals(definicaoIdAtual));
+        entradas.remove(anterior);
+        custo.remove(decisionKey);
+        logger.info("Cache de decisao invalidado - {} (versao em uso: {})", decisionKey, definicaoIdAtual);
+    }
+
+    /**
+     * Estatisticas para a API.
+     */
+    public Map<String, Object> estatisticas() {
+        var stats = cache.stats();
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("entradas", cache.estimatedSize());
+        resultado.put("acertos", stats.hitCount());
+        resultado.put("faltas", stats.missCount());
+        resultado.put("taxa_acerto", stats.hitRate());
+        resultado.put("tempo_avaliacao_ms", avaliacao.totalTime(TimeUnit.MILLISECONDS));
+        resultado.put("tempo_economizado_ms", economizadoMs.sum());
+        resultado.put("versoes", new LinkedHashMap<>(versoes));
+        return resultado;
+    }
+
+    private static String[] nomesEntradas(DecisionDefinitionEntity definicao) {
+        if (!(definicao.getDecisionLogic() instanceof DmnDecisionTableImpl)
+                || !definicao.getRequiredDecisions().isEmpty()) {
+            return NAO_CACHEAVEL;
+        }
+        List<DmnDecisionTableInputImpl> inputs = ((DmnDecisionTableImpl) definicao.getDecisionLogic()).getInputs();
+        String[] nomes = new String[inputs.size()];
+        for (int i = 0; i < nomes.length; i++) {
+            String expressao = inputs.get(i).getExpression() != null
+                ? inputs.get(i).getExpression().getExpression() : null;
+            if (expressao == null || !IDENTIFICADOR.matcher(expressao.trim()).matches()) {
+                return NAO_CACHEAVEL;
+            }
+            nomes[i] = expressao.trim();
+        }
+        return nomes;
+    }
+
+    private static boolean escalar(Object valor) {
+        return valor == null || valor instanceof String || valor instanceof Boolean
+            || valor instanceof Integer || valor instanceof Long || valor instanceof Short
+            || valor instanceof Double;
+    }
+
+    private static List<Map<String, Object>> imutavel(List<Map<String, Object>> resultado) {
+        List<Map<String, Object>> copia = new ArrayList<>(resultado.size());
+        for (Map<String, Object> regra : resultado) {
+            for (Object valor : regra.values()) {
+                if (!escalar(valor)) {
+                    return null;
+                }
+            }
+            copia.add(Collections.unmodifiableMap(new LinkedHashMap<>(regra)));
+        }
+        return Collections.unmodifiableList(copia);
+    }
+
+    /**
+     * Avaliacao executada na falta.
+     */
+    @FunctionalInterface
+    public interface Avaliacao {
+        List<Map<String, Object>> avaliar() throws Exception;
+    }
+
+    /**
+     * Chave: definicao (id + versao) e valores das entradas, na ordem da tabela.
+     */
+    public record Chave(String decisionKey, String definicaoId, int versao, String[] nomes, List<Object> valores) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Chave c && definicaoId.equals(c.definicaoId) && versao == c.versao
+                && valores.equals(c.valores);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * definicaoId.hashCode() + valores.hashCode();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.operadora.dmn;
+
+import org.camunda.bpm.dmn.engine.DmnDecisionResult;
+import org.camunda.bpm.dmn.engine.DmnDecisionResultEntries;
+import org.camunda.bpm.engine.impl.bpmn.behavior.AbstractBpmnActivityBehavior;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.core.variable.scope.AbstractVariableScope;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.delegate.ActivityBehavior;
+import org.camunda.bpm.engine.impl.pvm.delegate.ActivityExecution;
+import org.camunda.bpm.engine.impl.util.DecisionEvaluationUtil;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Business Rule Task com tabela compilada e cache
+ * ================================================
+ *
+ * Substitui o comportamento padrao de um businessRuleTask com
+ * camunda:decisionRef (binding latest):
+ * - tabela compilada da ultima versao (AvaliadorDecisoes), se houver
+ * - cache de resultados por versao + entradas (CacheDecisoes), se ativo;
+ *   na falta sem tabela compilada, avalia com o DMN engine
+ * - resultVariable gravada no mesmo formato do mapDecisionResult do engine
+ *
+ * Sem tabela nem chave de cache, ou com entrada de tipo inesperado, delega
+ * ao comportamento original. Acertos de cache e avaliacoes compiladas nao
+ * geram registro em ACT_HI_DECINST.
+ */
+public class ComportamentoDecisao extends AbstractBpmnActivityBehavior {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComportamentoDecisao.class);
+
+    /** Variavel transiente usada pelos output mappings (mesmo nome do engine). */
+    static final String DECISION_RESULT = "decisionResult";
+
+    private final ActivityBehavior original;
+    private final AvaliadorDecisoes avaliador;
+    private final CacheDecisoes cache;
+    private final String decisionKey;
+    private final String resultVariable;
+    private final String mapeamento;
+
+    /**
+     * @param avaliador Tabelas compiladas (null = sem compilacao)
+     * @param cache Cache de resultados (null = sem cache)
+     */
+    public ComportamentoDecisao(ActivityBehavior original, AvaliadorDecisoes avaliador, CacheDecisoes cache,
+                                String decisionKey, String resultVariable, String mapeamento) {
+        this.original = original;
+        this.avaliador = avaliador;
+        this.cache = cache;
+        this.decisionKey = decisionKey;
+        this.resultVariable = resultVariable;
+        this.mapeamento = mapeamento == null || mapeamento.isBlank() ? "resultList" : mapeamento;
+    }
+
+    /**
+     * Mapeamentos de resultado reproduzidos (os demais ficam com o engine).
+     */
+    static boolean suportado(String mapeamento) {
+        return mapeamento == null || mapeamento.isBlank()
+            || mapeamento.equals("singleResult") || mapeamento.equals("singleEntry")
+            || mapeamento.equals("resultList") || mapeamento.equals("collectEntries");
+    }
+
+    @Override
+    public void execute(ActivityExecution execution) throws Exception {
+        DecisionDefinitionEntity definicao = Context.getProcessEngineConfiguration()
+            .getDeploymentCache()
+            .findDeployedLatestDecisionDefinitionByKey(decisionKey);
+        TabelaCompilada tabela = avaliador != null ? avaliador.tabela(definicao.getId()) : null;
+        CacheDecisoes.Chave chave = cache != null ? cache.chave(definicao, execution) : null;
+        if (tabela == null && chave == null) {
+            original.execute(execution);
+            return;
+        }
+
+        List<Map<String, Object>> resultados;
+        try {
+            resultados = chave != null
+                ? cache.obter(chave, () -> tabela != null ? compilado(tabela, execution) : engine(definicao, chave))
+                : compilado(tabela, execution);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Decisao {} avaliada pelo engine: {}", decisionKey, e.getMessage());
+            original.execute(execution);
+            return;
+        }
+        if (!mapeavel(resultados)) {
+            // O engine rejeita esse resultado no mapeamento: mesmo erro
+            original.execute(execution);
+            return;
+        }
+
+        Object valor = mapear(resultados);
+        ((AbstractVariableScope) execution).setVariableLocalTransient(DECISION_RESULT, valor);
+        if (resultVariable != null) {
+            execution.setVariable(resultVariable, valor);
+        }
+        leave(execution);
+    }
+
+    private static List<Map<String, Object>> compilado(TabelaCompilada tabela, ActivityExecution execution) {
+        Map<String, Object> resultado = tabela.avaliar(execution::getVariable);
+        return resultado != null ? List.of(resultado) : List.of();
+    }
+
+    private static List<Map<String, Object>> engine(DecisionDefinitionEntity definicao, CacheDecisoes.Chave chave)
+            throws Exception {
+        VariableMap variaveis = Variables.createVariables();
+        for (int i = 0; i < chave.nomes().length; i++) {
+            variaveis.putValue(chave.nomes()[i], chave.valores().get(i));
+        }
+        DmnDecisionResult resultado = DecisionEvaluationUtil.evaluateDecision(definicao, variaveis);
+        List<Map<String, Object>> lista = new ArrayList<>(resultado.size());
+        for (DmnDecisionResultEntries entradas : resultado) {
+            lista.add(entradas.getEntryMap());
+        }
+        return lista;
+    }
+
+    private boolean mapeavel(List<Map<String, Object>> resultados) {
+        switch (mapeamento) {
+            case "singleResult":
+                return resultados.size() <= 1;
+            case "singleEntry":
+                return resultados.size() <= 1 && (resultados.isEmpty() || resultados.get(0).size() <= 1);
+            case "collectEntries":
+                return resultados.stream().allMatch(r -> r.size() <= 1);
+            default:
+                return true;
+        }
+    }
+
+    private Object mapear(List<Map<String, Object>> resultados) {
+        switch (mapeamento) {
+            case "singleResult":
+                return resultados.isEmpty() ? null : new HashMap<>(resultados.get(0));
+            case "singleEntry":
+                return resultados.isEmpty() || resultados.get(0).isEmpty()
+                    ? null : resultados.get(0).values().iterator().next();
+            case "collectEntries": {
+                List<Object> valores = new ArrayList<>();
+                for (Map<String, Object> r : resultados) {
+                    if (!r.isEmpty()) {
+                        valores.add(r.values().iterator().next());
+                    }
+                }
+                return valores;
+            }
+            default: {
+                List<Map<String, Object>> lista = new ArrayList<>();
+                for (Map<String, Object> r : resultados) {
+                    lista.add(new HashMap<>(r));
+                }
+                return lista;
+            }
+        }
+    }
+}
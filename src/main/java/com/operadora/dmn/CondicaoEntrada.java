@@ -0,0 +1,201 @@
+package com.operadora.dmn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Condicao de uma celula de entrada (FEEL unary tests, subconjunto).
+ *
+ * Formas aceitas:
+ * - vazio ou "-": qualquer valor (inclusive nulo)
+ * - lista de literais: "A","B" / 1, 2 / true
+ * - comparacao numerica: &lt; 10, &gt;= 65
+ * - intervalo numerico: [18..59], ]0..10[, (0..10)
+ * - not(...) de uma lista dos itens acima
+ *
+ * Qualquer outra expressao lanca IllegalArgumentException: a tabela nao e
+ * compilada e segue avaliada pelo engine.
+ */
+final class CondicaoEntrada {
+
+    private final boolean qualquer;
+    private final boolean negada;
+    /** Literais de igualdade (String, Boolean ou Double). */
+    private final Set<Object> literais;
+    private final List<Faixa> faixas;
+
+    private CondicaoEntrada(boolean qualquer, boolean negada, Set<Object> literais, List<Faixa> faixas) {
+        this.qualquer = qualquer;
+        this.negada = negada;
+        this.literais = literais;
+        this.faixas = faixas;
+    }
+
+    /**
+     * @param texto Texto da celula
+     * @param tipo typeRef da entrada (string, integer, long, double, boolean)
+     */
+    static CondicaoEntrada compilar(String texto, String tipo) {
+        String t = texto == null ? "" : texto.trim();
+        if (t.isEmpty() || t.equals("-")) {
+            return new CondicaoEntrada(true, false, Set.of(), List.of());
+        }
+
+        boolean negada = false;
+        if (t.startsWith("not(") && t.endsWith(")")) {
+            negada = true;
+            t = t.substring(4, t.length() - 1).trim();
+        }
+
+        Set<Object> literais = new LinkedHashSet<>();
+        List<Faixa> faixas = new ArrayList<>();
+        for (String item : dividir(t)) {
+            interpretar(item.trim(), tipo, literais, faixas, texto);
+        }
+        return new CondicaoEntrada(false, negada, Collections.unmodifiableSet(literais), List.copyOf(faixas));
+    }
+
+    /**
+     * @param valor Valor normalizado (ver TabelaCompilada.normalizar)
+     */
+    boolean aceita(Object valor) {
+        if (qualquer) {
+            return true;
+        }
+        if (valor == null) {
+            if (negada) {
+                // not(...) com nulo depende da semantica FEEL: fica com o engine
+                throw new IllegalArgumentException("Valor nulo em condicao negada");
+            }
+            // FEEL: igualdade/comparacao com nulo nao e verdadeira
+            return false;
+        }
+        boolean casa = literais.contains(valor);
+        if (!casa && valor instanceof Double) {
+            double v = (Double) valor;
+            for (Faixa faixa : faixas) {
+                if (faixa.contem(v)) {
+                    casa = true;
+                    break;
+                }
+            }
+        }
+        return negada != casa;
+    }
+
+    boolean isQualquer() {
+        return qualquer;
+    }
+
+    /** Somente igualdade positiva: pode ir para o indice hash. */
+    boolean isIgualdade() {
+        return !qualquer && !negada && faixas.isEmpty() && !literais.isEmpty();
+    }
+
+    Set<Object> getLiterais() {
+        return literais;
+    }
+
+    List<Faixa> getFaixas() {
+        return faixas;
+    }
+
+    private static void interpretar(String item, String tipo, Set<Object> literais, List<Faixa> faixas, String original) {
+        boolean numerico = ehNumerico(tipo);
+
+        if (item.length() >= 2 && item.startsWith("\"") && item.endsWith("\"")) {
+            String literal = item.substring(1, item.length() - 1);
+            if (!"string".equals(tipo) || literal.contains("\"") || literal.contains("\\")) {
+                throw naoSuportada(original);
+            }
+            literais.add(literal);
+        } else if (item.equals("true") || item.equals("false")) {
+            if (!"boolean".equals(tipo)) {
+                throw naoSuportada(original);
+            }
+            literais.add(Boolean.valueOf(item));
+        } else if (numerico && (item.startsWith("<") || item.startsWith(">"))) {
+            boolean inclusivo = item.length() > 1 && item.charAt(1) == '=';
+            double limite = numero(item.substring(inclusivo ? 2 : 1), original);
+            faixas.add(item.startsWith("<")
+                ? new Faixa(Double.NEGATIVE_INFINITY, false, limite, inclusivo)
+                : new Faixa(limite, inclusivo, Double.POSITIVE_INFINITY, false));
+        } else if (numerico && item.contains("..")) {
+            char abre = item.charAt(0);
+            char fecha = item.charAt(item.length() - 1);
+            if ((abre != '[' && abre != ']' && abre != '(') || (fecha != ']' && fecha != '[' && fecha != ')')) {
+                throw naoSuportada(original);
+            }
+            String[] limites = item.substring(1, item.length() - 1).split("\\.\\.");
+            if (limites.length != 2) {
+                throw naoSuportada(original);
+            }
+            faixas.add(new Faixa(numero(limites[0], original), abre == '[',
+                                 numero(limites[1], original), fecha == ']'));
+        } else if (numerico) {
+            literais.add(numero(item, original));
+        } else {
+            throw naoSuportada(original);
+        }
+    }
+
+    /** Divide por virgulas fora de aspas. */
+    private static List<String> dividir(String texto) {
+        List<String> itens = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean aspas = false;
+        for (char c : texto.toCharArray()) {
+            if (c == '"') {
+                aspas = !aspas;
+            }
+            if (c == ',' && !aspas) {
+                itens.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        itens.add(atual.toString());
+        return itens;
+    }
+
+    static boolean ehNumerico(String tipo) {
+        return "integer".equals(tipo) || "long".equals(tipo) || "double".equals(tipo);
+    }
+
+    private static double numero(String texto, String original) {
+        try {
+            return Double.parseDouble(texto.trim());
+        } catch (NumberFormatException e) {
+            throw naoSuportada(original);
+        }
+    }
+
+    private static IllegalArgumentException naoSuportada(String texto) {
+        return new IllegalArgumentException("Expressao de entrada nao suportada: " + texto);
+    }
+
+    /**
+     * Intervalo numerico.
+     */
+    static final class Faixa {
+        final double inicio;
+        final boolean inicioInclusivo;
+        final double fim;
+        final boolean fimInclusivo;
+
+        Faixa(double inicio, boolean inicioInclusivo, double fim, boolean fimInclusivo) {
+            this.inicio = inicio;
+            this.inicioInclusivo = inicioInclusivo;
+            this.fim = fim;
+            this.fimInclusivo = fimInclusivo;
+        }
+
+        boolean contem(double v) {
+            return (inicioInclusivo ? v >= inicio : v > inicio) && (fimInclusivo ? v <= fim : v < fim);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.operadora.dmn;
+
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.camunda.bpm.model.dmn.HitPolicy;
+import org.camunda.bpm.model.dmn.instance.Decision;
+import org.camunda.bpm.model.dmn.instance.DecisionTable;
+import org.camunda.bpm.model.dmn.instance.Input;
+import org.camunda.bpm.model.dmn.instance.InputEntry;
+import org.camunda.bpm.model.dmn.instance.Output;
+import org.camunda.bpm.model.dmn.instance.OutputEntry;
+import org.camunda.bpm.model.dmn.instance.Rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Tabela de decisao FIRST compilada
+ * ==================================
+ *
+ * Versao pre-processada de uma decision table com hit policy FIRST:
+ * - condicoes de entrada interpretadas uma vez (CondicaoEntrada)
+ * - saidas de cada regra ja convertidas para o typeRef
+ * - indice hash na coluna com mais celulas de igualdade: a avaliacao
+ *   visita so as regras com o valor da entrada nessa coluna e as regras
+ *   sem igualdade nela (curinga, comparacao), na ordem da tabela
+ *
+ * Entradas precisam ser nomes de variavel e saidas literais; o resto
+ * (FEEL geral, outras hit policies) lanca IllegalArgumentException na
+ * compilacao e a tabela segue com o engine.
+ */
+public final class TabelaCompilada {
+
+    private static final Pattern IDENTIFICADOR = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final String decisionKey;
+    private final String[] entradas;
+    private final String[] tiposEntrada;
+    private final String[] saidas;
+    private final CondicaoEntrada[][] condicoes;
+    private final Map<String, Object>[] resultados;
+
+    /** Coluna indexada (-1 = sem indice, varredura em ordem). */
+    private final int colunaIndice;
+    private final Map<Object, int[]> indice;
+    private final int[] semIgualdade;
+    private final int[] todas;
+
+    private TabelaCompilada(String decisionKey, String[] entradas, String[] tiposEntrada, String[] saidas,
+                            CondicaoEntrada[][] condicoes, Map<String, Object>[] resultados) {
+        this.decisionKey = decisionKey;
+        this.entradas = entradas;
+        this.tiposEntrada = tiposEntrada;
+        this.saidas = saidas;
+        this.condicoes = condicoes;
+        this.resultados = resultados;
+        this.todas = sequencia(condicoes.length);
+        this.colunaIndice = escolherColuna(condicoes, entradas.length);
+
+        if (colunaIndice < 0) {
+            this.indice = Map.of();
+            this.semIgualdade = todas;
+            return;
+        }
+
+        Map<Object, List<Integer>> porValor = new HashMap<>();
+        List<Integer> outras = new ArrayList<>();
+        for (int r = 0; r < condicoes.length; r++) {
+            CondicaoEntrada c = condicoes[r][colunaIndice];
+            if (c.isIgualdade()) {
+                for (Object literal : c.getLiterais()) {
+                    porValor.computeIfAbsent(literal, k -> new ArrayList<>()).add(r);
+                }
+            } else {
+                outras.add(r);
+            }
+        }
+        Map<Object, int[]> mapa = new HashMap<>();
+        porValor.forEach((valor, regras) -> mapa.put(valor, mesclar(regras, outras)));
+        this.indice = mapa;
+        this.semIgualdade = outras.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Compila a decisao do modelo.
+     *
+     * @throws IllegalArgumentException se a tabela usar algo fora do subconjunto suportado
+     */
+    @SuppressWarnings("unchecked")
+    public static TabelaCompilada compilar(DmnModelInstance modelo, String decisionKey) {
+        Decision decision = modelo.getModelElementById(decisionKey);
+        if (decision == null || !(decision.getExpression() instanceof DecisionTable)) {
+            throw new IllegalArgumentException("Decisao sem decision table: " + decisionKey);
+        }
+        DecisionTable tabela = (DecisionTable) decision.getExpression();
+        if (tabela.getHitPolicy() != HitPolicy.FIRST) {
+            throw new IllegalArgumentException("Hit policy nao suportada: " + tabela.getHitPolicy());
+        }
+
+        List<Input> inputs = new ArrayList<>(tabela.getInputs());
+        String[] entradas = new String[inputs.size()];
+        String[] tipos = new String[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            Input input = inputs.get(i);
+            String expressao = input.getInputExpression().getText() != null
+                ? input.getInputExpression().getText().getTextContent().trim() : "";
+            if (!IDENTIFICADOR.matcher(expressao).matches()) {
+                throw new IllegalArgumentException("Expressao de entrada nao suportada: " + expressao);
+            }
+            entradas[i] = expressao;
+            tipos[i] = tipo(input.getInputExpression().getTypeRef());
+        }
+
+        List<Output> outputs = new ArrayList<>(tabela.getOutputs());
+        String[] saidas = new String[outputs.size()];
+        String[] tiposSaida = new String[outputs.size()];
+        for (int o = 0; o < outputs.size(); o++) {
+            saidas[o] = outputs.get(o).getName();
+            tiposSaida[o] = tipo(outputs.get(o).getTypeRef());
+        }
+
+        List<Rule> regras = new ArrayList<>(tabela.getRules());
+        CondicaoEntrada[][] condicoes = new CondicaoEntrada[regras.size()][];
+        Map<String, Object>[] resultados = new Map[regras.size()];
+        for (int r = 0; r < regras.size(); r++) {
+            List<InputEntry> celulas = new ArrayList<>(regras.get(r).getInputEntries());
+            condicoes[r] = new CondicaoEntrada[entradas.length];
+            for (int i = 0; i < entradas.length; i++) {
+                condicoes[r][i] = CondicaoEntrada.compilar(celulas.get(i).getText().getTextContent(), tipos[i]);
+            }
+
+            List<OutputEntry> conclusoes = new ArrayList<>(regras.get(r).getOutputEntries());
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            for (int o = 0; o < saidas.length; o++) {
+                String texto = conclusoes.get(o).getText() != null
+                    ? conclusoes.get(o).getText().getTextContent().trim() : "";
+                if (!texto.isEmpty()) {
+                    resultado.put(saidas[o], literalSaida(texto, tiposSaida[o]));
+                }
+            }
+            resultados[r] = Collections.unmodifiableMap(resultado);
+        }
+
+        return new TabelaCompilada(decisionKey, entradas, tipos, saidas, condicoes, resultados);
+    }
+
+    /**
+     * Avalia a tabela.
+     *
+     * @param variaveis Variaveis de entrada (por nome)
+     * @return Saidas da primeira regra satisfeita, ou null se nenhuma
+     * @throws IllegalArgumentException se um valor nao tiver o tipo da entrada
+     *         (quem chama deve recorrer ao engine)
+     */
+    public Map<String, Object> avaliar(Map<String, ?> variaveis) {
+        return avaliar((Function<String, ?>) variaveis::get);
+    }
+
+    /**
+     * Avalia a tabela lendo cada entrada pelo nome (ex.: execution::getVariable).
+     */
+    public Map<String, Object> avaliar(Function<String, ?> variaveis) {
+        Object[] valores = new Object[entradas.length];
+        for (int i = 0; i < entradas.length; i++) {
+            valores[i] = normalizar(variaveis.apply(entradas[i]), tiposEntrada[i]);
+        }
+
+        int[] candidatas;
+        if (colunaIndice < 0) {
+            candidatas = todas;
+        } else {
+            Object chave = valores[colunaIndice];
+            int[] indexadas = chave != null ? indice.get(chave) : null;
+            candidatas = indexadas != null ? indexadas : semIgualdade;
+        }
+
+        for (int r : candidatas) {
+            CondicaoEntrada[] regra = condicoes[r];
+            boolean satisfeita = true;
+            for (int i = 0; i < regra.length && satisfeita; i++) {
+                satisfeita = regra[i].aceita(valores[i]);
+            }
+            if (satisfeita) {
+                return resultados[r];
+            }
+        }
+        return null;
+    }
+
+    public String getDecisionKey() {
+        return decisionKey;
+    }
+
+    public String[] getEntradas() {
+        return entradas.clone();
+    }
+
+    public String[] getSaidas() {
+        return saidas.clone();
+    }
+
+    String getTipoEntrada(int indice) {
+        return tiposEntrada[indice];
+    }
+
+    int getNumeroRegras() {
+        return condicoes.length;
+    }
+
+    CondicaoEntrada getCondicao(int regra, int entrada) {
+        return condicoes[regra][entrada];
+    }
+
+    /**
+     * Valor da variavel no formato das condicoes (String, Boolean ou Double).
+     */
+    private static Object normalizar(Object valor, String tipo) {
+        if (valor == null) {
+            return null;
+        }
+        switch (tipo) {
+            case "string":
+                if (valor instanceof String) {
+                    return valor;
+                }
+                break;
+            case "boolean":
+                if (valor instanceof Boolean) {
+                    return valor;
+                }
+                break;
+            case "integer":
+            case "long":
+                if (valor instanceof Integer || valor instanceof Long || valor instanceof Short) {
+                    return ((Number) valor).doubleValue();
+                }
+                break;
+            case "double":
+                if (valor instanceof Number) {
+                    return ((Number) valor).doubleValue();
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Valor " + valor.getClass().getSimpleName() + " para entrada " + tipo);
+    }
+
+    private static Object literalSaida(String texto, String tipo) {
+        switch (tipo) {
+            case "string":
+                if (texto.length() >= 2 && texto.startsWith("\"") && texto.endsWith("\"")
+                        && texto.indexOf('"', 1) == texto.length() - 1 && !texto.contains("\\")) {
+                    return texto.substring(1, texto.length() - 1);
+                }
+                break;
+            case "boolean":
+                if (texto.equals("true") || texto.equals("false")) {
+                    return Boolean.valueOf(texto);
+                }
+                break;
+            case "integer":
+                try {
+                    return Integer.valueOf(texto);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            case "long":
+                try {
+                    return Long.valueOf(texto);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            case "double":
+                try {
+                    return Double.valueOf(texto);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Saida nao suportada (" + tipo + "): " + texto);
+    }
+
+    private static String tipo(String typeRef) {
+        String tipo = typeRef == null ? "string" : typeRef.trim().toLowerCase();
+        switch (tipo) {
+            case "string":
+            case "boolean":
+            case "integer":
+            case "long":
+            case "double":
+                return tipo;
+            default:
+                throw new IllegalArgumentException("typeRef nao suportado: " + typeRef);
+        }
+    }
+
+    private static int escolherColuna(CondicaoEntrada[][] condicoes, int colunas) {
+        int melhor = -1;
+        int maisIgualdades = 1;
+        for (int i = 0; i < colunas; i++) {
+            int igualdades = 0;
+            for (CondicaoEntrada[] regra : condicoes) {
+                if (regra[i].isIgualdade()) {
+                    igualdades++;
+                }
+            }
+            if (igualdades > maisIgualdades) {
+                maisIgualdades = igualdades;
+                melhor = i;
+            }
+        }
+        return melhor;
+    }
+
+    private static int[] mesclar(List<Integer> a, List<Integer> b) {
+        int[] resultado = new int[a.size() + b.size()];
+        int i = 0, j = 0, k = 0;
+        while (i < a.size() || j < b.size()) {
+            if (j >= b.size() || (i < a.size() && a.get(i) < b.get(j))) {
+                resultado[k++] = a.get(i++);
+            } else {
+                resultado[k++] = b.get(j++);
+            }
+        }
+        return resultado;
+    }
+
+    private static int[] sequencia(int n) {
+        int[] s = new int[n];
+        for (int i = 0; i < n; i++) {
+            s[i] = i;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,181 @@
+package com.operadora.historico;
+
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Evento de historico de variavel capturado para gravacao assincrona.
+ *
+ * Copia os campos do evento do engine no momento da captura (o evento
+ * original nao e usado depois do commit) e serve de linha do arquivo de
+ * spill (JSON). O id e o ID_ da linha em ACT_HI_DETAIL.
+ */
+public class EventoVariavelHistorico {
+
+    private String id;
+    private String tipoEvento;
+    private String processInstanceId;
+    private String rootProcessInstanceId;
+    private String processDefinitionId;
+    private String processDefinitionKey;
+    private String executionId;
+    private String activityInstanceId;
+    private String scopeActivityInstanceId;
+    private String taskId;
+    private String tenantId;
+    private String userOperationId;
+    private String variableInstanceId;
+    private String nome;
+    private String serializador;
+    private String texto;
+    private String texto2;
+    private Long valorLong;
+    private Double valorDouble;
+    private byte[] bytes;
+    private int revisao;
+    private long sequencia;
+    private boolean inicial;
+    private Date timestamp;
+    private Date removalTime;
+
+    public static EventoVariavelHistorico de(HistoricVariableUpdateEventEntity evento) {
+        EventoVariavelHistorico e = new EventoVariavelHistorico();
+        e.id = UUID.randomUUID().toString();
+        e.tipoEvento = evento.getEventType();
+        e.processInstanceId = evento.getProcessInstanceId();
+        e.rootProcessInstanceId = evento.getRootProcessInstanceId();
+        e.processDefinitionId = evento.getProcessDefinitionId();
+        e.processDefinitionKey = evento.getProcessDefinitionKey();
+        e.executionId = evento.getExecutionId();
+        e.activityInstanceId = evento.getActivityInstanceId();
+        e.scopeActivityInstanceId = evento.getScopeActivityInstanceId();
+        e.taskId = evento.getTaskId();
+        e.tenantId = evento.getTenantId();
+        e.userOperationId = evento.getUserOperationId();
+        e.variableInstanceId = evento.getVariableInstanceId();
+        e.nome = evento.getVariableName();
+        e.serializador = evento.getSerializerName();
+        e.texto = evento.getTextValue();
+        e.texto2 = evento.getTextValue2();
+        e.valorLong = evento.getLongValue();
+        e.valorDouble = evento.getDoubleValue();
+        e.bytes = evento.getByteValue();
+        e.revisao = evento.getRevision();
+        e.sequencia = evento.getSequenceCounter();
+        e.inicial = evento.isInitial();
+        e.timestamp = evento.getTimestamp() != null ? evento.getTimestamp() : new Date();
+        e.removalTime = evento.getRemovalTime();
+        return e;
+    }
+
+    /**
+     * Evento do engine para o DbHistoryEventHandler (ACT_HI_VARINST e
+     * ACT_HI_DETAIL).
+     */
+    public HistoricVariableUpdateEventEntity paraEvento() {
+        HistoricVariableUpdateEventEntity evento = new HistoricVariableUpdateEventEntity();
+        evento.setId(id);
+        evento.setEventType(tipoEvento);
+        evento.setProcessInstanceId(processInstanceId);
+        evento.setRootProcessInstanceId(rootProcessInstanceId);
+        evento.setProcessDefinitionId(processDefinitionId);
+        evento.setProcessDefinitionKey(processDefinitionKey);
+        evento.setExecutionId(executionId);
+        evento.setActivityInstanceId(activityInstanceId);
+        evento.setScopeActivityInstanceId(scopeActivityInstanceId);
+        evento.setTaskId(taskId);
+        evento.setTenantId(tenantId);
+        evento.setUserOperationId(userOperationId);
+        evento.setVariableInstanceId(variableInstanceId);
+        evento.setVariableName(nome);
+        evento.setSerializerName(serializador);
+        evento.setTextValue(texto);
+        evento.setTextValue2(texto2);
+        evento.setLongValue(valorLong);
+        evento.setDoubleValue(valorDouble);
+        evento.setByteValue(bytes);
+        evento.setRevision(revisao);
+        evento.setSequenceCounter(sequencia);
+        evento.setInitial(inicial);
+        evento.setTimestamp(timestamp);
+        evento.setRemovalTime(removalTime);
+        return evento;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTipoEvento() { return tipoEvento; }
+    public void setTipoEvento(String tipoEvento) { this.tipoEvento = tipoEvento; }
+
+    public String getProcessInstanceId() { return processInstanceId; }
+    public void setProcessInstanceId(String processInstanceId) { this.processInstanceId = processInstanceId; }
+
+    public String getRootProcessInstanceId() { return rootProcessInstanceId; }
+    public void setRootProcessInstanceId(String rootProcessInstanceId) { this.rootProcessInstanceId = rootProcessInstanceId; }
+
+    public String getProcessDefinitionId() { return processDefinitionId; }
+    public void setProcessDefinitionId(String processDefinitionId) { this.processDefinitionId = processDefinitionId; }
+
+    public String getProcessDefinitionKey() { return processDefinitionKey; }
+    public void setProcessDefinitionKey(String processDefinitionKey) { this.processDefinitionKey = processDefinitionKey; }
+
+    public String getExecutionId() { return executionId; }
+    public void setExecutionId(String executionId) { this.executionId = executionId; }
+
+    public String getActivityInstanceId() { return activityInstanceId; }
+    public void setActivityInstanceId(String activityInstanceId) { this.activityInstanceId = activityInstanceId; }
+
+    public String getScopeActivityInstanceId() { return scopeActivityInstanceId; }
+    public void setScopeActivityInstanceId(String scopeActivityInstanceId) { this.scopeActivityInstanceId = scopeActivityInstanceId; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getTenantId() { return tenantId; }
+    public void setTenantId(String tenantId) { this.tenantId = tenantId; }
+
+    public String getUserOperationId() { return userOperationId; }
+    public void setUserOperationId(String userOperationId) { this.userOperationId = userOperationId; }
+
+    public String getVariableInstanceId() { return variableInstanceId; }
+    public void setVariableInstanceId(String variableInstanceId) { this.variableInstanceId = variableInstanceId; }
+
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+
+    public String getSerializador() { return serializador; }
+    public void setSerializador(String serializador) { this.serializador = serializador; }
+
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) { this.texto = texto; }
+
+    public String getTexto2() { return texto2; }
+    public void setTexto2(String texto2) { this.texto2 = texto2; }
+
+    public Long getValorLong() { return valorLong; }
+    public void setValorLong(Long valorLong) { this.valorLong = valorLong; }
+
+    public Double getValorDouble() { return valorDouble; }
+    public void setValorDouble(Double valorDouble) { this.valorDouble = valorDouble; }
+
+    public byte[] getBytes() { return bytes; }
+    public void setBytes(byte[] bytes) { this.bytes = bytes; }
+
+    public int getRevisao() { return revisao; }
+    public void setRevisao(int revisao) { this.revisao = revisao; }
+
+    public long getSequencia() { return sequencia; }
+    public void setSequencia(long sequencia) { this.sequencia = sequencia; }
+
+    public boolean isInicial() { return inicial; }
+    public void setInicial(boolean inicial) { this.inicial = inicial; }
+
+    public Date getTimestamp() { return timestamp; }
+    public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }
+
+    public Date getRemovalTime() { return removalTime; }
+    public void setRemovalTime(Date removalTime) { this.removalTime = removalTime; }
+}
@@ -0,0 +1,377 @@
+package com.operadora.historico;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricProcessInstanceEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravador assincrono do historico de variaveis
+ * ==============================================
+ *
+ * Recebe os eventos de historico de variavel apos o commit da transacao do
+ * engine e grava em lotes numa thread propria, cada lote num comando do
+ * engine com o DbHistoryEventHandler padrao. As linhas vao para as tabelas
+ * do proprio engine (ACT_HI_VARINST, ACT_HI_DETAIL): Cockpit, consultas de
+ * historico, removal time e history cleanup continuam valendo. A transacao
+ * de cada delegate deixa de incluir esses INSERT/UPDATE.
+ *
+ * - Fila circular de tamanho fixo (ArrayBlockingQueue)
+ * - Backpressure: com a fila cheia, quem registra espera a vaga. O gravador
+ *   esvazia a fila mesmo com o banco fora (os lotes vao para o spill), e
+ *   derramar so o evento novo o colocaria no spill antes dos mais antigos
+ *   ainda na fila
+ * - Lote que falha ao gravar vai inteiro para o spill; enquanto houver spill
+ *   pendente, os lotes seguintes tambem vao para ele, para que os eventos de
+ *   uma variavel sejam aplicados em ordem
+ * - Spill: arquivo NDJSON (com fsync a cada escrita) regravado no banco
+ *   periodicamente e na inicializacao (eventos ja gravados sao ignorados)
+ * - No encerramento, drena a fila; o que nao couber no tempo vai para o spill
+ *
+ * Diferencas para a gravacao sincrona:
+ * - o historico de variaveis aparece com atraso (janela-ms, ou o intervalo
+ *   de reprocessamento quando o evento passa pelo spill)
+ * - evento de instancia cujo historico ja foi removido e descartado
+ * - removal time: o evento gravado depois do fim da instancia recebe o
+ *   removal time dela; um evento gravado no mesmo instante em que a
+ *   instancia termina pode ficar sem removal time (estrategia "end") e so
+ *   sai no cleanup por instancia, nao no cleanup por removal time
+ *
+ * Ativacao: historico.assincrono.enabled=true
+ */
+@Component
+@ConditionalOnProperty(name = "historico.assincrono.enabled", havingValue = "true")
+public class GravadorHistoricoVariaveis {
+
+    private static final Logger logger = LoggerFactory.getLogger(GravadorHistoricoVariaveis.class);
+
+    private static final String EXISTE_DETALHE = "SELECT COUNT(*) FROM ACT_HI_DETAIL WHERE ID_ = ?";
+    private static final String EXISTE_VARIAVEL = "SELECT COUNT(*) FROM ACT_HI_VARINST WHERE ID_ = ?";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${historico.assincrono.capacidade:65536}")
+    private int capacidade;
+
+    @Value("${historico.assincrono.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${historico.assincrono.janela-ms:100}")
+    private long janelaMs;
+
+    @Value("${historico.assincrono.espera-cheio-ms:50}")
+    private long esperaCheioMs;
+
+    @Value("${historico.assincrono.encerramento-ms:10000}")
+    private long encerramentoMs;
+
+    @Value("${historico.assincrono.arquivo-spill:./data/historico-spill.ndjson}")
+    private String arquivoSpill;
+
+    private final HistoryEventHandler handlerEngine = new DbHistoryEventHandler();
+
+    /** Definido pelo plugin do engine (HistoricoConfig) apos a inicializacao. */
+    private volatile CommandExecutor commandExecutor;
+
+    private BlockingQueue<EventoVariavelHistorico> fila;
+    private Thread gravador;
+    private Path spill;
+    private final Object lockSpill = new Object();
+    /** Ha eventos no spill ainda nao regravados (guardado por lockSpill). */
+    private boolean spillPendente;
+    private volatile boolean fechado;
+
+    private Counter gravados;
+    private Counter derramados;
+    private Counter descartados;
+    private Counter esperasFilaCheia;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        fila = new ArrayBlockingQueue<>(capacidade);
+        spill = Paths.get(arquivoSpill);
+        if (spill.getParent() != null) {
+            Files.createDirectories(spill.getParent());
+        }
+        spillPendente = Files.exists(spill) || Files.exists(Paths.get(arquivoSpill + ".reprocessando"));
+
+        gravados = meterRegistry.counter("historico.variaveis.gravados");
+        derramados = meterRegistry.counter("historico.variaveis.spill");
+        descartados = meterRegistry.counter("historico.variaveis.descartados");
+        esperasFilaCheia = meterRegistry.counter("historico.variaveis.espera_fila_cheia");
+        meterRegistry.gauge("historico.variaveis.fila", fila, BlockingQueue::size);
+
+        gravador = new Thread(this::executar, "historico-gravador");
+        gravador.setDaemon(true);
+        gravador.start();
+
+        logger.info("Historico de variaveis assincrono - Capacidade: {}, Lote: {}, Spill: {}",
+                    capacidade, tamanhoLote, spill.toAbsolutePath());
+    }
+
+    /**
+     * Liga o gravador ao engine (chamado no postInit do plugin).
+     */
+    public void usarEngine(ProcessEngineConfigurationImpl configuration) {
+        this.commandExecutor = configuration.getCommandExecutorTxRequired();
+    }
+
+    /**
+     * Registra um evento ja confirmado (chamado apos o commit do engine).
+     * Com a fila cheia, espera a vaga enquanto o gravador estiver ativo.
+     */
+    public void registrar(EventoVariavelHistorico evento) {
+        try {
+            while (!fechado || gravador.isAlive()) {
+                if (fila.offer(evento) || fila.offer(evento, esperaCheioMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                esperasFilaCheia.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        derramarComFila(List.of(evento));
+    }
+
+    private void executar() {
+        List<EventoVariavelHistorico> lote = new ArrayList<>(tamanhoLote);
+        while (!fechado || !fila.isEmpty()) {
+            try {
+                EventoVariavelHistorico primeiro = fila.poll(janelaMs, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                gravarOuDerramar(lote);
+            } catch (InterruptedException e) {
+                if (fechado) {
+                    break;
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravarOuDerramar(List<EventoVariavelHistorico> lote) {
+        synchronized (lockSpill) {
+            if (spillPendente) {
+                derramar(lote);
+                return;
+            }
+        }
+        try {
+            gravar(lote);
+        } catch (Exception e) {
+            logger.error("Falha ao gravar lote de historico ({} eventos) - enviando para spill: {}",
+                         lote.size(), e.getMessage());
+            derramar(lote);
+        }
+    }
+
+    private void gravar(List<EventoVariavelHistorico> lote) {
+        CommandExecutor executor = commandExecutor;
+        if (executor == null) {
+            throw new IllegalStateException("Engine ainda nao inicializado");
+        }
+        int descartadosLote = executor.execute(ctx -> gravarNoEngine(ctx, lote));
+        gravados.increment(lote.size() - descartadosLote);
+        descartados.increment(descartadosLote);
+    }
+
+    /**
+     * Grava os eventos com o handler padrao do engine. Retorna quantos
+     * foram descartados (historico da instancia raiz ja removido).
+     */
+    private int gravarNoEngine(CommandContext ctx, List<EventoVariavelHistorico> lote) {
+        Map<String, Optional<HistoricProcessInstanceEntity>> raizes = new HashMap<>();
+        int descartadosLote = 0;
+        for (EventoVariavelHistorico e : lote) {
+            HistoricVariableUpdateEventEntity evento = e.paraEvento();
+            String raiz = evento.getRootProcessInstanceId();
+            if (raiz != null) {
+                HistoricProcessInstanceEntity instancia = raizes.computeIfAbsent(raiz, id -> Optional.ofNullable(
+                    ctx.getHistoricProcessInstanceManager().findHistoricProcessInstance(id))).orElse(null);
+                if (instancia == null) {
+                    descartadosLote++;
+                    continue;
+                }
+                if (evento.getRemovalTime() == null) {
+                    evento.setRemovalTime(instancia.getRemovalTime());
+                }
+            }
+            handlerEngine.handleEvent(evento);
+        }
+        return descartadosLote;
+    }
+
+    /**
+     * Derrama o que restou na fila e depois os eventos, mantendo a ordem de
+     * registro no spill.
+     */
+    private void derramarComFila(List<EventoVariavelHistorico> eventos) {
+        synchronized (lockSpill) {
+            List<EventoVariavelHistorico> todos = new ArrayList<>();
+            fila.drainTo(todos);
+            todos.addAll(eventos);
+            derramar(todos);
+        }
+    }
+
+    private void derramar(List<EventoVariavelHistorico> eventos) {
+        synchronized (lockSpill) {
+            try (FileChannel canal = FileChannel.open(spill,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteArrayOutputStream linhas = new ByteArrayOutputStream();
+                for (EventoVariavelHistorico evento : eventos) {
+                    linhas.write(JSON.writeValueAsBytes(evento));
+                    linhas.write('\n');
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(linhas.toByteArray());
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                // Eventos ja confirmados no engine: so saem da memoria depois do fsync
+                canal.force(true);
+                spillPendente = true;
+                derramados.increment(eventos.size());
+            } catch (IOException e) {
+                logger.error("Falha ao gravar spill de historico - {} eventos perdidos: {}",
+                             eventos.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Regrava no banco os eventos do arquivo de spill.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${historico.assincrono.reprocessar-ms:30000}")
+    public void reprocessarSpill() {
+        if (commandExecutor == null) {
+            return;
+        }
+        Path emReprocesso = Paths.get(arquivoSpill + ".reprocessando");
+        synchronized (lockSpill) {
+            try {
+                if (!Files.exists(emReprocesso)) {
+                    if (!Files.exists(spill) || Files.size(spill) == 0) {
+                        return;
+                    }
+                    Files.move(spill, emReprocesso, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                logger.error("Falha ao preparar spill de historico: {}", e.getMessage());
+                return;
+            }
+        }
+
+        int total = 0;
+        try (BufferedReader reader = Files.newBufferedReader(emReprocesso, StandardCharsets.UTF_8)) {
+            List<EventoVariavelHistorico> lote = new ArrayList<>(tamanhoLote);
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                lote.add(JSON.readValue(linha, EventoVariavelHistorico.class));
+                if (lote.size() == tamanhoLote) {
+                    total += regravar(lote);
+                    lote.clear();
+                }
+            }
+            total += regravar(lote);
+            synchronized (lockSpill) {
+                Files.delete(emReprocesso);
+                spillPendente = Files.exists(spill);
+            }
+            logger.info("Spill de historico reprocessado: {} eventos", total);
+        } catch (Exception e) {
+            // Mantem o arquivo .reprocessando para a proxima rodada
+            logger.error("Falha ao reprocessar spill de historico ({} eventos gravados): {}", total, e.getMessage());
+        }
+    }
+
+    private int regravar(List<EventoVariavelHistorico> lote) {
+        // Parte pode ja estar gravada numa rodada interrompida
+        List<EventoVariavelHistorico> faltantes = lote.stream().filter(e -> !jaGravado(e)).toList();
+        if (faltantes.isEmpty()) {
+            return 0;
+        }
+        gravar(faltantes);
+        return faltantes.size();
+    }
+
+    private boolean jaGravado(EventoVariavelHistorico evento) {
+        Integer detalhes = jdbcTemplate.queryForObject(EXISTE_DETALHE, Integer.class, evento.getId());
+        if (detalhes != null && detalhes > 0) {
+            return true;
+        }
+        if (!HistoryEventTypes.VARIABLE_INSTANCE_CREATE.getEventName().equals(evento.getTipoEvento())) {
+            // update/delete sem detalhe: regravar so reaplica o estado
+            return false;
+        }
+        Integer variaveis = jdbcTemplate.queryForObject(EXISTE_VARIAVEL, Integer.class, evento.getVariableInstanceId());
+        return variaveis != null && variaveis > 0;
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        fechado = true;
+        gravador.join(encerramentoMs);
+        if (gravador.isAlive()) {
+            gravador.interrupt();
+            gravador.join(1000);
+        }
+
+        int restantes = fila.size();
+        if (restantes > 0) {
+            derramarComFila(List.of());
+            logger.warn("Historico: {} eventos enviados para spill no encerramento", restantes);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.operadora.historico;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+import java.util.List;
+
+/**
+ * History Event Handler: variaveis fora da transacao
+ * ===================================================
+ *
+ * Eventos de variavel (ACT_HI_VARINST / ACT_HI_DETAIL, a maior parte do
+ * volume) vao para o GravadorHistoricoVariaveis depois do commit da
+ * transacao do engine - se ela for desfeita, o evento e descartado junto.
+ * O gravador os aplica em lote nas mesmas tabelas, com o handler padrao.
+ *
+ * Os demais eventos (instancias, atividades, tarefas, incidentes, jobs,
+ * decisoes) continuam gravados na mesma transacao pelo handler padrao: o
+ * Cockpit e as consultas de historico dependem deles.
+ */
+public class HistoryEventHandlerAssincrono implements HistoryEventHandler {
+
+    private final HistoryEventHandler padrao;
+    private final GravadorHistoricoVariaveis gravador;
+
+    public HistoryEventHandlerAssincrono(HistoryEventHandler padrao, GravadorHistoricoVariaveis gravador) {
+        this.padrao = padrao;
+        this.gravador = gravador;
+    }
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        if (!(historyEvent instanceof HistoricVariableUpdateEventEntity)) {
+            padrao.handleEvent(historyEvent);
+            return;
+        }
+
+        EventoVariavelHistorico evento = EventoVariavelHistorico.de((HistoricVariableUpdateEventEntity) historyEvent);
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            gravador.registrar(evento);
+            return;
+        }
+        commandContext.getTransactionContext()
+            .addTransactionListener(TransactionState.COMMITTED, ctx -> gravador.registrar(evento));
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+}
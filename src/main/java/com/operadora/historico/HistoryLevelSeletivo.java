@@ -0,0 +1,112 @@
+package com.operadora.historico;
+
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventType;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * History Level: seletivo
+ * ========================
+ *
+ * Igual ao "full" para atividades, instancias, tarefas, jobs, incidentes e
+ * decisoes. Para variaveis:
+ * - variaveis na lista "negar" (ex: delegate_status, *_timestamp) nao geram
+ *   historico (nem ACT_HI_VARINST, nem ACT_HI_DETAIL)
+ * - as demais geram ACT_HI_VARINST; o detalhe de cada atualizacao
+ *   (ACT_HI_DETAIL) so e gravado se "detalhe" estiver ligado
+ * - variaveis na lista "permitir" sempre tem historico completo
+ *
+ * Padroes aceitam '*' como curinga (ex: "*_message_id").
+ *
+ * Ativacao: camunda.bpm.history-level: seletivo
+ */
+public class HistoryLevelSeletivo implements HistoryLevel {
+
+    public static final String NOME = "seletivo";
+    public static final int ID = 10;
+
+    private final List<Pattern> permitir;
+    private final List<Pattern> negar;
+    private final boolean detalhe;
+
+    /**
+     * @param permitir Padroes com historico completo (prevalece sobre negar)
+     * @param negar Padroes sem historico de variavel
+     * @param detalhe Grava ACT_HI_DETAIL para as variaveis nao negadas
+     */
+    public HistoryLevelSeletivo(List<String> permitir, List<String> negar, boolean detalhe) {
+        this.permitir = compilar(permitir);
+        this.negar = compilar(negar);
+        this.detalhe = detalhe;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NOME;
+    }
+
+    @Override
+    public boolean isHistoryEventProduced(HistoryEventType eventType, Object entity) {
+        if (!ehEventoVariavel(eventType)) {
+            return HISTORY_LEVEL_FULL.isHistoryEventProduced(eventType, entity);
+        }
+
+        String nome = nomeVariavel(entity);
+        if (nome == null) {
+            // Consulta generica do engine ("produz algum evento deste tipo?")
+            return true;
+        }
+        if (corresponde(permitir, nome)) {
+            return true;
+        }
+        if (corresponde(negar, nome)) {
+            return false;
+        }
+        return detalhe || eventType != HistoryEventTypes.VARIABLE_INSTANCE_UPDATE_DETAIL;
+    }
+
+    private static boolean ehEventoVariavel(HistoryEventType eventType) {
+        return eventType == HistoryEventTypes.VARIABLE_INSTANCE_CREATE
+            || eventType == HistoryEventTypes.VARIABLE_INSTANCE_UPDATE
+            || eventType == HistoryEventTypes.VARIABLE_INSTANCE_MIGRATE
+            || eventType == HistoryEventTypes.VARIABLE_INSTANCE_DELETE
+            || eventType == HistoryEventTypes.VARIABLE_INSTANCE_UPDATE_DETAIL;
+    }
+
+    private static String nomeVariavel(Object entity) {
+        if (entity instanceof VariableInstance) {
+            return ((VariableInstance) entity).getName();
+        }
+        if (entity instanceof HistoricVariableUpdateEventEntity) {
+            return ((HistoricVariableUpdateEventEntity) entity).getVariableName();
+        }
+        return null;
+    }
+
+    private static boolean corresponde(List<Pattern> padroes, String nome) {
+        for (Pattern padrao : padroes) {
+            if (padrao.matcher(nome).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> compilar(List<String> padroes) {
+        return padroes.stream()
+            .map(String::trim)
+            .filter(p -> !p.isEmpty())
+            .map(p -> Pattern.compile(Pattern.quote(p).replace("*", "\\E.*\\Q")))
+            .toList();
+    }
+}
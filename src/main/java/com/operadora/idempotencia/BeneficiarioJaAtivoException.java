@@ -0,0 +1,32 @@
+package com.operadora.idempotencia;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * Start recusado: o CPF ja tem instancia ativa do processo V2.
+ */
+public class BeneficiarioJaAtivoException extends ProcessEngineException {
+
+    private final String cpf;
+
+    public BeneficiarioJaAtivoException(String cpf) {
+        super("Beneficiario ja possui instancia ativa do processo V2: " + cpf);
+        this.cpf = cpf;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    /**
+     * Verifica se a falha (ou uma de suas causas) e um start recusado.
+     */
+    public static boolean causa(Throwable erro) {
+        for (Throwable t = erro; t != null; t = t.getCause()) {
+            if (t instanceof BeneficiarioJaAtivoException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
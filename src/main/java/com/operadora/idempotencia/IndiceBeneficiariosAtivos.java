@@ -0,0 +1,263 @@
+package com.operadora.idempotencia;
+
+import com.operadora.services.InicioLoteService;
+import com.operadora.support.FiltroBloom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indice de Beneficiarios Ativos
+ * ===============================
+ *
+ * Garante no maximo uma instancia ativa de Process_Coordenacao_Cuidado_V2
+ * por CPF, em qualquer numero de nos:
+ *
+ * - Fonte da verdade: tabela INICIO_ATIVO (chave primaria = CPF). A linha e
+ *   inserida na transacao do start (listener de inicio do processo); um
+ *   start concorrente do mesmo CPF, em qualquer no, falha na chave e o
+ *   start inteiro e desfeito. A linha sai no fim da instancia.
+ * - Filtro de Bloom com todos os CPFs ja vistos: "nao contem" = CPF novo,
+ *   sem consulta ao banco (o caso comum num arquivo de onboarding)
+ * - Conjunto em memoria dos CPFs ativos: responde sem banco para CPFs ja
+ *   conhecidos; os demais positivos do filtro vao ao banco
+ *
+ * Recarga periodica (idempotencia.recarga-ms): remove linhas de instancias
+ * que nao existem mais (encerradas sem listener, ex.: delete direto no
+ * banco), registra as instancias V2 em execucao sem linha (iniciadas antes
+ * da ativacao ou por um no sem o indice; CPF da business key BEN-{cpf}) e
+ * reconstroi filtro e conjunto a partir da tabela, incorporando os CPFs
+ * iniciados em outros nos. A primeira recarga roda no build do engine
+ * (IdempotenciaConfig), antes de deployments, jobs e requisicoes. Um CPF encerrado em outro no pode ser
+ * visto como ativo por este ate a proxima recarga: a checagem pode recusar
+ * um start legitimo nessa janela, nunca aceitar um duplicado.
+ *
+ * Ativacao: idempotencia.enabled=true
+ */
+@Component
+@ConditionalOnProperty(name = "idempotencia.enabled", havingValue = "true")
+public class IndiceBeneficiariosAtivos {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBeneficiariosAtivos.class);
+
+    private static final String INSERT =
+        "INSERT INTO INICIO_ATIVO (CPF, PROCESS_INSTANCE_ID, NO_ENGINE, CRIADO_EM) VALUES (?,?,?,?)";
+    private static final String DELETE =
+        "DELETE FROM INICIO_ATIVO WHERE CPF = ? AND PROCESS_INSTANCE_ID = ?";
+    private static final String DELETE_ORFAOS =
+        "DELETE FROM INICIO_ATIVO WHERE CRIADO_EM < ? AND NOT EXISTS "
+        + "(SELECT 1 FROM ACT_RU_EXECUTION E WHERE E.PROC_INST_ID_ = INICIO_ATIVO.PROCESS_INSTANCE_ID)";
+    private static final String SEM_REGISTRO =
+        "SELECT E.PROC_INST_ID_, E.BUSINESS_KEY_ FROM ACT_RU_EXECUTION E "
+        + "JOIN ACT_RE_PROCDEF D ON D.ID_ = E.PROC_DEF_ID_ "
+        + "WHERE E.ID_ = E.PROC_INST_ID_ AND D.KEY_ = ? AND E.BUSINESS_KEY_ LIKE ? AND NOT EXISTS "
+        + "(SELECT 1 FROM INICIO_ATIVO A WHERE A.PROCESS_INSTANCE_ID = E.PROC_INST_ID_)";
+    /** So insere se a instancia ainda existe (pode ter terminado depois da consulta). */
+    private static final String INSERT_EXISTENTE =
+        "INSERT INTO INICIO_ATIVO (CPF, PROCESS_INSTANCE_ID, NO_ENGINE, CRIADO_EM) "
+        + "SELECT ?,?,?,? FROM ACT_RU_EXECUTION WHERE ID_ = ?";
+
+    /** CPFs por consulta IN. */
+    private static final int LOTE_CONSULTA = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${idempotencia.no:}")
+    private String no;
+
+    @Value("${idempotencia.bloom.elementos-esperados:2000000}")
+    private long elementosEsperados;
+
+    @Value("${idempotencia.bloom.taxa-falso-positivo:0.01}")
+    private double taxaFalsoPositivo;
+
+    @Value("${idempotencia.orfaos-minutos:5}")
+    private long orfaosMinutos;
+
+    private volatile FiltroBloom bloom;
+    private volatile Set<String> ativos = ConcurrentHashMap.newKeySet();
+
+    private Counter consultasBloom;
+    private Counter consultasMemoria;
+    private Counter consultasBanco;
+    private Counter recusados;
+
+    @PostConstruct
+    void init() {
+        if (no == null || no.isBlank()) {
+            try {
+                no = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                no = "no-" + UUID.randomUUID().toString().substring(0, 8);
+            }
+        }
+        bloom = new FiltroBloom(elementosEsperados, taxaFalsoPositivo);
+
+        consultasBloom = meterRegistry.counter("idempotencia.consultas", "origem", "bloom");
+        consultasMemoria = meterRegistry.counter("idempotencia.consultas", "origem", "memoria");
+        consultasBanco = meterRegistry.counter("idempotencia.consultas", "origem", "banco");
+        recusados = meterRegistry.counter("idempotencia.starts_recusados");
+        meterRegistry.gauge("idempotencia.ativos", this, i -> i.ativos.size());
+    }
+
+    /**
+     * CPFs da colecao com instancia ativa.
+     */
+    public Set<String> ativos(Collection<String> cpfs) {
+        Set<String> encontrados = new HashSet<>();
+        List<String> consultar = new ArrayList<>();
+        FiltroBloom filtro = bloom;
+        Set<String> conhecidos = ativos;
+
+        for (String cpf : cpfs) {
+            if (!filtro.talvezContenha(cpf)) {
+                consultasBloom.increment();
+            } else if (conhecidos.contains(cpf)) {
+                consultasMemoria.increment();
+                encontrados.add(cpf);
+            } else {
+                consultasBanco.increment();
+                consultar.add(cpf);
+            }
+        }
+
+        for (int i = 0; i < consultar.size(); i += LOTE_CONSULTA) {
+            List<String> parte = consultar.subList(i, Math.min(consultar.size(), i + LOTE_CONSULTA));
+            String sql = "SELECT CPF FROM INICIO_ATIVO WHERE CPF IN ("
+                + String.join(",", Collections.nCopies(parte.size(), "?")) + ")";
+            List<String> noBanco = jdbcTemplate.queryForList(sql, String.class, parte.toArray());
+            encontrados.addAll(noBanco);
+            conhecidos.addAll(noBanco);
+        }
+        return encontrados;
+    }
+
+    /**
+     * @return true se o CPF tem instancia ativa
+     */
+    public boolean ativo(String cpf) {
+        return !ativos(List.of(cpf)).isEmpty();
+    }
+
+    /**
+     * Registra o CPF como ativo na transacao corrente (start da instancia).
+     *
+     * @throws BeneficiarioJaAtivoException se o CPF ja tiver instancia ativa
+     */
+    public void reservar(String cpf, String processInstanceId) {
+        try {
+            jdbcTemplate.update(INSERT, cpf, processInstanceId, no, new Timestamp(System.currentTimeMillis()));
+        } catch (DuplicateKeyException e) {
+            recusados.increment();
+            ativos.add(cpf);
+            throw new BeneficiarioJaAtivoException(cpf);
+        }
+        bloom.adicionar(cpf);
+        aposCommit(() -> ativos.add(cpf));
+    }
+
+    /**
+     * Remove o CPF dos ativos na transacao corrente (fim da instancia).
+     */
+    public void liberar(String cpf, String processInstanceId) {
+        jdbcTemplate.update(DELETE, cpf, processInstanceId);
+        aposCommit(() -> ativos.remove(cpf));
+    }
+
+    /**
+     * Remove as linhas orfas, registra as instancias ativas sem linha e
+     * recarrega filtro e conjunto a partir da tabela.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${idempotencia.recarga-ms:30000}")
+    public void recarregar() {
+        try {
+            int orfaos = jdbcTemplate.update(DELETE_ORFAOS,
+                new Timestamp(System.currentTimeMillis() - orfaosMinutos * 60_000));
+            registrarInstanciasAtivas();
+
+            Set<String> novos = ConcurrentHashMap.newKeySet();
+            jdbcTemplate.query("SELECT CPF FROM INICIO_ATIVO", rs -> {
+                novos.add(rs.getString(1));
+            });
+            FiltroBloom novoFiltro = new FiltroBloom(Math.max(elementosEsperados, novos.size() * 2L), taxaFalsoPositivo);
+            novos.forEach(novoFiltro::adicionar);
+
+            bloom = novoFiltro;
+            ativos = novos;
+
+            if (orfaos > 0) {
+                logger.info("Idempotencia: {} registros orfaos removidos, {} CPFs ativos", orfaos, novos.size());
+            }
+        } catch (Exception e) {
+            logger.error("Idempotencia: falha ao recarregar indice de ativos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Insere em INICIO_ATIVO as instancias V2 em execucao sem linha, com o
+     * CPF da business key (BEN-{cpf}). Um CPF com mais de uma instancia
+     * ativa fica registrado com a primeira; as demais sao apenas logadas.
+     */
+    private void registrarInstanciasAtivas() {
+        String prefixo = InicioLoteService.PREFIXO_BUSINESS_KEY;
+        List<String[]> pendentes = jdbcTemplate.query(SEM_REGISTRO,
+            (rs, i) -> new String[] {rs.getString(1), rs.getString(2)},
+            InicioLoteService.PROCESSO_V2, prefixo + "%");
+
+        int registradas = 0;
+        for (String[] instancia : pendentes) {
+            String cpf = ListenerBeneficiarioAtivo.normalizar(instancia[1].substring(prefixo.length()));
+            if (cpf == null) {
+                continue;
+            }
+            try {
+                registradas += jdbcTemplate.update(INSERT_EXISTENTE,
+                    cpf, instancia[0], no, new Timestamp(System.currentTimeMillis()), instancia[0]);
+            } catch (DuplicateKeyException e) {
+                logger.warn("Idempotencia: CPF {} ja ativo, instancia {} nao registrada", cpf, instancia[0]);
+            }
+        }
+        if (registradas > 0) {
+            logger.info("Idempotencia: {} instancias ativas registradas em INICIO_ATIVO", registradas);
+        }
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.operadora.idempotencia;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+
+/**
+ * Listener de inicio e fim do processo V2: reserva o CPF no start e
+ * libera no fim (inclusive cancelamento) da instancia, na transacao do
+ * engine. Instancias sem beneficiario_cpf ficam fora do indice.
+ */
+public class ListenerBeneficiarioAtivo implements ExecutionListener {
+
+    public static final String VARIAVEL_CPF = "beneficiario_cpf";
+
+    private final IndiceBeneficiariosAtivos indice;
+
+    public ListenerBeneficiarioAtivo(IndiceBeneficiariosAtivos indice) {
+        this.indice = indice;
+    }
+
+    @Override
+    public void notify(DelegateExecution execution) {
+        String cpf = normalizar(execution.getVariable(VARIAVEL_CPF));
+        if (cpf == null) {
+            return;
+        }
+        if (EVENTNAME_START.equals(execution.getEventName())) {
+            indice.reservar(cpf, execution.getProcessInstanceId());
+        } else if (EVENTNAME_END.equals(execution.getEventName())) {
+            indice.liberar(cpf, execution.getProcessInstanceId());
+        }
+    }
+
+    /**
+     * CPF so com digitos (null se ausente).
+     */
+    public static String normalizar(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        String cpf = valor.toString().replaceAll("\\D", "");
+        return cpf.isEmpty() ? null : cpf;
+    }
+}
@@ -0,0 +1,37 @@
+package com.operadora.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Entidade: Carga de Trabalho do Navegador
+ * =========================================
+ *
+ * Carga (pacientes ativos) de cada navegador. O NavegadorService de cada
+ * no soma seus deltas de forma assincrona e le o total periodicamente.
+ */
+@Entity
+@Table(name = "NAVEGADOR_CARGA")
+public class CargaNavegador {
+
+    @Id
+    @Column(length = 32)
+    private String navegadorId;
+
+    private int carga;
+
+    private Instant atualizadoEm;
+
+    public String getNavegadorId() { return navegadorId; }
+    public void setNavegadorId(String navegadorId) { this.navegadorId = navegadorId; }
+
+    public int getCarga() { return carga; }
+    public void setCarga(int carga) { this.carga = carga; }
+
+    public Instant getAtualizadoEm() { return atualizadoEm; }
+    public void setAtualizadoEm(Instant atualizadoEm) { this.atualizadoEm = atualizadoEm; }
+}
@@ -0,0 +1,45 @@
+package com.operadora.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.util.Date;
+
+/**
+ * Entidade: Beneficiario com Processo V2 Ativo
+ * =============================================
+ *
+ * Uma linha por CPF com instancia ativa de Process_Coordenacao_Cuidado_V2,
+ * compartilhada por todos os nos do engine. A chave primaria garante no
+ * maximo uma instancia ativa por CPF: a linha e inserida na transacao do
+ * start e removida no fim da instancia (ver IndiceBeneficiariosAtivos).
+ *
+ * A gravacao usa JDBC direto; a entidade mantem o schema (ddl-auto).
+ */
+@Entity
+@Table(name = "INICIO_ATIVO", indexes = {
+    @Index(name = "IDX_INICIO_ATIVO_PROCINST", columnList = "PROCESS_INSTANCE_ID")
+})
+public class InicioAtivo {
+
+    @Id
+    @Column(name = "CPF", length = 20)
+    private String cpf;
+
+    @Column(name = "PROCESS_INSTANCE_ID", length = 64, nullable = false)
+    private String processInstanceId;
+
+    @Column(name = "NO_ENGINE", length = 255)
+    private String noEngine;
+
+    @Column(name = "CRIADO_EM", nullable = false)
+    private Date criadoEm;
+
+    public String getCpf() { return cpf; }
+    public String getProcessInstanceId() { return processInstanceId; }
+    public String getNoEngine() { return noEngine; }
+    public Date getCriadoEm() { return criadoEm; }
+}
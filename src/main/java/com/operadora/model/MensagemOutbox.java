@@ -0,0 +1,122 @@
+package com.operadora.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.Instant;
+
+/**
+ * Entidade: Mensagem WhatsApp na Outbox
+ * ======================================
+ *
+ * Mensagem registrada pelo delegate na mesma transacao da engine e
+ * enviada depois pelo OutboxDispatcherService.
+ *
+ * Ciclo de vida: PENDENTE -> ENVIANDO -> ENVIADA | FALHA
+ * (volta a PENDENTE enquanto houver tentativas).
+ *
+ * Mensagens dos workers de External Task (V1) sao gravadas fora da
+ * transacao da engine; a chave de idempotencia (ID da external task) faz a
+ * retentativa da tarefa reaproveitar a linha em vez de enviar de novo.
+ */
+@Entity
+@Table(name = "WHATSAPP_OUTBOX", indexes = {
+    @Index(name = "IDX_OUTBOX_STATUS", columnList = "status, proximaTentativa")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "UK_OUTBOX_CHAVE", columnNames = "chaveIdempotencia")
+})
+public class MensagemOutbox {
+
+    public static final String PENDENTE = "PENDENTE";
+    public static final String ENVIANDO = "ENVIANDO";
+    public static final String ENVIADA = "ENVIADA";
+    public static final String FALHA = "FALHA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String processInstanceId;
+
+    /** ID da external task que registrou a mensagem (nulo nos delegates). */
+    @Column(length = 64)
+    private String chaveIdempotencia;
+
+    /** Prefixo das variaveis de retorno (ex: boas_vindas -> boas_vindas_enviada). */
+    @Column(length = 64, nullable = false)
+    private String prefixoVariavel;
+
+    @Column(length = 32, nullable = false)
+    private String telefone;
+
+    @Column(length = 4096, nullable = false)
+    private String mensagem;
+
+    @Column(length = 16, nullable = false)
+    private String status;
+
+    private int tentativas;
+
+    @Column(length = 128)
+    private String messageId;
+
+    @Column(length = 1024)
+    private String erro;
+
+    private Instant criadoEm;
+    private Instant proximaTentativa;
+    private Instant bloqueadoAte;
+
+    /** Token da ultima reivindicacao pelo dispatcher. */
+    @Column(length = 36)
+    private String reivindicacao;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getProcessInstanceId() { return processInstanceId; }
+    public void setProcessInstanceId(String processInstanceId) { this.processInstanceId = processInstanceId; }
+
+    public String getChaveIdempotencia() { return chaveIdempotencia; }
+    public void setChaveIdempotencia(String chaveIdempotencia) { this.chaveIdempotencia = chaveIdempotencia; }
+
+    public String getPrefixoVariavel() { return prefixoVariavel; }
+    public void setPrefixoVariavel(String prefixoVariavel) { this.prefixoVariavel = prefixoVariavel; }
+
+    public String getTelefone() { return telefone; }
+    public void setTelefone(String telefone) { this.telefone = telefone; }
+
+    public String getMensagem() { return mensagem; }
+    public void setMensagem(String mensagem) { this.mensagem = mensagem; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getTentativas() { return tentativas; }
+    public void setTentativas(int tentativas) { this.tentativas = tentativas; }
+
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public String getErro() { return erro; }
+    public void setErro(String erro) { this.erro = erro; }
+
+    public Instant getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(Instant criadoEm) { this.criadoEm = criadoEm; }
+
+    public Instant getProximaTentativa() { return proximaTentativa; }
+    public void setProximaTentativa(Instant proximaTentativa) { this.proximaTentativa = proximaTentativa; }
+
+    public Instant getBloqueadoAte() { return bloqueadoAte; }
+    public void setBloqueadoAte(Instant bloqueadoAte) { this.bloqueadoAte = bloqueadoAte; }
+
+    public String getReivindicacao() { return reivindicacao; }
+    public void setReivindicacao(String reivindicacao) { this.reivindicacao = reivindicacao; }
+}
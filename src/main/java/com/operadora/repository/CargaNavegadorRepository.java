@@ -0,0 +1,30 @@
+package com.operadora.repository;
+
+import com.operadora.model.CargaNavegador;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repositorio da carga de trabalho dos navegadores.
+ */
+@Repository
+public interface CargaNavegadorRepository extends JpaRepository<CargaNavegador, String> {
+
+    /**
+     * Soma o delta a carga gravada (sem ficar negativa). Retorna 0 se o
+     * navegador ainda nao tem linha.
+     */
+    @Modifying
+    @Transactional
+    @Query("update CargaNavegador c "
+         + "set c.carga = case when c.carga + :delta < 0 then 0 else c.carga + :delta end, "
+         + "    c.atualizadoEm = :agora "
+         + "where c.navegadorId = :id")
+    int somarCarga(@Param("id") String navegadorId, @Param("delta") int delta, @Param("agora") Instant agora);
+}
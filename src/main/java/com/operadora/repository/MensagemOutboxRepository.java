@@ -0,0 +1,78 @@
+package com.operadora.repository;
+
+import com.operadora.model.MensagemOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio da outbox de mensagens WhatsApp.
+ */
+@Repository
+public interface MensagemOutboxRepository extends JpaRepository<MensagemOutbox, Long> {
+
+    /**
+     * Mensagens prontas para envio: pendentes com tentativa vencida ou
+     * presas em ENVIANDO com bloqueio expirado (no que caiu durante o envio).
+     */
+    @Query("select m from MensagemOutbox m "
+         + "where (m.status = 'PENDENTE' and m.proximaTentativa <= :agora) "
+         + "   or (m.status = 'ENVIANDO' and m.bloqueadoAte < :agora) "
+         + "order by m.id")
+    List<MensagemOutbox> buscarProntas(@Param("agora") Instant agora, Pageable pageable);
+
+    /**
+     * Reivindica o lote para este no, marcando as linhas com o token.
+     * Retorna quantas foram reivindicadas (outro no pode ter levado parte).
+     */
+    @Modifying
+    @Transactional
+    @Query("update MensagemOutbox m set m.status = 'ENVIANDO', m.bloqueadoAte = :ate, m.reivindicacao = :token "
+         + "where m.id in :ids and ((m.status = 'PENDENTE' and m.proximaTentativa <= :agora) "
+         + "   or (m.status = 'ENVIANDO' and m.bloqueadoAte < :agora))")
+    int reivindicar(@Param("ids") Collection<Long> ids, @Param("agora") Instant agora,
+                    @Param("ate") Instant ate, @Param("token") String token);
+
+    /**
+     * Marca como enviada a mensagem ainda reivindicada com o token. Retorna
+     * 0 se o bloqueio expirou e outro no a reivindicou.
+     */
+    @Modifying
+    @Transactional
+    @Query("update MensagemOutbox m set m.status = 'ENVIADA', m.messageId = :messageId, m.erro = null, "
+         + "m.tentativas = m.tentativas + 1 "
+         + "where m.id = :id and m.reivindicacao = :token and m.status = 'ENVIANDO'")
+    int marcarEnviada(@Param("id") Long id, @Param("token") String token, @Param("messageId") String messageId);
+
+    /**
+     * Registra a falha de envio da mensagem ainda reivindicada com o token:
+     * FALHA ao atingir maxTentativas, senao PENDENTE para a proxima tentativa.
+     */
+    @Modifying
+    @Transactional
+    @Query("update MensagemOutbox m set m.tentativas = m.tentativas + 1, m.erro = :erro, "
+         + "m.status = case when m.tentativas + 1 >= :maxTentativas then 'FALHA' else 'PENDENTE' end, "
+         + "m.proximaTentativa = :proxima "
+         + "where m.id = :id and m.reivindicacao = :token and m.status = 'ENVIANDO'")
+    int marcarFalha(@Param("id") Long id, @Param("token") String token, @Param("erro") String erro,
+                    @Param("maxTentativas") int maxTentativas, @Param("proxima") Instant proxima);
+
+    /**
+     * Mensagens reivindicadas com o token.
+     */
+    List<MensagemOutbox> findByReivindicacao(String reivindicacao);
+
+    /**
+     * Mensagem registrada pela external task (chave de idempotencia).
+     */
+    Optional<MensagemOutbox> findByChaveIdempotencia(String chaveIdempotencia);
+}
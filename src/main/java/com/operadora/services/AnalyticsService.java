@@ -1,8 +1,12 @@
 package com.operadora.services;
 
+import com.operadora.analytics.ArmazemDesfechos;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -12,12 +16,19 @@ import java.util.List;
  * ================================
  *
  * Analisa desfechos clinicos e operacionais.
+ *
+ * Cada desfecho e registrado no ArmazemDesfechos (colunar, por dia) apos o
+ * commit da transacao do engine; as metricas agregadas (NPS por nivel de
+ * risco, detratores por navegador) sao consultadas la, e nao no historico.
  */
 @Service
 public class AnalyticsService {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
 
+    @Autowired
+    private ArmazemDesfechos armazem;
+
     /**
      * Analisa desfechos do beneficiario.
      *
@@ -25,11 +36,12 @@ public class AnalyticsService {
      * @param nivelRisco Nivel de risco
      * @param npsScore Score NPS
      * @param jornadaId ID da jornada
+     * @param navegadorId ID do navegador (null se nao houver)
      * @param processId ID do processo
      * @return Resultado da analise
      */
     public DesfechoResult analisarDesfechos(String cpf, String nivelRisco, Integer npsScore,
-                                             String jornadaId, String processId) {
+                                             String jornadaId, String navegadorId, String processId) {
         logger.info("Analisando desfechos para CPF: {}, Risco: {}, NPS: {}", cpf, nivelRisco, npsScore);
 
         DesfechoResult resultado = new DesfechoResult();
@@ -38,12 +50,8 @@ public class AnalyticsService {
         String categoria = classificarDesfecho(npsScore, nivelRisco);
         resultado.setCategoria(categoria);
 
-        // Gera metricas
-        String metricas = String.format(
-            "{\"cpf\":\"%s\",\"nivel_risco\":\"%s\",\"nps\":%d,\"categoria\":\"%s\",\"jornada\":\"%s\",\"processo\":\"%s\"}",
-            cpf, nivelRisco, npsScore, categoria, jornadaId != null ? jornadaId : "N/A", processId
-        );
-        resultado.setMetricasJson(metricas);
+        // Registra no armazem de desfechos
+        registrarAposCommit(nivelRisco, npsScore, categoria, navegadorId);
 
         // Gera recomendacoes
         List<String> recomendacoes = gerarRecomendacoes(categoria, nivelRisco);
@@ -54,6 +62,19 @@ public class AnalyticsService {
         return resultado;
     }
 
+    private void registrarAposCommit(String nivelRisco, int npsScore, String categoria, String navegadorId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            armazem.registrar(nivelRisco, npsScore, categoria, navegadorId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                armazem.registrar(nivelRisco, npsScore, categoria, navegadorId);
+            }
+        });
+    }
+
     private String classificarDesfecho(Integer npsScore, String nivelRisco) {
         if (npsScore >= 9) {
             return "POSITIVO";
@@ -98,15 +119,11 @@ public class AnalyticsService {
      */
     public static class DesfechoResult {
         private String categoria;
-        private String metricasJson;
         private List<String> recomendacoes;
 
         public String getCategoria() { return categoria; }
         public void setCategoria(String categoria) { this.categoria = categoria; }
 
-        public String getMetricasJson() { return metricasJson; }
-        public void setMetricasJson(String metricasJson) { this.metricasJson = metricasJson; }
-
         public List<String> getRecomendacoes() { return recomendacoes; }
         public void setRecomendacoes(List<String> recomendacoes) { this.recomendacoes = recomendacoes; }
     }
@@ -0,0 +1,189 @@
+package com.operadora.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operadora.dmn.AvaliadorDecisoes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Service: Avaliacao de Decisoes em Lote
+ * =======================================
+ *
+ * Avalia uma decisao DMN para cada linha de um corpo NDJSON, em streaming:
+ *
+ * - Le as linhas em blocos e avalia cada bloco num ForkJoinPool
+ * - Limita os blocos em processamento (backpressure sobre a leitura)
+ * - Escreve os blocos na ordem de entrada: a linha N da resposta e o
+ *   resultado da linha N do corpo
+ * - Memoria limitada a max-blocos-em-voo * tamanho-bloco linhas
+ *
+ * Entrada (uma linha por avaliacao):  {"tipo_demanda":"TAREFA","urgencia":"ROTINA",...}
+ * Saida:   {"resultado":{...}}  |  {"resultado":null} (nenhuma regra)  |  {"erro":"..."}
+ *
+ * A avaliacao usa a tabela compilada (AvaliadorDecisoes) ou o DMN engine
+ * standalone, sem historico de decisao.
+ *
+ * O log de cada lote registra avaliacoes/s; o custo por avaliacao esta em
+ * TabelaCompiladaBenchmark (src/test).
+ */
+@Service
+public class AvaliacaoLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaliacaoLoteService.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {};
+    private static final byte[] NOVA_LINHA = {'\n'};
+
+    @Autowired
+    private AvaliadorDecisoes avaliadorDecisoes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${dmn.lote.tamanho-bloco:2000}")
+    private int tamanhoBloco;
+
+    @Value("${dmn.lote.paralelismo:0}")
+    private int paralelismo;
+
+    @Value("${dmn.lote.max-blocos-em-voo:0}")
+    private int maxBlocosEmVoo;
+
+    private ForkJoinPool pool;
+    private Counter contadorAvaliacoes;
+    private Counter contadorErros;
+
+    @PostConstruct
+    void init() {
+        int threads = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        if (maxBlocosEmVoo <= 0) {
+            maxBlocosEmVoo = threads * 2;
+        }
+        contadorAvaliacoes = meterRegistry.counter("dmn.lote.avaliacoes", "resultado", "sucesso");
+        contadorErros = meterRegistry.counter("dmn.lote.avaliacoes", "resultado", "erro");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Prepara a avaliacao da ultima versao da decisao.
+     *
+     * @throws IllegalArgumentException se a decisao nao existir
+     */
+    public Function<Map<String, Object>, Map<String, Object>> preparar(String decisionKey) {
+        return avaliadorDecisoes.avaliadorLote(decisionKey);
+    }
+
+    /**
+     * Avalia as linhas NDJSON de entrada e escreve os resultados em saida.
+     *
+     * @return Numero de linhas avaliadas
+     */
+    public long avaliar(String decisionKey, Function<Map<String, Object>, Map<String, Object>> avaliador,
+                        InputStream entrada, OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        long linhas = 0;
+        Deque<Future<byte[]>> emVoo = new ArrayDeque<>(maxBlocosEmVoo);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            List<String> bloco = new ArrayList<>(tamanhoBloco);
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                bloco.add(linha);
+                linhas++;
+                if (bloco.size() == tamanhoBloco) {
+                    submeter(bloco, avaliador, emVoo, saida);
+                    bloco = new ArrayList<>(tamanhoBloco);
+                }
+            }
+            if (!bloco.isEmpty()) {
+                submeter(bloco, avaliador, emVoo, saida);
+            }
+            while (!emVoo.isEmpty()) {
+                escrever(emVoo.poll(), saida);
+            }
+            saida.flush();
+        } finally {
+            emVoo.forEach(f -> f.cancel(true));
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        logger.info("Avaliacao em lote - Decisao: {}, Linhas: {}, {} /s",
+                    decisionKey, linhas, String.format("%.0f", segundos > 0 ? linhas / segundos : 0));
+        return linhas;
+    }
+
+    private void submeter(List<String> bloco, Function<Map<String, Object>, Map<String, Object>> avaliador,
+                          Deque<Future<byte[]>> emVoo, OutputStream saida) throws IOException {
+        if (emVoo.size() >= maxBlocosEmVoo) {
+            escrever(emVoo.poll(), saida);
+        }
+        emVoo.add(pool.submit(() -> processarBloco(bloco, avaliador)));
+    }
+
+    private void escrever(Future<byte[]> bloco, OutputStream saida) throws IOException {
+        try {
+            saida.write(bloco.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Avaliacao em lote interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha na avaliacao em lote: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private byte[] processarBloco(List<String> bloco, Function<Map<String, Object>, Map<String, Object>> avaliador)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bloco.size() * 96);
+        int erros = 0;
+        for (String linha : bloco) {
+            Map<String, Object> saida;
+            try {
+                Map<String, Object> resultado = avaliador.apply(JSON.readValue(linha, MAPA));
+                saida = Collections.singletonMap("resultado", resultado);
+            } catch (Exception e) {
+                erros++;
+                saida = Collections.singletonMap("erro", e.getMessage());
+            }
+            buffer.write(JSON.writeValueAsBytes(saida));
+            buffer.write(NOVA_LINHA);
+        }
+        contadorAvaliacoes.increment(bloco.size() - erros);
+        contadorErros.increment(erros);
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+package com.operadora.services;
+
+import com.operadora.support.MicroBatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service: Fila de Envio WhatsApp
+ * ================================
+ *
+ * Fila de saida que agrupa mensagens de varias instancias de processo
+ * e as envia em uma unica chamada a API (micro-batching).
+ *
+ * O lote e enviado quando a janela (padrao 50 ms) expira ou quando
+ * atinge o tamanho maximo (padrao 100 mensagens).
+ */
+@Service
+public class FilaWhatsAppService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilaWhatsAppService.class);
+
+    @Autowired
+    private WhatsAppService whatsAppService;
+
+    @Value("${whatsapp.fila.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${whatsapp.fila.janela-ms:50}")
+    private long janelaMs;
+
+    @Value("${whatsapp.fila.max-pendentes:100000}")
+    private int maxPendentes;
+
+    private MicroBatcher<WhatsAppService.Mensagem, WhatsAppService.SendResult> batcher;
+
+    @PostConstruct
+    void init() {
+        batcher = new MicroBatcher<>("whatsapp", tamanhoLote, Duration.ofMillis(janelaMs), maxPendentes,
+                                     whatsAppService::enviarLoteAsync);
+        logger.info("Fila WhatsApp configurada - Lote: {}, Janela: {} ms", tamanhoLote, janelaMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batcher.close();
+    }
+
+    /**
+     * Enfileira mensagem para o proximo lote.
+     *
+     * @param telefone Numero do telefone (formato: 5511999999999)
+     * @param mensagem Texto da mensagem
+     * @return Futuro com o resultado do envio (nunca completa com excecao)
+     */
+    public CompletableFuture<WhatsAppService.SendResult> enfileirar(String telefone, String mensagem) {
+        return batcher.submeter(new WhatsAppService.Mensagem(telefone, mensagem))
+            .exceptionally(e -> new WhatsAppService.SendResult(false, null, e.getMessage()));
+    }
+
+    /**
+     * Enfileira mensagem sem aguardar o resultado; falhas apenas sao logadas.
+     *
+     * @param telefone Numero do telefone
+     * @param mensagem Texto da mensagem
+     */
+    public void enfileirarSemRetorno(String telefone, String mensagem) {
+        enfileirar(telefone, mensagem).thenAccept(resultado -> {
+            if (!resultado.isSuccess()) {
+                logger.error("Falha no envio WhatsApp para {}: {}", telefone, resultado.getError());
+            }
+        });
+    }
+}
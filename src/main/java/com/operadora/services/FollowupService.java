@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * Service: Follow-up
  * ===================
@@ -17,7 +19,10 @@ public class FollowupService {
     private static final Logger logger = LoggerFactory.getLogger(FollowupService.class);
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private FilaWhatsAppService filaWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
 
     /**
      * Realiza follow-up com o beneficiario.
@@ -32,13 +37,9 @@ public class FollowupService {
         logger.info("Realizando follow-up para: {} ({})", nome, cpf);
 
         // Envia mensagem de follow-up
-        String mensagem = String.format(
-            "Ola %s! Como voce esta se sentindo apos seu atendimento? " +
-            "Responda de 1 a 5, sendo 5 muito satisfeito.",
-            nome
-        );
+        String mensagem = templates.renderizar("followup.pesquisa", Map.of("nome", nome));
 
-        whatsAppService.enviarMensagem(telefone, mensagem);
+        filaWhatsApp.enfileirarSemRetorno(telefone, mensagem);
 
         // MOCK: Em producao, aguardar resposta ou usar formulario
         FollowupResult resultado = new FollowupResult();
@@ -0,0 +1,303 @@
+package com.operadora.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operadora.idempotencia.BeneficiarioJaAtivoException;
+import com.operadora.idempotencia.IndiceBeneficiariosAtivos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.camunda.bpm.engine.RuntimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service: Inicio em Lote do Processo V2
+ * =======================================
+ *
+ * Inicia Process_Coordenacao_Cuidado_V2 para um arquivo diario de novos
+ * beneficiarios (NDJSON, um beneficiario por linha):
+ *
+ * - Le em streaming e descarta CPFs repetidos no proprio lote
+ * - Agrupa os beneficiarios em blocos; cada bloco e iniciado numa unica
+ *   transacao (um commit por bloco em vez de um por instancia)
+ * - Blocos em paralelo num pool fixo, com limite de blocos em voo
+ *   (backpressure sobre a leitura)
+ * - Bloco que falha e refeito um a um, isolando as linhas com erro
+ * - Com idempotencia.enabled, CPFs com instancia ativa sao descartados
+ *   antes do start (IndiceBeneficiariosAtivos) e contados em jaAtivos
+ *
+ * Linha de entrada: variaveis de inicio do processo, com beneficiario_cpf
+ * obrigatorio. Business key: BEN-{cpf}.
+ *   {"beneficiario_cpf":"12345678900","beneficiario_nome":"Maria","beneficiario_telefone":"11999999999","idade":67}
+ */
+@Service
+public class InicioLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InicioLoteService.class);
+
+    public static final String PROCESSO_V2 = "Process_Coordenacao_Cuidado_V2";
+    public static final String PREFIXO_BUSINESS_KEY = "BEN-";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {};
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectProvider<IndiceBeneficiariosAtivos> indiceAtivos;
+
+    @Value("${onboarding.lote.tamanho-bloco:200}")
+    private int tamanhoBloco;
+
+    @Value("${onboarding.lote.paralelismo:8}")
+    private int paralelismo;
+
+    @Value("${onboarding.lote.max-blocos-em-voo:16}")
+    private int maxBlocosEmVoo;
+
+    private ExecutorService pool;
+    private TransactionTemplate transacao;
+    private Counter contadorIniciados;
+    private Counter contadorDuplicados;
+    private Counter contadorErros;
+    private Counter contadorJaAtivos;
+
+    @PostConstruct
+    void init() {
+        pool = Executors.newFixedThreadPool(paralelismo, r -> {
+            Thread t = new Thread(r, "inicio-lote");
+            t.setDaemon(true);
+            return t;
+        });
+        transacao = new TransactionTemplate(transactionManager);
+
+        contadorIniciados = meterRegistry.counter("onboarding.lote.beneficiarios", "resultado", "iniciado");
+        contadorDuplicados = meterRegistry.counter("onboarding.lote.beneficiarios", "resultado", "duplicado");
+        contadorErros = meterRegistry.counter("onboarding.lote.beneficiarios", "resultado", "erro");
+        contadorJaAtivos = meterRegistry.counter("onboarding.lote.beneficiarios", "resultado", "ja_ativo");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Inicia as instancias das linhas NDJSON de entrada.
+     *
+     * @return Resumo da execucao (concluida)
+     */
+    public Resumo iniciar(InputStream entrada) throws IOException, InterruptedException {
+        Resumo resumo = new Resumo();
+        Set<String> vistos = new HashSet<>();
+        Semaphore blocosEmVoo = new Semaphore(maxBlocosEmVoo);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            List<Beneficiario> bloco = new ArrayList<>(tamanhoBloco);
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                resumo.recebidos.incrementAndGet();
+
+                Beneficiario beneficiario;
+                try {
+                    beneficiario = Beneficiario.de(JSON.readValue(linha, MAPA));
+                } catch (Exception e) {
+                    resumo.erro("Linha invalida: " + e.getMessage());
+                    contadorErros.increment();
+                    continue;
+                }
+                if (!vistos.add(beneficiario.cpf)) {
+                    resumo.duplicados.incrementAndGet();
+                    contadorDuplicados.increment();
+                    continue;
+                }
+
+                bloco.add(beneficiario);
+                if (bloco.size() == tamanhoBloco) {
+                    submeterBloco(bloco, resumo, blocosEmVoo);
+                    bloco = new ArrayList<>(tamanhoBloco);
+                }
+            }
+            if (!bloco.isEmpty()) {
+                submeterBloco(bloco, resumo, blocosEmVoo);
+            }
+        } finally {
+            // Aguarda os blocos ja submetidos
+            blocosEmVoo.acquire(maxBlocosEmVoo);
+            resumo.concluir();
+        }
+
+        logger.info("Inicio em lote concluido - Recebidos: {}, Iniciados: {}, Duplicados: {}, Ja ativos: {}, Erros: {}, {} /s",
+                    resumo.getRecebidos(), resumo.getIniciados(), resumo.getDuplicados(), resumo.getJaAtivos(),
+                    resumo.getErros(), String.format("%.0f", resumo.getInstanciasPorSegundo()));
+        return resumo;
+    }
+
+    private void submeterBloco(List<Beneficiario> bloco, Resumo resumo, Semaphore blocosEmVoo)
+            throws InterruptedException {
+        blocosEmVoo.acquire();
+        pool.execute(() -> {
+            try {
+                iniciarBloco(bloco, resumo);
+            } finally {
+                blocosEmVoo.release();
+            }
+        });
+    }
+
+    private void iniciarBloco(List<Beneficiario> bloco, Resumo resumo) {
+        IndiceBeneficiariosAtivos indice = indiceAtivos.getIfAvailable();
+        if (indice != null) {
+            Set<String> ativos = indice.ativos(bloco.stream().map(b -> b.cpf).toList());
+            if (!ativos.isEmpty()) {
+                bloco = bloco.stream().filter(b -> !ativos.contains(b.cpf)).toList();
+                resumo.jaAtivos.addAndGet(ativos.size());
+                contadorJaAtivos.increment(ativos.size());
+            }
+            if (bloco.isEmpty()) {
+                return;
+            }
+        }
+        List<Beneficiario> novos = bloco;
+
+        try {
+            transacao.executeWithoutResult(status -> novos.forEach(this::iniciarInstancia));
+            resumo.iniciados.addAndGet(novos.size());
+            contadorIniciados.increment(novos.size());
+            return;
+        } catch (Exception e) {
+            logger.warn("Inicio em lote: bloco de {} falhou, refazendo um a um: {}", novos.size(), e.getMessage());
+        }
+
+        for (Beneficiario beneficiario : novos) {
+            try {
+                transacao.executeWithoutResult(status -> iniciarInstancia(beneficiario));
+                resumo.iniciados.incrementAndGet();
+                contadorIniciados.increment();
+            } catch (Exception e) {
+                if (BeneficiarioJaAtivoException.causa(e)) {
+                    // Iniciado por outro no/requisicao entre a checagem e o start
+                    resumo.jaAtivos.incrementAndGet();
+                    contadorJaAtivos.increment();
+                    continue;
+                }
+                resumo.erro("CPF " + beneficiario.cpf + ": " + e.getMessage());
+                contadorErros.increment();
+            }
+        }
+    }
+
+    private void iniciarInstancia(Beneficiario beneficiario) {
+        runtimeService.createProcessInstanceByKey(PROCESSO_V2)
+            .businessKey(PREFIXO_BUSINESS_KEY + beneficiario.cpf)
+            .setVariables(beneficiario.variaveis)
+            .execute();
+    }
+
+    /**
+     * Beneficiario de uma linha do lote.
+     */
+    static final class Beneficiario {
+        final String cpf;
+        final Map<String, Object> variaveis;
+
+        private Beneficiario(String cpf, Map<String, Object> variaveis) {
+            this.cpf = cpf;
+            this.variaveis = variaveis;
+        }
+
+        static Beneficiario de(Map<String, Object> linha) throws IOException {
+            Object cpfBruto = linha.get("beneficiario_cpf");
+            String cpf = cpfBruto == null ? "" : cpfBruto.toString().replaceAll("\\D", "");
+            if (cpf.isEmpty()) {
+                throw new IllegalArgumentException("beneficiario_cpf ausente");
+            }
+
+            Map<String, Object> variaveis = new HashMap<>();
+            for (Map.Entry<String, Object> e : linha.entrySet()) {
+                Object valor = e.getValue();
+                // Objetos e listas vao como texto JSON
+                variaveis.put(e.getKey(), valor instanceof Map || valor instanceof List
+                    ? JSON.writeValueAsString(valor) : valor);
+            }
+            variaveis.put("beneficiario_cpf", cpf);
+            return new Beneficiario(cpf, variaveis);
+        }
+    }
+
+    /**
+     * Resumo de uma execucao de inicio em lote.
+     */
+    public static class Resumo {
+        private final Instant inicio = Instant.now();
+        private final AtomicLong recebidos = new AtomicLong();
+        private final AtomicLong iniciados = new AtomicLong();
+        private final AtomicLong duplicados = new AtomicLong();
+        private final AtomicLong jaAtivos = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+        private final List<String> amostraErros = Collections.synchronizedList(new ArrayList<>());
+        private volatile Instant fim;
+
+        void erro(String mensagem) {
+            erros.incrementAndGet();
+            if (amostraErros.size() < 20) {
+                amostraErros.add(mensagem);
+            }
+        }
+
+        void concluir() {
+            this.fim = Instant.now();
+        }
+
+        public Instant getInicio() { return inicio; }
+        public Instant getFim() { return fim; }
+        public long getRecebidos() { return recebidos.get(); }
+        public long getIniciados() { return iniciados.get(); }
+        public long getDuplicados() { return duplicados.get(); }
+        public long getJaAtivos() { return jaAtivos.get(); }
+        public long getErros() { return erros.get(); }
+        public List<String> getAmostraErros() { return amostraErros; }
+
+        public double getInstanciasPorSegundo() {
+            long ms = Duration.between(inicio, fim != null ? fim : Instant.now()).toMillis();
+            return ms > 0 ? iniciados.get() * 1000.0 / ms : 0.0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.operadora.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.operadora.support.MicroBatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Service: Cliente do Modelo de Risco (XGBoost)
+ * ==============================================
+ *
+ * Cliente HTTP do endpoint /predict do modelo de estratificacao.
+ *
+ * Requisicoes concorrentes de varias instancias de processo sao agrupadas
+ * (micro-batching) em uma unica chamada vetorizada:
+ *
+ *   POST {ml.api.url}/predict
+ *   {"instances": [[screening, idade, cronico, imc, fumante], ...]}
+ *   -> {"predictions": [0.42, ...], "model_version": "2024-06-01"}
+ *
+ * model_version e opcional; quando muda, o observador registrado
+ * (MLService) e avisado para descartar as predicoes em cache.
+ *
+ * Com ml.api.batch.enabled=false cada requisicao e enviada sozinha.
+ */
+@Service
+public class MLScoringClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(MLScoringClient.class);
+
+    @Value("${ml.api.url:http://localhost:5000}")
+    private String mlApiUrl;
+
+    @Value("${ml.api.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${ml.api.pool.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${ml.api.pool.pending-acquire-max:1000}")
+    private int pendingAcquireMax;
+
+    @Value("${ml.api.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${ml.api.batch.tamanho-lote:64}")
+    private int tamanhoLote;
+
+    @Value("${ml.api.batch.janela-ms:5}")
+    private long janelaMs;
+
+    @Value("${ml.api.batch.max-pendentes:10000}")
+    private int maxPendentes;
+
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+    private MicroBatcher<double[], Double> batcher;
+    private volatile String versaoModelo;
+    private volatile Consumer<String> observadorVersao = versao -> { };
+
+    @PostConstruct
+    void init() {
+        connectionProvider = ConnectionProvider.builder("ml-api")
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMax)
+            .pendingAcquireTimeout(Duration.ofMillis(timeoutMs))
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .responseTimeout(Duration.ofMillis(timeoutMs))
+            .keepAlive(true);
+
+        webClient = WebClient.builder()
+            .baseUrl(mlApiUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .build();
+
+        if (batchEnabled) {
+            batcher = new MicroBatcher<>("ml-predict", tamanhoLote, Duration.ofMillis(janelaMs),
+                                         maxPendentes, this::prever);
+        }
+
+        logger.info("Cliente ML configurado - URL: {}, Batch: {}, Lote: {}, Janela: {} ms",
+                    mlApiUrl, batchEnabled, tamanhoLote, janelaMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Solicita o score de risco de um vetor de features.
+     *
+     * @param features [screening_score, idade, tem_doenca_cronica, imc, fumante]
+     * @return Futuro com o score (0.0 a 1.0)
+     */
+    public CompletableFuture<Double> score(double[] features) {
+        if (batcher != null) {
+            return batcher.submeter(features);
+        }
+        return prever(List.of(features)).thenApply(scores -> scores.get(0));
+    }
+
+    /**
+     * Registra quem deve ser avisado quando o /predict informar outra
+     * versao do modelo.
+     */
+    public void observarVersao(Consumer<String> observador) {
+        this.observadorVersao = observador;
+    }
+
+    /**
+     * Ultima versao informada pelo /predict (null se o endpoint nao informa).
+     */
+    public String getVersaoModelo() {
+        return versaoModelo;
+    }
+
+    /**
+     * Tempo maximo de espera por um score.
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    private CompletableFuture<List<Double>> prever(List<double[]> instancias) {
+        return webClient.post()
+            .uri("/predict")
+            .bodyValue(Map.of("instances", instancias))
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(Duration.ofMillis(timeoutMs))
+            .map(resposta -> toScores(resposta, instancias.size()))
+            .toFuture();
+    }
+
+    private List<Double> toScores(JsonNode resposta, int esperado) {
+        JsonNode versao = resposta.path("model_version");
+        if (versao.isTextual() && !versao.asText().equals(versaoModelo)) {
+            versaoModelo = versao.asText();
+            observadorVersao.accept(versaoModelo);
+        }
+
+        JsonNode predictions = resposta.path("predictions");
+        if (!predictions.isArray() || predictions.size() != esperado) {
+            throw new IllegalStateException("Resposta /predict invalida: esperado " + esperado
+                + " predicoes, recebido " + predictions.size());
+        }
+        List<Double> scores = new ArrayList<>(esperado);
+        for (JsonNode p : predictions) {
+            scores.add(p.asDouble());
+        }
+        return scores;
+    }
+}
@@ -1,12 +1,26 @@
 package com.operadora.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.operadora.support.ModeloXGBoost;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service: Machine Learning - Estratificacao de Risco
@@ -14,6 +28,25 @@ import java.util.List;
  *
  * Integracao com modelo XGBoost para estratificacao de risco.
  * Classifica na Piramide Kaiser: BAIXO, MODERADO, ALTO, COMPLEXO.
+ *
+ * Modos de calculo do score (ver getModoAtivo):
+ * - EMBARCADO: ml.model.path aponta para um dump JSON do XGBoost, avaliado
+ *   em memoria (ModeloXGBoost) em microssegundos
+ * - REMOTO: ml.api.enabled=true, score vem do endpoint /predict
+ *   (MLScoringClient, com pool de conexoes e micro-batching)
+ * - REGRAS: regras simplificadas locais (mock)
+ *
+ * Timeouts e falhas viram MLServiceException, mantendo o caminho
+ * Boundary_ErroML do processo.
+ *
+ * Resultados ficam em cache (Caffeine, W-TinyLFU com limite de tamanho e TTL)
+ * pela chave (versao do modelo, features normalizadas). O IMC e arredondado
+ * para uma casa decimal antes do calculo, entao beneficiarios com o mesmo
+ * perfil compartilham a mesma predicao. Metricas: cache.* com cache=ml.risco.
+ * No modo REMOTO a versao vem do model_version da resposta do /predict: ao
+ * mudar, o cache e descartado. A re-estratificacao descarta o cache no
+ * inicio da execucao (invalidarCache) e depois o usa normalmente: perfis
+ * repetidos na base sao pontuados uma unica vez.
  */
 @Service
 public class MLService {
@@ -23,6 +56,110 @@ public class MLService {
     @Value("${ml.api.url:http://localhost:5000}")
     private String mlApiUrl;
 
+    @Value("${ml.api.enabled:false}")
+    private boolean mlApiEnabled;
+
+    @Value("${ml.model.path:}")
+    private String modelPath;
+
+    @Value("${ml.model.base-score:0.5}")
+    private double modelBaseScore;
+
+    @Value("${ml.model.version:v1}")
+    private String modelVersion;
+
+    @Value("${ml.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    @Value("${ml.cache.ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    @Autowired
+    private MLScoringClient scoringClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public static final String MODO_EMBARCADO = "EMBARCADO";
+    public static final String MODO_REMOTO = "REMOTO";
+    public static final String MODO_REGRAS = "REGRAS";
+
+    /** Ordem das features no vetor de entrada do modelo. */
+    public static final List<String> FEATURES = List.of(
+        "screening_score", "idade", "tem_doenca_cronica", "imc", "fumante");
+
+    private static final ThreadLocal<double[]> FEATURES_BUFFER = ThreadLocal.withInitial(() -> new double[5]);
+
+    private static final String[] FATORES = montarFatores();
+
+    private ModeloXGBoost modeloEmbarcado;
+    private String modoAtivo;
+    private volatile String versaoAtiva;
+    private Cache<ChaveRisco, RiskResult> cache;
+
+    @PostConstruct
+    void init() throws IOException {
+        cache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ml.risco");
+
+        versaoAtiva = modelVersion;
+        if (modelPath != null && !modelPath.isBlank()) {
+            Path arquivo = Path.of(modelPath);
+            try (InputStream in = Files.newInputStream(arquivo)) {
+                modeloEmbarcado = ModeloXGBoost.carregar(in, FEATURES, modelBaseScore);
+            }
+            versaoAtiva = modelVersion + "@" + Files.getLastModifiedTime(arquivo).toMillis();
+            modoAtivo = MODO_EMBARCADO;
+            logger.info("Modelo ML embarcado carregado - Arquivo: {}, Arvores: {}, Nos: {}",
+                        modelPath, modeloEmbarcado.getNumArvores(), modeloEmbarcado.getNumNos());
+        } else if (mlApiEnabled) {
+            modoAtivo = MODO_REMOTO;
+            scoringClient.observarVersao(this::atualizarVersaoModelo);
+        } else {
+            modoAtivo = MODO_REGRAS;
+        }
+        logger.info("MLService - Modo ativo: {}, Versao modelo: {}", modoAtivo, versaoAtiva);
+    }
+
+    /**
+     * Registra nova versao do modelo, descartando predicoes em cache.
+     *
+     * Chamado pelo MLScoringClient quando o /predict informa outra versao
+     * (modelo remoto republicado). A versao tambem faz parte
+     * da chave, entao predicoes em voo da versao anterior nao sao reaproveitadas.
+     *
+     * @param novaVersao Identificador da nova versao
+     */
+    public synchronized void atualizarVersaoModelo(String novaVersao) {
+        if (!novaVersao.equals(versaoAtiva)) {
+            logger.info("Versao do modelo ML alterada: {} -> {} - invalidando cache", versaoAtiva, novaVersao);
+            versaoAtiva = novaVersao;
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Descarta todas as predicoes em cache (inicio da re-estratificacao).
+     */
+    public void invalidarCache() {
+        cache.invalidateAll();
+    }
+
+    public String getVersaoModelo() {
+        return versaoAtiva;
+    }
+
+    /**
+     * Modo de calculo em uso: EMBARCADO, REMOTO ou REGRAS.
+     */
+    public String getModoAtivo() {
+        return modoAtivo;
+    }
+
     /**
      * Calcula risco do beneficiario usando modelo ML.
      *
@@ -38,35 +175,74 @@ public class MLService {
                                      Boolean temDoencaCronica, Double imc, Boolean fumante)
             throws MLServiceException {
 
-        logger.info("Calculando risco - Score: {}, Idade: {}, Cronico: {}, IMC: {}, Fumante: {}",
+        logger.debug("Calculando risco - Score: {}, Idade: {}, Cronico: {}, IMC: {}, Fumante: {}",
                     screeningScore, idade, temDoencaCronica, imc, fumante);
 
-        try {
-            // MOCK: Em producao, chamar API do modelo ML
-            // Simula predicao baseada em regras simplificadas
+        // Normaliza o IMC para aumentar o reaproveitamento do cache
+        imc = Math.round(imc * 10.0) / 10.0;
+
+        ChaveRisco chave = new ChaveRisco(versaoAtiva, screeningScore, idade, temDoencaCronica, imc, fumante);
+        RiskResult emCache = cache.getIfPresent(chave);
+        if (emCache != null) {
+            logger.debug("Risco obtido do cache - Nivel: {}", emCache.getNivelRisco());
+            return emCache.copia();
+        }
 
-            double scoreRisco = calcularScoreRisco(screeningScore, idade, temDoencaCronica, imc, fumante);
+        try {
+            double scoreRisco = calcularScore(screeningScore, idade, temDoencaCronica, imc, fumante);
             String nivelRisco = classificarNivel(scoreRisco);
             double probInternacao = scoreRisco * 0.3; // Estimativa simplificada
 
-            List<String> fatores = identificarFatores(idade, temDoencaCronica, imc, fumante);
-
             RiskResult resultado = new RiskResult();
             resultado.setNivelRisco(nivelRisco);
             resultado.setScoreRisco(scoreRisco);
             resultado.setProbabilidadeInternacao(probInternacao);
-            resultado.setFatoresRisco(String.join(", ", fatores));
+            resultado.setFatoresRisco(identificarFatores(idade, temDoencaCronica, imc, fumante));
 
-            logger.info("Risco calculado - Nivel: {}, Score: {:.2f}", nivelRisco, scoreRisco);
+            logger.debug("Risco calculado - Nivel: {}, Score: {:.2f}", nivelRisco, scoreRisco);
 
+            cache.put(chave, resultado.copia());
             return resultado;
 
+        } catch (TimeoutException e) {
+            logger.error("Timeout ao calcular risco apos {} ms", scoringClient.getTimeoutMs());
+            throw new MLServiceException("Timeout no calculo de risco", e);
+
         } catch (Exception e) {
             logger.error("Erro ao calcular risco: {}", e.getMessage());
             throw new MLServiceException("Falha no calculo de risco: " + e.getMessage(), e);
         }
     }
 
+    private double calcularScore(Integer screeningScore, Integer idade,
+                                 Boolean temDoencaCronica, Double imc, Boolean fumante) throws Exception {
+        switch (modoAtivo) {
+            case MODO_EMBARCADO: {
+                double[] features = FEATURES_BUFFER.get();
+                preencherFeatures(features, screeningScore, idade, temDoencaCronica, imc, fumante);
+                return modeloEmbarcado.prever(features);
+            }
+            case MODO_REMOTO: {
+                // O vetor vai para o lote HTTP, entao nao pode ser reutilizado
+                double[] features = new double[FEATURES.size()];
+                preencherFeatures(features, screeningScore, idade, temDoencaCronica, imc, fumante);
+                double score = scoringClient.score(features).get(scoringClient.getTimeoutMs(), TimeUnit.MILLISECONDS);
+                return Math.min(1.0, Math.max(0.0, score));
+            }
+            default:
+                return calcularScoreRisco(screeningScore, idade, temDoencaCronica, imc, fumante);
+        }
+    }
+
+    private void preencherFeatures(double[] features, Integer screeningScore, Integer idade,
+                                   Boolean temDoencaCronica, Double imc, Boolean fumante) {
+        features[0] = screeningScore;
+        features[1] = idade;
+        features[2] = temDoencaCronica ? 1.0 : 0.0;
+        features[3] = imc;
+        features[4] = fumante ? 1.0 : 0.0;
+    }
+
     private double calcularScoreRisco(Integer screeningScore, Integer idade,
                                        Boolean temDoencaCronica, Double imc, Boolean fumante) {
         double score = 0.0;
@@ -101,18 +277,39 @@ public class MLService {
         return "BAIXO";                            // 50%
     }
 
-    private List<String> identificarFatores(Integer idade, Boolean temDoencaCronica,
-                                             Double imc, Boolean fumante) {
-        List<String> fatores = new ArrayList<>();
-
-        if (idade > 65) fatores.add("IDADE_AVANCADA");
-        if (temDoencaCronica) fatores.add("DOENCA_CRONICA");
-        if (imc > 30) fatores.add("OBESIDADE");
-        if (fumante) fatores.add("TABAGISMO");
+    private String identificarFatores(Integer idade, Boolean temDoencaCronica,
+                                      Double imc, Boolean fumante) {
+        int indice = (idade > 65 ? 1 : 0)
+                   | (temDoencaCronica ? 2 : 0)
+                   | (imc > 30 ? 4 : 0)
+                   | (fumante ? 8 : 0);
+        return FATORES[indice];
+    }
 
-        if (fatores.isEmpty()) fatores.add("NENHUM_FATOR_IDENTIFICADO");
+    /**
+     * Texto dos fatores para cada combinacao (bit 0: idade, 1: cronico,
+     * 2: obesidade, 3: tabagismo), montado uma unica vez.
+     */
+    private static String[] montarFatores() {
+        String[] nomes = {"IDADE_AVANCADA", "DOENCA_CRONICA", "OBESIDADE", "TABAGISMO"};
+        String[] textos = new String[1 << nomes.length];
+        for (int combinacao = 0; combinacao < textos.length; combinacao++) {
+            List<String> fatores = new ArrayList<>();
+            for (int bit = 0; bit < nomes.length; bit++) {
+                if ((combinacao & (1 << bit)) != 0) {
+                    fatores.add(nomes[bit]);
+                }
+            }
+            textos[combinacao] = fatores.isEmpty() ? "NENHUM_FATOR_IDENTIFICADO" : String.join(", ", fatores);
+        }
+        return textos;
+    }
 
-        return fatores;
+    /**
+     * Chave do cache: versao do modelo + features normalizadas.
+     */
+    private record ChaveRisco(String versao, int screeningScore, int idade,
+                              boolean temDoencaCronica, double imc, boolean fumante) {
     }
 
     /**
@@ -137,6 +334,15 @@ public class MLService {
 
         public String getFatoresRisco() { return fatoresRisco; }
         public void setFatoresRisco(String fatoresRisco) { this.fatoresRisco = fatoresRisco; }
+
+        RiskResult copia() {
+            RiskResult copia = new RiskResult();
+            copia.nivelRisco = nivelRisco;
+            copia.scoreRisco = scoreRisco;
+            copia.probabilidadeInternacao = probabilidadeInternacao;
+            copia.fatoresRisco = fatoresRisco;
+            return copia;
+        }
     }
 
     /**
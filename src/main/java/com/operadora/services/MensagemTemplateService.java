@@ -0,0 +1,180 @@
+package com.operadora.services;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service: Templates de Mensagens
+ * ================================
+ *
+ * Registro de templates pre-compilados para mensagens WhatsApp.
+ *
+ * Cada template e compilado uma unica vez em uma lista de segmentos
+ * (literal + placeholder nomeado). A renderizacao apenas concatena os
+ * segmentos em um StringBuilder reutilizado por thread, sem parsing
+ * de formato a cada chamada como String.format.
+ *
+ * Templates ficam em classpath:mensagens/whatsapp_<locale>.properties.
+ * A busca por locale segue: locale completo (pt_BR) -> idioma (pt) -> padrao.
+ */
+@Service
+public class MensagemTemplateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MensagemTemplateService.class);
+
+    private static final String PADRAO = "pt_BR";
+    private static final String PADRAO_RECURSOS = "classpath*:mensagens/whatsapp_*.properties";
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /** locale -> (chave -> template compilado) */
+    private final Map<String, Map<String, Template>> templates = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        Resource[] recursos = new PathMatchingResourcePatternResolver().getResources(PADRAO_RECURSOS);
+        for (Resource recurso : recursos) {
+            String arquivo = recurso.getFilename();
+            String locale = arquivo.substring("whatsapp_".length(), arquivo.length() - ".properties".length());
+
+            Properties props = new Properties();
+            try (InputStream in = recurso.getInputStream()) {
+                props.load(in);
+            }
+            for (String chave : props.stringPropertyNames()) {
+                registrar(chave, locale, props.getProperty(chave));
+            }
+        }
+        logger.info("Templates de mensagens carregados - Locales: {}", templates.keySet());
+    }
+
+    /**
+     * Registra (ou substitui) um template, compilando-o.
+     *
+     * @param chave Chave do template (ex: boas_vindas)
+     * @param locale Locale no formato pt_BR
+     * @param texto Texto com placeholders {nome}
+     */
+    public void registrar(String chave, String locale, String texto) {
+        templates.computeIfAbsent(locale, l -> new ConcurrentHashMap<>()).put(chave, Template.compilar(texto));
+    }
+
+    /**
+     * Verifica se existe template para a chave no locale padrao.
+     */
+    public boolean existe(String chave) {
+        return buscar(chave, PADRAO) != null;
+    }
+
+    /**
+     * Renderiza template no locale padrao.
+     *
+     * @param chave Chave do template
+     * @param valores Valores dos placeholders
+     * @return Mensagem renderizada
+     */
+    public String renderizar(String chave, Map<String, ?> valores) {
+        return renderizar(chave, PADRAO, valores);
+    }
+
+    /**
+     * Renderiza template no locale informado.
+     *
+     * @param chave Chave do template
+     * @param locale Locale (pt_BR, es, ...); cai para o padrao se nao existir
+     * @param valores Valores dos placeholders
+     * @return Mensagem renderizada
+     */
+    public String renderizar(String chave, String locale, Map<String, ?> valores) {
+        Template template = buscar(chave, locale);
+        if (template == null) {
+            throw new IllegalArgumentException("Template nao encontrado: " + chave + " (" + locale + ")");
+        }
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        template.renderizar(sb, valores);
+        return sb.toString();
+    }
+
+    /**
+     * Renderiza template usando o locale Java.
+     */
+    public String renderizar(String chave, Locale locale, Map<String, ?> valores) {
+        return renderizar(chave, locale.toString(), valores);
+    }
+
+    private Template buscar(String chave, String locale) {
+        Template template = buscarNoLocale(chave, locale);
+        if (template == null) {
+            int separador = locale.indexOf('_');
+            if (separador > 0) {
+                template = buscarNoLocale(chave, locale.substring(0, separador));
+            }
+        }
+        if (template == null && !PADRAO.equals(locale)) {
+            template = buscarNoLocale(chave, PADRAO);
+        }
+        return template;
+    }
+
+    private Template buscarNoLocale(String chave, String locale) {
+        Map<String, Template> porChave = templates.get(locale);
+        return porChave != null ? porChave.get(chave) : null;
+    }
+
+    /**
+     * Template compilado: literais intercalados com placeholders.
+     *
+     * literais.length == placeholders.length + 1
+     */
+    static final class Template {
+        private final String[] literais;
+        private final String[] placeholders;
+
+        private Template(String[] literais, String[] placeholders) {
+            this.literais = literais;
+            this.placeholders = placeholders;
+        }
+
+        static Template compilar(String texto) {
+            List<String> literais = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+
+            int inicio = 0;
+            int abre;
+            while ((abre = texto.indexOf('{', inicio)) >= 0) {
+                int fecha = texto.indexOf('}', abre);
+                if (fecha < 0) {
+                    break;
+                }
+                literais.add(texto.substring(inicio, abre));
+                placeholders.add(texto.substring(abre + 1, fecha));
+                inicio = fecha + 1;
+            }
+            literais.add(texto.substring(inicio));
+
+            return new Template(literais.toArray(new String[0]), placeholders.toArray(new String[0]));
+        }
+
+        void renderizar(StringBuilder sb, Map<String, ?> valores) {
+            for (int i = 0; i < placeholders.length; i++) {
+                sb.append(literais[i]);
+                sb.append(valores.get(placeholders[i]));
+            }
+            sb.append(literais[placeholders.length]);
+        }
+    }
+}
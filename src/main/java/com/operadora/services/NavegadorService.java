@@ -1,20 +1,118 @@
 package com.operadora.services;
 
+import com.operadora.model.CargaNavegador;
+import com.operadora.repository.CargaNavegadorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service: Navegador de Saude
  * ============================
  *
  * Gerencia atribuicao de navegadores para pacientes de alto risco.
+ *
+ * Os navegadores ficam em memoria, indexados por especialidade
+ * (CRONICO, GERIATRIA, ONCOLOGIA, CLINICO_GERAL), cada um com um contador
+ * atomico de carga. A atribuicao escolhe o navegador com menor ocupacao
+ * (carga / capacidade) e reserva a vaga com compare-and-set: se outra
+ * instancia de processo reservou o mesmo navegador no meio tempo, a escolha
+ * e refeita. Nao ha lock global, entao atribuicoes paralelas nao se bloqueiam.
+ *
+ * Alteracoes de carga sao acumuladas por navegador e gravadas em
+ * NAVEGADOR_CARGA de forma assincrona como deltas (carga = carga + delta),
+ * entao varios nos somam suas atribuicoes em vez de sobrescrever uns aos
+ * outros. A cada gravacao a carga em memoria e realinhada com o total do
+ * banco (mais os deltas ainda nao gravados), incorporando os outros nos.
+ *
+ * A vaga e liberada no fim da instancia (ListenerLiberarNavegador, inclusive
+ * cancelamento). Se a transacao da atribuicao for desfeita (falha do job,
+ * OptimisticLockingException, retentativa), a reserva e devolvida no
+ * rollback; fora de transacao (worker de External Tasks) quem chama devolve
+ * a vaga se nao conseguir concluir a tarefa.
  */
 @Service
 public class NavegadorService {
 
     private static final Logger logger = LoggerFactory.getLogger(NavegadorService.class);
 
+    public static final String CLINICO_GERAL = "CLINICO_GERAL";
+
+    @Value("${navegador.roster:classpath:navegadores/navegadores.csv}")
+    private String rosterPath;
+
+    @Autowired
+    private CargaNavegadorRepository cargaRepository;
+
+    /** especialidade -> navegadores */
+    private final Map<String, Registro[]> porEspecialidade = new HashMap<>();
+
+    /** id -> navegador */
+    private final Map<String, Registro> porId = new HashMap<>();
+
+    /** deslocamento rotativo para espalhar empates entre navegadores */
+    private final AtomicInteger rotacao = new AtomicInteger();
+
+    @PostConstruct
+    void init() throws IOException {
+        Map<String, List<Registro>> roster = new HashMap<>();
+        Resource recurso = new DefaultResourceLoader().getResource(rosterPath);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(recurso.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine(); // cabecalho
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                String[] c = linha.split(";");
+                Navegador n = new Navegador();
+                n.setId(c[0].trim());
+                n.setNome(c[1].trim());
+                n.setTelefone(c[2].trim());
+                n.setEmail(c[3].trim());
+                n.setEspecialidade(c[4].trim());
+                Registro registro = new Registro(n, Integer.parseInt(c[5].trim()));
+
+                roster.computeIfAbsent(n.getEspecialidade(), e -> new ArrayList<>()).add(registro);
+                porId.put(n.getId(), registro);
+            }
+        }
+        roster.forEach((esp, lista) -> porEspecialidade.put(esp, lista.toArray(new Registro[0])));
+
+        criarLinhasFaltantes();
+        sincronizarCargas();
+
+        logger.info("Navegadores carregados: {} - Especialidades: {}", porId.size(), porEspecialidade.keySet());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        gravarCargas();
+    }
+
     /**
      * Atribui navegador ao beneficiario.
      *
@@ -26,31 +124,200 @@ public class NavegadorService {
     public Navegador atribuirNavegador(String cpf, String nivelRisco, String fatoresRisco) {
         logger.info("Atribuindo navegador para CPF: {}, Risco: {}", cpf, nivelRisco);
 
-        // MOCK: Em producao, buscar navegador com menor carga
-        // e especialidade adequada aos fatores de risco
+        String especialidade = definirEspecialidade(fatoresRisco);
+        Registro[] candidatos = porEspecialidade.get(especialidade);
+        if (candidatos == null || candidatos.length == 0) {
+            candidatos = porEspecialidade.get(CLINICO_GERAL);
+        }
+        if (candidatos == null || candidatos.length == 0) {
+            throw new IllegalStateException("Nenhum navegador cadastrado para " + especialidade);
+        }
+
+        Registro escolhido = reservar(candidatos);
+        escolhido.pendente.incrementAndGet();
+
+        Navegador navegador = escolhido.dados.copia();
+        devolverNoRollback(navegador.getId());
+
+        logger.info("Navegador atribuido: {} - Especialidade: {}, Carga: {}/{}",
+                    navegador.getNome(), navegador.getEspecialidade(), escolhido.carga.get(), escolhido.capacidade);
 
-        Navegador navegador = new Navegador();
+        return navegador;
+    }
 
-        // Seleciona especialidade baseada nos fatores
-        String especialidade = "CLINICO_GERAL";
+    /**
+     * Libera uma vaga do navegador (fim do acompanhamento).
+     *
+     * @param navegadorId ID do navegador
+     */
+    public void liberarNavegador(String navegadorId) {
+        Registro registro = porId.get(navegadorId);
+        if (registro == null) {
+            logger.warn("Navegador desconhecido ao liberar vaga: {}", navegadorId);
+            return;
+        }
+        registro.carga.updateAndGet(c -> Math.max(0, c - 1));
+        // Sempre grava o delta: a vaga pode ter sido reservada por outro no
+        registro.pendente.decrementAndGet();
+    }
+
+    private void devolverNoRollback(String navegadorId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    logger.debug("Atribuicao desfeita, vaga devolvida ao navegador {}", navegadorId);
+                    liberarNavegador(navegadorId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Seleciona especialidade do navegador a partir dos fatores de risco.
+     *
+     * @param fatoresRisco Fatores identificados pela estratificacao
+     * @return CRONICO, GERIATRIA, ONCOLOGIA ou CLINICO_GERAL
+     */
+    public static String definirEspecialidade(String fatoresRisco) {
+        if (fatoresRisco == null) {
+            return CLINICO_GERAL;
+        }
         if (fatoresRisco.contains("DIABETES") || fatoresRisco.contains("DOENCA_CRONICA")) {
-            especialidade = "CRONICO";
+            return "CRONICO";
         } else if (fatoresRisco.contains("IDADE_AVANCADA")) {
-            especialidade = "GERIATRIA";
+            return "GERIATRIA";
         } else if (fatoresRisco.contains("ONCOLOGIA")) {
-            especialidade = "ONCOLOGIA";
+            return "ONCOLOGIA";
         }
+        return CLINICO_GERAL;
+    }
 
-        // Simula navegador disponivel
-        navegador.setId("NAV-" + System.currentTimeMillis() % 1000);
-        navegador.setNome("Maria Navegadora");
-        navegador.setTelefone("11999888777");
-        navegador.setEspecialidade(especialidade);
-        navegador.setEmail("maria.navegadora@operadora.com");
+    /**
+     * Reserva vaga no navegador menos ocupado (carga / capacidade).
+     *
+     * Sem lock: le as cargas, escolhe o menor e tenta o CAS com o valor lido.
+     * Se falhar, alguem alterou aquele contador e a escolha e refeita.
+     * Com todos lotados, atribui ao menos ocupado mesmo acima da capacidade.
+     */
+    private Registro reservar(Registro[] candidatos) {
+        int n = candidatos.length;
+        while (true) {
+            int inicio = Math.floorMod(rotacao.getAndIncrement(), n);
+            Registro melhor = null;
+            int cargaMelhor = 0;
 
-        logger.info("Navegador atribuido: {} - Especialidade: {}", navegador.getNome(), especialidade);
+            for (int i = 0; i < n; i++) {
+                Registro r = candidatos[(inicio + i) % n];
+                int carga = r.carga.get();
+                // carga/capacidade < cargaMelhor/capacidadeMelhor, sem divisao
+                if (melhor == null || (long) carga * melhor.capacidade < (long) cargaMelhor * r.capacidade) {
+                    melhor = r;
+                    cargaMelhor = carga;
+                }
+            }
 
-        return navegador;
+            if (melhor.carga.compareAndSet(cargaMelhor, cargaMelhor + 1)) {
+                if (cargaMelhor >= melhor.capacidade) {
+                    logger.warn("Todos os navegadores de {} estao lotados - atribuido acima da capacidade: {}",
+                                melhor.dados.getEspecialidade(), melhor.dados.getId());
+                }
+                return melhor;
+            }
+        }
+    }
+
+    /**
+     * Grava de forma assincrona os deltas de carga e realinha a carga em
+     * memoria com o total do banco.
+     */
+    @Scheduled(fixedDelayString = "${navegador.carga.intervalo-gravacao-ms:5000}")
+    public void gravarCargas() {
+        Instant agora = Instant.now();
+        int gravados = 0;
+
+        for (Registro registro : porId.values()) {
+            int delta = registro.pendente.getAndSet(0);
+            if (delta == 0) {
+                continue;
+            }
+            try {
+                if (cargaRepository.somarCarga(registro.dados.getId(), delta, agora) == 0) {
+                    criarLinha(registro.dados.getId());
+                    cargaRepository.somarCarga(registro.dados.getId(), delta, agora);
+                }
+                gravados++;
+            } catch (Exception e) {
+                registro.pendente.addAndGet(delta);
+                logger.error("Erro ao gravar carga do navegador {}: {}", registro.dados.getId(), e.getMessage());
+            }
+        }
+        if (gravados > 0) {
+            logger.debug("Deltas de carga de navegadores gravados: {}", gravados);
+        }
+
+        try {
+            sincronizarCargas();
+        } catch (Exception e) {
+            logger.error("Erro ao ler cargas de navegadores: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Carga em memoria = total no banco + deltas deste no ainda nao gravados.
+     */
+    private void sincronizarCargas() {
+        for (CargaNavegador carga : cargaRepository.findAll()) {
+            Registro registro = porId.get(carga.getNavegadorId());
+            if (registro != null) {
+                registro.carga.set(Math.max(0, carga.getCarga() + registro.pendente.get()));
+            }
+        }
+    }
+
+    private void criarLinhasFaltantes() {
+        List<String> existentes = cargaRepository.findAllById(porId.keySet()).stream()
+            .map(CargaNavegador::getNavegadorId)
+            .toList();
+        for (String id : porId.keySet()) {
+            if (!existentes.contains(id)) {
+                criarLinha(id);
+            }
+        }
+    }
+
+    /**
+     * Cria a linha com carga zero; outro no pode te-la criado no meio tempo.
+     */
+    private void criarLinha(String navegadorId) {
+        CargaNavegador carga = new CargaNavegador();
+        carga.setNavegadorId(navegadorId);
+        carga.setCarga(0);
+        carga.setAtualizadoEm(Instant.now());
+        try {
+            cargaRepository.saveAndFlush(carga);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Linha de carga do navegador {} ja criada por outro no", navegadorId);
+        }
+    }
+
+    /**
+     * Navegador no indice em memoria.
+     */
+    private static final class Registro {
+        private final Navegador dados;
+        private final int capacidade;
+        private final AtomicInteger carga = new AtomicInteger();
+        /** Delta ainda nao gravado em NAVEGADOR_CARGA */
+        private final AtomicInteger pendente = new AtomicInteger();
+
+        private Registro(Navegador dados, int capacidade) {
+            this.dados = dados;
+            this.capacidade = Math.max(1, capacidade);
+        }
     }
 
     /**
@@ -77,5 +344,15 @@ public class NavegadorService {
 
         public String getEspecialidade() { return especialidade; }
         public void setEspecialidade(String especialidade) { this.especialidade = especialidade; }
+
+        Navegador copia() {
+            Navegador copia = new Navegador();
+            copia.id = id;
+            copia.nome = nome;
+            copia.telefone = telefone;
+            copia.email = email;
+            copia.especialidade = especialidade;
+            return copia;
+        }
     }
 }
@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * Service: Notificacoes Internas
  * ===============================
@@ -17,7 +19,10 @@ public class NotificacaoService {
     private static final Logger logger = LoggerFactory.getLogger(NotificacaoService.class);
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private FilaWhatsAppService filaWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
 
     /**
      * Envia lembrete ao beneficiario.
@@ -29,8 +34,8 @@ public class NotificacaoService {
     public void enviarLembrete(String telefone, String nome, String mensagem) {
         logger.info("Enviando lembrete para {} - {}", nome, telefone);
 
-        String mensagemCompleta = String.format("Ola %s! %s", nome, mensagem);
-        whatsAppService.enviarMensagem(telefone, mensagemCompleta);
+        String mensagemCompleta = templates.renderizar("lembrete", Map.of("nome", nome, "mensagem", mensagem));
+        filaWhatsApp.enfileirarSemRetorno(telefone, mensagemCompleta);
     }
 
     /**
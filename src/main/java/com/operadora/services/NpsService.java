@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * Service: NPS - Net Promoter Score
  * ===================================
@@ -17,7 +19,10 @@ public class NpsService {
     private static final Logger logger = LoggerFactory.getLogger(NpsService.class);
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private FilaWhatsAppService filaWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
 
     /**
      * Coleta NPS do beneficiario.
@@ -31,13 +36,9 @@ public class NpsService {
         logger.info("Coletando NPS para: {} ({})", nome, cpf);
 
         // Envia pesquisa NPS
-        String mensagem = String.format(
-            "Ola %s! De 0 a 10, o quanto voce recomendaria a Operadora Digital do Futuro " +
-            "para um amigo ou familiar?",
-            nome
-        );
+        String mensagem = templates.renderizar("nps.pesquisa", Map.of("nome", nome));
 
-        whatsAppService.enviarMensagem(telefone, mensagem);
+        filaWhatsApp.enfileirarSemRetorno(telefone, mensagem);
 
         // MOCK: Em producao, aguardar resposta real
         NpsResult resultado = new NpsResult();
@@ -0,0 +1,191 @@
+package com.operadora.services;
+
+import com.operadora.model.MensagemOutbox;
+import com.operadora.repository.MensagemOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service: Dispatcher da Outbox WhatsApp
+ * =======================================
+ *
+ * Drena a WHATSAPP_OUTBOX fora das transacoes da engine:
+ * - reivindica o lote de mensagens prontas com um unico UPDATE marcado
+ *   por um token de reivindicacao (seguro com varios nos)
+ * - envia pela FilaWhatsAppService (micro-batching)
+ * - reagenda falhas com backoff exponencial ate max-tentativas
+ * - informa a entrega a instancia por correlacao de Message_WhatsAppEntregue
+ *   (subprocesso de evento nao interruptivo nos processos V1 e V2), que
+ *   grava <prefixo>_enviada=true e <prefixo>_message_id
+ *
+ * O status da outbox so e gravado enquanto a linha continua reivindicada
+ * com o token deste despacho: se o bloqueio expirou e outro no a levou,
+ * o resultado deste no e descartado.
+ */
+@Service
+public class OutboxDispatcherService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcherService.class);
+
+    public static final String MENSAGEM_ENTREGUE = "Message_WhatsAppEntregue";
+
+    /** Tentativas de correlacao quando a instancia e alterada em paralelo. */
+    private static final int TENTATIVAS_CORRELACAO = 3;
+
+    @Autowired
+    private MensagemOutboxRepository outboxRepository;
+
+    @Autowired
+    private FilaWhatsAppService filaWhatsApp;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Value("${whatsapp.outbox.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${whatsapp.outbox.threads:4}")
+    private int threads;
+
+    @Value("${whatsapp.outbox.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${whatsapp.outbox.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${whatsapp.outbox.bloqueio-ms:60000}")
+    private long bloqueioMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger seq = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "outbox-whatsapp-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Busca e despacha mensagens prontas.
+     */
+    @Scheduled(fixedDelayString = "${whatsapp.outbox.intervalo-ms:200}")
+    public void despachar() {
+        Instant agora = Instant.now();
+        List<MensagemOutbox> prontas = outboxRepository.buscarProntas(agora, PageRequest.of(0, tamanhoLote));
+        if (prontas.isEmpty()) {
+            return;
+        }
+
+        String token = UUID.randomUUID().toString();
+        List<Long> ids = prontas.stream().map(MensagemOutbox::getId).toList();
+        int reivindicadas = outboxRepository.reivindicar(ids, agora, agora.plusMillis(bloqueioMs), token);
+        if (reivindicadas == 0) {
+            return; // outro no reivindicou o lote inteiro
+        }
+        if (reivindicadas < prontas.size()) {
+            // Parte do lote foi reivindicada por outro no entre a busca e o UPDATE
+            prontas = outboxRepository.findByReivindicacao(token);
+        }
+
+        for (MensagemOutbox m : prontas) {
+            filaWhatsApp.enfileirar(m.getTelefone(), m.getMensagem())
+                .thenAcceptAsync(resultado -> concluir(m, token, resultado), executor);
+        }
+
+        logger.debug("Outbox: {} mensagens despachadas", prontas.size());
+    }
+
+    private void concluir(MensagemOutbox mensagem, String token, WhatsAppService.SendResult resultado) {
+        try {
+            if (resultado.isSuccess()) {
+                if (outboxRepository.marcarEnviada(mensagem.getId(), token, resultado.getMessageId()) == 0) {
+                    logger.warn("Outbox: mensagem {} reivindicada por outro no, entrega nao registrada", mensagem.getId());
+                    return;
+                }
+                logger.debug("Outbox: mensagem {} entregue - MessageID: {}", mensagem.getId(), resultado.getMessageId());
+                correlacionarEntrega(mensagem, resultado.getMessageId());
+                return;
+            }
+
+            int tentativas = mensagem.getTentativas() + 1;
+            long espera = backoffMs << Math.min(tentativas - 1, 20);
+            String erro = resultado.getError() != null && resultado.getError().length() > 1024
+                ? resultado.getError().substring(0, 1024)
+                : resultado.getError();
+            if (outboxRepository.marcarFalha(mensagem.getId(), token, erro, maxTentativas,
+                                             Instant.now().plus(Duration.ofMillis(espera))) == 0) {
+                logger.warn("Outbox: mensagem {} reivindicada por outro no, falha nao registrada", mensagem.getId());
+            } else if (tentativas >= maxTentativas) {
+                logger.error("Outbox: mensagem {} falhou apos {} tentativas: {}",
+                             mensagem.getId(), tentativas, resultado.getError());
+            } else {
+                logger.warn("Outbox: mensagem {} reagendada em {} ms - Erro: {}",
+                            mensagem.getId(), espera, resultado.getError());
+            }
+
+        } catch (Exception e) {
+            // Mantem ENVIANDO: sera reivindicada de novo quando o bloqueio expirar
+            logger.error("Outbox: erro ao concluir mensagem {}: {}", mensagem.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Correlaciona a entrega na instancia. Instancia encerrada (ou de uma
+     * versao sem o subprocesso de entrega) nao recebe a mensagem; o
+     * resultado continua na outbox.
+     */
+    private void correlacionarEntrega(MensagemOutbox mensagem, String messageId) {
+        String prefixo = mensagem.getPrefixoVariavel();
+        Map<String, Object> variaveis = new HashMap<>();
+        variaveis.put(prefixo + "_enviada", true);
+        variaveis.put(prefixo + "_message_id", messageId);
+
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                runtimeService.createMessageCorrelation(MENSAGEM_ENTREGUE)
+                    .processInstanceId(mensagem.getProcessInstanceId())
+                    .setVariables(variaveis)
+                    .correlateWithResult();
+                return;
+            } catch (MismatchingMessageCorrelationException e) {
+                logger.debug("Outbox: instancia {} sem assinatura de {}, entrega so na outbox",
+                             mensagem.getProcessInstanceId(), MENSAGEM_ENTREGUE);
+                return;
+            } catch (OptimisticLockingException e) {
+                if (tentativa >= TENTATIVAS_CORRELACAO) {
+                    logger.warn("Outbox: entrega da mensagem {} nao correlacionada na instancia {}: {}",
+                                mensagem.getId(), mensagem.getProcessInstanceId(), e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.operadora.services;
+
+import com.operadora.model.MensagemOutbox;
+import com.operadora.repository.MensagemOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Service: Outbox WhatsApp
+ * =========================
+ *
+ * Registra mensagens na tabela WHATSAPP_OUTBOX. Chamado pelos delegates
+ * dentro da transacao da engine: o insert participa da mesma transacao
+ * Spring de execution.setVariable, entao a mensagem so existe se o passo
+ * do processo for commitado.
+ *
+ * Os workers de External Task (V1) nao tem transacao com a conclusao da
+ * tarefa: registram com a chave de idempotencia (ID da tarefa), e a
+ * retentativa da mesma tarefa devolve a linha ja gravada.
+ *
+ * O envio real e feito pelo OutboxDispatcherService.
+ */
+@Service
+public class OutboxWhatsAppService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxWhatsAppService.class);
+
+    @Autowired
+    private MensagemOutboxRepository outboxRepository;
+
+    /**
+     * Registra mensagem para envio assincrono.
+     *
+     * @param processInstanceId Instancia que recebera o resultado do envio
+     * @param prefixoVariavel Prefixo das variaveis de retorno (ex: boas_vindas)
+     * @param telefone Numero do telefone
+     * @param mensagem Texto da mensagem
+     * @return ID da mensagem na outbox
+     */
+    public Long registrar(String processInstanceId, String prefixoVariavel, String telefone, String mensagem) {
+        Long id = outboxRepository.save(nova(null, processInstanceId, prefixoVariavel, telefone, mensagem)).getId();
+        logger.debug("Mensagem registrada na outbox - ID: {}, Process: {}, Prefixo: {}",
+                     id, processInstanceId, prefixoVariavel);
+        return id;
+    }
+
+    /**
+     * Registra mensagem uma unica vez por chave: se a chave ja existe
+     * (retentativa da external task), devolve a mensagem ja registrada.
+     *
+     * @param chaveIdempotencia ID da external task
+     * @param processInstanceId Instancia que recebera o resultado do envio
+     * @param prefixoVariavel Prefixo das variaveis de retorno (ex: boas_vindas)
+     * @param telefone Numero do telefone
+     * @param mensagem Texto da mensagem
+     * @return ID da mensagem na outbox
+     */
+    public Long registrar(String chaveIdempotencia, String processInstanceId, String prefixoVariavel,
+                          String telefone, String mensagem) {
+        MensagemOutbox existente = outboxRepository.findByChaveIdempotencia(chaveIdempotencia).orElse(null);
+        if (existente != null) {
+            logger.info("Mensagem ja registrada para a tarefa {} - ID: {}", chaveIdempotencia, existente.getId());
+            return existente.getId();
+        }
+        try {
+            Long id = outboxRepository.saveAndFlush(
+                nova(chaveIdempotencia, processInstanceId, prefixoVariavel, telefone, mensagem)).getId();
+            logger.debug("Mensagem registrada na outbox - ID: {}, Tarefa: {}, Prefixo: {}",
+                         id, chaveIdempotencia, prefixoVariavel);
+            return id;
+        } catch (DataIntegrityViolationException e) {
+            // Outro worker registrou a mesma tarefa (lock expirado) no meio tempo
+            return outboxRepository.findByChaveIdempotencia(chaveIdempotencia)
+                .map(MensagemOutbox::getId)
+                .orElseThrow(() -> e);
+        }
+    }
+
+    private MensagemOutbox nova(String chaveIdempotencia, String processInstanceId, String prefixoVariavel,
+                                String telefone, String mensagem) {
+        Instant agora = Instant.now();
+
+        MensagemOutbox outbox = new MensagemOutbox();
+        outbox.setChaveIdempotencia(chaveIdempotencia);
+        outbox.setProcessInstanceId(processInstanceId);
+        outbox.setPrefixoVariavel(prefixoVariavel);
+        outbox.setTelefone(telefone);
+        outbox.setMensagem(mensagem);
+        outbox.setStatus(MensagemOutbox.PENDENTE);
+        outbox.setCriadoEm(agora);
+        outbox.setProximaTentativa(agora);
+        return outbox;
+    }
+}
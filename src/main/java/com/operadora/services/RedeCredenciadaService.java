@@ -1,22 +1,91 @@
 package com.operadora.services;
 
+import com.operadora.support.IndiceGeografico;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Service: Rede Credenciada
  * ==========================
  *
  * Gerencia busca e direcionamento para rede credenciada.
+ *
+ * A rede fica em memoria num indice geografico em grade por especialidade
+ * (CRONICO, GERIATRIA, ONCOLOGIA, CLINICO_GERAL). A busca visita apenas as
+ * celulas proximas da localizacao do beneficiario e ranqueia os candidatos
+ * por distancia, qualidade e capacidade disponivel.
+ *
+ * O indice e imutavel: a recarga monta um indice novo e troca a referencia
+ * de uma vez, sem bloquear as buscas em andamento.
+ *
+ * Formato do arquivo (com cabecalho, separador ';'):
+ *   id;nome;endereco;telefone;especialidade;latitude;longitude;qualidade;capacidade
  */
 @Service
 public class RedeCredenciadaService {
 
     private static final Logger logger = LoggerFactory.getLogger(RedeCredenciadaService.class);
 
+    @Value("${rede.prestadores.arquivo:classpath:rede/prestadores.csv}")
+    private String arquivoPrestadores;
+
+    @Value("${rede.indice.celula-graus:0.05}")
+    private double celulaGraus;
+
+    @Value("${rede.busca.min-candidatos:16}")
+    private int minCandidatos;
+
+    @Value("${rede.busca.max-aneis:40}")
+    private int maxAneis;
+
+    @Value("${rede.localizacao-padrao.latitude:-23.5505}")
+    private double latitudePadrao;
+
+    @Value("${rede.localizacao-padrao.longitude:-46.6333}")
+    private double longitudePadrao;
+
+    @Value("${rede.ranking.peso-distancia:0.4}")
+    private double pesoDistancia;
+
+    @Value("${rede.ranking.peso-qualidade:0.4}")
+    private double pesoQualidade;
+
+    @Value("${rede.ranking.peso-capacidade:0.2}")
+    private double pesoCapacidade;
+
+    @Value("${rede.ranking.raio-referencia-km:30}")
+    private double raioReferenciaKm;
+
+    @Value("${rede.ranking.capacidade-referencia:50}")
+    private int capacidadeReferencia;
+
+    private final AtomicReference<Rede> rede = new AtomicReference<>(Rede.VAZIA);
+
+    private volatile long ultimaModificacao = -1;
+
+    @PostConstruct
+    void init() throws IOException {
+        recarregar();
+    }
+
     /**
-     * Busca melhor prestador para o beneficiario.
+     * Busca melhor prestador para o beneficiario na localizacao padrao.
      *
      * @param cpf CPF do beneficiario
      * @param especialidade Especialidade necessaria
@@ -24,25 +93,189 @@ public class RedeCredenciadaService {
      * @return Prestador selecionado
      */
     public Prestador buscarMelhorPrestador(String cpf, String especialidade, String fatoresRisco) {
+        return buscarMelhorPrestador(cpf, especialidade, fatoresRisco, null, null);
+    }
+
+    /**
+     * Busca melhor prestador para o beneficiario.
+     *
+     * @param cpf CPF do beneficiario
+     * @param especialidade Especialidade necessaria
+     * @param fatoresRisco Fatores de risco
+     * @param latitude Latitude do beneficiario (null = localizacao padrao)
+     * @param longitude Longitude do beneficiario (null = localizacao padrao)
+     * @return Prestador selecionado
+     */
+    public Prestador buscarMelhorPrestador(String cpf, String especialidade, String fatoresRisco,
+                                           Double latitude, Double longitude) {
         logger.info("Buscando prestador para CPF: {}, Especialidade: {}", cpf, especialidade);
 
-        // MOCK: Em producao, consultar base de rede credenciada
-        // considerando localizacao, qualidade e disponibilidade
+        double lat = latitude != null ? latitude : latitudePadrao;
+        double lon = longitude != null ? longitude : longitudePadrao;
+
+        Rede atual = rede.get();
+        Particao particao = atual.porEspecialidade.get(especialidade);
+        if (particao == null) {
+            particao = atual.porEspecialidade.get(NavegadorService.CLINICO_GERAL);
+        }
+        if (particao == null) {
+            throw new IllegalStateException("Nenhum prestador cadastrado para " + especialidade);
+        }
 
-        Prestador prestador = new Prestador();
+        Selecao selecao = new Selecao(particao);
+        particao.indice.buscar(lat, lon, minCandidatos, maxAneis, selecao);
+        if (selecao.melhor < 0) {
+            // Nada num raio razoavel: avalia a especialidade inteira
+            for (int i = 0; i < particao.prestadores.length; i++) {
+                Prestador p = particao.prestadores[i];
+                selecao.visitar(i, IndiceGeografico.distanciaKm(lat, lon, p.getLatitude(), p.getLongitude()));
+            }
+        }
 
-        prestador.setId("PREST-" + System.currentTimeMillis() % 10000);
-        prestador.setNome("Hospital Sao Lucas");
-        prestador.setEndereco("Av. Paulista, 1000 - Sao Paulo/SP");
-        prestador.setTelefone("1133334444");
-        prestador.setEspecialidades(especialidade);
-        prestador.setQualidadeScore(4.5);
+        Prestador prestador = particao.prestadores[selecao.melhor].copia();
+        prestador.setDistanciaKm(selecao.distanciaMelhor);
 
-        logger.info("Prestador selecionado: {} - Score: {}", prestador.getNome(), prestador.getQualidadeScore());
+        logger.info("Prestador selecionado: {} - Score: {}, Distancia: {} km",
+                    prestador.getNome(), prestador.getQualidadeScore(),
+                    String.format("%.1f", prestador.getDistanciaKm()));
 
         return prestador;
     }
 
+    /**
+     * Recarrega a rede se o arquivo foi alterado desde a ultima carga.
+     */
+    @Scheduled(fixedDelayString = "${rede.recarga.intervalo-ms:300000}",
+               initialDelayString = "${rede.recarga.intervalo-ms:300000}")
+    public void verificarAtualizacao() {
+        try {
+            Resource recurso = new DefaultResourceLoader().getResource(arquivoPrestadores);
+            if (recurso.isFile() && recurso.lastModified() != ultimaModificacao) {
+                recarregar();
+            }
+        } catch (Exception e) {
+            logger.error("Erro ao recarregar rede credenciada - mantendo indice atual: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Monta um indice novo a partir do arquivo e troca o atual.
+     */
+    public synchronized void recarregar() throws IOException {
+        Resource recurso = new DefaultResourceLoader().getResource(arquivoPrestadores);
+        long modificacao = recurso.isFile() ? recurso.lastModified() : 0;
+
+        Map<String, List<Prestador>> agrupado = new HashMap<>();
+        int total = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(recurso.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine(); // cabecalho
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                String[] c = linha.split(";", -1);
+                Prestador p = new Prestador();
+                p.setId(c[0].trim());
+                p.setNome(c[1].trim());
+                p.setEndereco(c[2].trim());
+                p.setTelefone(c[3].trim());
+                p.setEspecialidades(c[4].trim());
+                p.setLatitude(Double.parseDouble(c[5].trim()));
+                p.setLongitude(Double.parseDouble(c[6].trim()));
+                p.setQualidadeScore(Double.parseDouble(c[7].trim()));
+                p.setCapacidade(Integer.parseInt(c[8].trim()));
+
+                agrupado.computeIfAbsent(p.getEspecialidades(), e -> new ArrayList<>()).add(p);
+                total++;
+            }
+        }
+
+        Map<String, Particao> particoes = new HashMap<>();
+        agrupado.forEach((esp, lista) -> particoes.put(esp, new Particao(lista, celulaGraus)));
+
+        rede.set(new Rede(particoes));
+        ultimaModificacao = modificacao;
+
+        logger.info("Rede credenciada carregada: {} prestadores - Especialidades: {}", total, particoes.keySet());
+    }
+
+    /**
+     * Pontuacao do prestador: maior e melhor.
+     * Sem vaga disponivel so e escolhido se nao houver alternativa.
+     */
+    private double pontuar(double qualidade, int capacidade, double distanciaKm) {
+        double score = pesoQualidade * (qualidade / 5.0)
+                     + pesoCapacidade * Math.min(1.0, (double) capacidade / capacidadeReferencia)
+                     - pesoDistancia * Math.min(1.0, distanciaKm / raioReferenciaKm);
+        return capacidade > 0 ? score : score - 1.0;
+    }
+
+    /**
+     * Acompanha o melhor candidato de uma busca.
+     */
+    private final class Selecao implements IndiceGeografico.Visitante {
+        private final Particao particao;
+        private int melhor = -1;
+        private double scoreMelhor = Double.NEGATIVE_INFINITY;
+        private double distanciaMelhor;
+
+        private Selecao(Particao particao) {
+            this.particao = particao;
+        }
+
+        @Override
+        public void visitar(int indice, double distanciaKm) {
+            double score = pontuar(particao.qualidade[indice], particao.capacidade[indice], distanciaKm);
+            if (score > scoreMelhor) {
+                scoreMelhor = score;
+                melhor = indice;
+                distanciaMelhor = distanciaKm;
+            }
+        }
+    }
+
+    /**
+     * Snapshot imutavel da rede.
+     */
+    private static final class Rede {
+        private static final Rede VAZIA = new Rede(Map.of());
+
+        private final Map<String, Particao> porEspecialidade;
+
+        private Rede(Map<String, Particao> porEspecialidade) {
+            this.porEspecialidade = porEspecialidade;
+        }
+    }
+
+    /**
+     * Prestadores de uma especialidade, com atributos de ranking em arrays.
+     */
+    private static final class Particao {
+        private final Prestador[] prestadores;
+        private final float[] qualidade;
+        private final int[] capacidade;
+        private final IndiceGeografico indice;
+
+        private Particao(List<Prestador> lista, double celulaGraus) {
+            int n = lista.size();
+            prestadores = lista.toArray(new Prestador[0]);
+            qualidade = new float[n];
+            capacidade = new int[n];
+            double[] lat = new double[n];
+            double[] lon = new double[n];
+            for (int i = 0; i < n; i++) {
+                Prestador p = prestadores[i];
+                qualidade[i] = (float) p.getQualidadeScore();
+                capacidade[i] = p.getCapacidade();
+                lat[i] = p.getLatitude();
+                lon[i] = p.getLongitude();
+            }
+            indice = new IndiceGeografico(lat, lon, celulaGraus);
+        }
+    }
+
     /**
      * Dados do prestador.
      */
@@ -53,6 +286,10 @@ public class RedeCredenciadaService {
         private String telefone;
         private String especialidades;
         private double qualidadeScore;
+        private double latitude;
+        private double longitude;
+        private int capacidade;
+        private double distanciaKm;
 
         public String getId() { return id; }
         public void setId(String id) { this.id = id; }
@@ -71,5 +308,31 @@ public class RedeCredenciadaService {
 
         public double getQualidadeScore() { return qualidadeScore; }
         public void setQualidadeScore(double qualidadeScore) { this.qualidadeScore = qualidadeScore; }
+
+        public double getLatitude() { return latitude; }
+        public void setLatitude(double latitude) { this.latitude = latitude; }
+
+        public double getLongitude() { return longitude; }
+        public void setLongitude(double longitude) { this.longitude = longitude; }
+
+        public int getCapacidade() { return capacidade; }
+        public void setCapacidade(int capacidade) { this.capacidade = capacidade; }
+
+        public double getDistanciaKm() { return distanciaKm; }
+        public void setDistanciaKm(double distanciaKm) { this.distanciaKm = distanciaKm; }
+
+        Prestador copia() {
+            Prestador copia = new Prestador();
+            copia.id = id;
+            copia.nome = nome;
+            copia.endereco = endereco;
+            copia.telefone = telefone;
+            copia.especialidades = especialidades;
+            copia.qualidadeScore = qualidadeScore;
+            copia.latitude = latitude;
+            copia.longitude = longitude;
+            copia.capacidade = capacidade;
+            return copia;
+        }
     }
 }
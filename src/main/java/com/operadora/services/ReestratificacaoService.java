@@ -0,0 +1,343 @@
+package com.operadora.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service: Re-estratificacao em Massa
+ * ====================================
+ *
+ * Re-executa a estratificacao de risco (mesma logica do
+ * EstratificarRiscoDelegate) para toda a base ativa, por exemplo apos
+ * troca do modelo.
+ *
+ * - Le o arquivo CSV em streaming (sem carregar a base em memoria)
+ * - Descarta o cache do MLService no inicio (o modelo pode ter mudado) e
+ *   pontua pelo caminho com cache: perfis repetidos vao ao modelo uma vez
+ * - Agrupa as linhas em blocos e pontua cada bloco em paralelo num ForkJoinPool
+ * - Limita os blocos em processamento (backpressure sobre a leitura)
+ * - Atualiza nivel_risco/score_risco/fatores_risco apenas de quem mudou
+ *   de nivel, correlacionando Message_RiscoReestratificado nas instancias
+ *   ativas do processo V2. A mensagem grava reestratificacao_* e dispara o
+ *   subprocesso de evento que aplica o risco num job da propria instancia
+ *   (AplicarReestratificacaoDelegate). Instancias sem a assinatura
+ *   (encerradas ou de versao anterior do processo) nao sao alteradas.
+ *
+ * Formato do CSV (com cabecalho, separador ';'):
+ *   cpf;screening_score;idade;tem_doenca_cronica;imc;fumante;nivel_risco_atual
+ *
+ * O arquivo e informado relativo ao diretorio de importacao
+ * (reestratificacao.diretorio-importacao); caminhos absolutos ou com ".."
+ * sao recusados. Linhas invalidas sao registradas so pelo numero (o
+ * conteudo tem CPF e dados de saude).
+ */
+@Service
+public class ReestratificacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReestratificacaoService.class);
+
+    public static final String MENSAGEM_REESTRATIFICADO = "Message_RiscoReestratificado";
+    private static final String PROCESSO_V2 = "Process_Coordenacao_Cuidado_V2";
+
+    /** Tentativas de correlacao quando a instancia e alterada em paralelo. */
+    private static final int TENTATIVAS_CORRELACAO = 3;
+
+    @Autowired
+    private MLService mlService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${reestratificacao.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    @Value("${reestratificacao.paralelismo:0}")
+    private int paralelismo;
+
+    @Value("${reestratificacao.max-blocos-em-voo:16}")
+    private int maxBlocosEmVoo;
+
+    @Value("${reestratificacao.diretorio-importacao:./data/importacao}")
+    private String diretorioImportacao;
+
+    private final Map<String, Progresso> execucoes = new ConcurrentHashMap<>();
+
+    private Path raizImportacao;
+    private ForkJoinPool pool;
+    private ExecutorService leitor;
+    private Counter contadorProcessados;
+    private Counter contadorAlterados;
+    private Counter contadorErros;
+
+    @PostConstruct
+    void init() {
+        raizImportacao = Path.of(diretorioImportacao).toAbsolutePath().normalize();
+        int threads = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        leitor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "reestratificacao-leitor");
+            t.setDaemon(true);
+            return t;
+        });
+
+        contadorProcessados = meterRegistry.counter("reestratificacao.beneficiarios", "resultado", "processado");
+        contadorAlterados = meterRegistry.counter("reestratificacao.beneficiarios", "resultado", "alterado");
+        contadorErros = meterRegistry.counter("reestratificacao.beneficiarios", "resultado", "erro");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        leitor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Inicia re-estratificacao a partir de um arquivo CSV.
+     *
+     * @param nomeArquivo Caminho do CSV relativo ao diretorio de importacao
+     * @return Progresso da execucao (atualizado enquanto roda)
+     * @throws IllegalArgumentException se o caminho sair do diretorio ou o arquivo nao existir
+     */
+    public Progresso iniciar(String nomeArquivo) {
+        Path arquivo = resolverArquivo(nomeArquivo);
+
+        Progresso progresso = new Progresso(UUID.randomUUID().toString(), nomeArquivo);
+        execucoes.put(progresso.getId(), progresso);
+        leitor.submit(() -> executar(arquivo, progresso));
+
+        logger.info("Re-estratificacao iniciada - ID: {}, Arquivo: {}", progresso.getId(), arquivo);
+        return progresso;
+    }
+
+    private Path resolverArquivo(String nomeArquivo) {
+        if (nomeArquivo == null || nomeArquivo.isBlank()) {
+            throw new IllegalArgumentException("Arquivo nao informado");
+        }
+        Path relativo = Path.of(nomeArquivo);
+        boolean sobe = false;
+        for (Path parte : relativo) {
+            sobe |= parte.toString().equals("..");
+        }
+        if (relativo.isAbsolute() || sobe) {
+            throw new IllegalArgumentException("Arquivo deve ser relativo ao diretorio de importacao, sem '..': " + nomeArquivo);
+        }
+        Path arquivo = raizImportacao.resolve(relativo).normalize();
+        if (!arquivo.startsWith(raizImportacao) || !Files.isRegularFile(arquivo) || !Files.isReadable(arquivo)) {
+            throw new IllegalArgumentException("Arquivo nao encontrado: " + nomeArquivo);
+        }
+        return arquivo;
+    }
+
+    /**
+     * Consulta progresso de uma execucao.
+     */
+    public Progresso getProgresso(String id) {
+        return execucoes.get(id);
+    }
+
+    private void executar(Path arquivo, Progresso progresso) {
+        Semaphore blocosEmVoo = new Semaphore(maxBlocosEmVoo);
+        mlService.invalidarCache();
+
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            reader.readLine(); // cabecalho
+
+            List<Linha> bloco = new ArrayList<>(tamanhoBloco);
+            long numero = 1;
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                numero++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                bloco.add(new Linha(numero, linha));
+                if (bloco.size() == tamanhoBloco) {
+                    submeterBloco(bloco, progresso, blocosEmVoo);
+                    bloco = new ArrayList<>(tamanhoBloco);
+                }
+            }
+            if (!bloco.isEmpty()) {
+                submeterBloco(bloco, progresso, blocosEmVoo);
+            }
+
+            // Aguarda todos os blocos terminarem
+            blocosEmVoo.acquire(maxBlocosEmVoo);
+            progresso.concluir(null);
+
+            logger.info("Re-estratificacao concluida - ID: {}, Processados: {}, Alterados: {}, Erros: {}, {} /s",
+                        progresso.getId(), progresso.getProcessados(), progresso.getAlterados(),
+                        progresso.getErros(), String.format("%.0f", progresso.getThroughputPorSegundo()));
+
+        } catch (Exception e) {
+            logger.error("Re-estratificacao falhou - ID: {}: {}", progresso.getId(), e.getMessage(), e);
+            progresso.concluir(e.getMessage());
+        }
+    }
+
+    private void submeterBloco(List<Linha> bloco, Progresso progresso, Semaphore blocosEmVoo)
+            throws InterruptedException {
+        blocosEmVoo.acquire();
+        pool.execute(() -> {
+            try {
+                processarBloco(bloco, progresso);
+            } finally {
+                blocosEmVoo.release();
+            }
+        });
+    }
+
+    private void processarBloco(List<Linha> bloco, Progresso progresso) {
+        // Divide o bloco entre as threads do pool (fork-join)
+        bloco.parallelStream().forEach(linha -> processarLinha(linha, progresso));
+    }
+
+    private void processarLinha(Linha linha, Progresso progresso) {
+        try {
+            String[] c = linha.texto().split(";", -1);
+            String cpf = c[0].trim();
+            Integer screeningScore = Integer.valueOf(c[1].trim());
+            Integer idade = Integer.valueOf(c[2].trim());
+            Boolean cronico = Boolean.valueOf(c[3].trim());
+            Double imc = Double.valueOf(c[4].trim());
+            Boolean fumante = Boolean.valueOf(c[5].trim());
+            String nivelAtual = c.length > 6 ? c[6].trim() : "";
+
+            MLService.RiskResult resultado = mlService.calcularRisco(screeningScore, idade, cronico, imc, fumante);
+
+            progresso.processados.incrementAndGet();
+            contadorProcessados.increment();
+
+            if (!resultado.getNivelRisco().equals(nivelAtual)) {
+                atualizarInstancias(cpf, resultado);
+                progresso.alterados.incrementAndGet();
+                contadorAlterados.increment();
+            }
+
+        } catch (Exception e) {
+            progresso.erros.incrementAndGet();
+            contadorErros.increment();
+            // Sem o conteudo nem a mensagem (podem conter CPF e dados de saude)
+            logger.warn("Re-estratificacao - ID: {}: linha {} ignorada ({})",
+                        progresso.getId(), linha.numero(), e.getClass().getSimpleName());
+        }
+    }
+
+    private void atualizarInstancias(String cpf, MLService.RiskResult resultado) {
+        Map<String, Object> variaveis = new HashMap<>();
+        variaveis.put("reestratificacao_nivel_risco", resultado.getNivelRisco());
+        variaveis.put("reestratificacao_score_risco", resultado.getScoreRisco());
+        variaveis.put("reestratificacao_probabilidade_internacao", resultado.getProbabilidadeInternacao());
+        variaveis.put("reestratificacao_fatores_risco", resultado.getFatoresRisco());
+
+        List<ProcessInstance> instancias = runtimeService.createProcessInstanceQuery()
+            .processDefinitionKey(PROCESSO_V2)
+            .variableValueEquals("beneficiario_cpf", cpf)
+            .active()
+            .list();
+
+        for (ProcessInstance instancia : instancias) {
+            correlacionar(instancia.getId(), variaveis);
+        }
+    }
+
+    /**
+     * Correlaciona a re-estratificacao na instancia, repetindo se um job da
+     * instancia a alterou em paralelo. Falha persistente sobe como erro da linha.
+     */
+    private void correlacionar(String processInstanceId, Map<String, Object> variaveis) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                runtimeService.createMessageCorrelation(MENSAGEM_REESTRATIFICADO)
+                    .processInstanceId(processInstanceId)
+                    .setVariables(variaveis)
+                    .correlateWithResult();
+                return;
+            } catch (MismatchingMessageCorrelationException e) {
+                logger.debug("Re-estratificacao: instancia {} sem assinatura de {}",
+                             processInstanceId, MENSAGEM_REESTRATIFICADO);
+                return;
+            } catch (OptimisticLockingException e) {
+                if (tentativa >= TENTATIVAS_CORRELACAO) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Linha do CSV com o numero no arquivo (1 = cabecalho).
+     */
+    private record Linha(long numero, String texto) {
+    }
+
+    /**
+     * Progresso de uma execucao de re-estratificacao.
+     */
+    public static class Progresso {
+        private final String id;
+        private final String arquivo;
+        private final Instant inicio = Instant.now();
+        private final AtomicLong processados = new AtomicLong();
+        private final AtomicLong alterados = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+        private volatile Instant fim;
+        private volatile String falha;
+
+        Progresso(String id, String arquivo) {
+            this.id = id;
+            this.arquivo = arquivo;
+        }
+
+        void concluir(String falha) {
+            this.falha = falha;
+            this.fim = Instant.now();
+        }
+
+        public String getId() { return id; }
+        public String getArquivo() { return arquivo; }
+        public Instant getInicio() { return inicio; }
+        public Instant getFim() { return fim; }
+        public String getFalha() { return falha; }
+        public boolean isConcluido() { return fim != null; }
+        public long getProcessados() { return processados.get(); }
+        public long getAlterados() { return alterados.get(); }
+        public long getErros() { return erros.get(); }
+
+        public double getThroughputPorSegundo() {
+            long ms = Duration.between(inicio, fim != null ? fim : Instant.now()).toMillis();
+            return ms > 0 ? processados.get() * 1000.0 / ms : 0.0;
+        }
+    }
+}
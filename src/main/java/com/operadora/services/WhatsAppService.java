@@ -1,27 +1,115 @@
 package com.operadora.services;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service: WhatsApp Business API
  * ===============================
  *
  * Integracao com WhatsApp Business API para envio de mensagens.
+ *
+ * O transporte e nao-bloqueante (WebClient sobre Reactor Netty) com pool de
+ * conexoes proprio. O Reactor Netty mantem um pool por host remoto, entao
+ * max-connections e pending-acquire-max funcionam como limite de concorrencia
+ * por host: requisicoes excedentes aguardam conexao livre sem ocupar threads.
+ *
+ * Os metodos sincronos sao mantidos para compatibilidade e apenas aguardam
+ * o resultado da variante assincrona.
  */
 @Service
 public class WhatsAppService {
 
     private static final Logger logger = LoggerFactory.getLogger(WhatsAppService.class);
 
+    private static final String MOCK_HOST = ".mock";
+
     @Value("${whatsapp.api.url:https://api.whatsapp.mock}")
     private String apiUrl;
 
     @Value("${whatsapp.api.token:mock-token}")
     private String apiToken;
 
+    @Value("${whatsapp.api.batch-path:/messages/batch}")
+    private String batchPath;
+
+    @Value("${whatsapp.api.template-language:pt_BR}")
+    private String templateLanguage;
+
+    @Value("${whatsapp.api.pool.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${whatsapp.api.pool.pending-acquire-max:5000}")
+    private int pendingAcquireMax;
+
+    @Value("${whatsapp.api.pool.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${whatsapp.api.pool.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${whatsapp.api.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private final AtomicLong mockSequence = new AtomicLong();
+
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+    private boolean mock;
+
+    @PostConstruct
+    void init() {
+        mock = apiUrl.contains(MOCK_HOST);
+
+        connectionProvider = ConnectionProvider.builder("whatsapp-api")
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMax)
+            .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+            .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .responseTimeout(Duration.ofMillis(timeoutMs))
+            .keepAlive(true);
+
+        webClient = WebClient.builder()
+            .baseUrl(apiUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiToken)
+            .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .build();
+
+        logger.info("WhatsApp API configurada - URL: {}, Mock: {}, MaxConexoes: {}",
+                    apiUrl, mock, maxConnections);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+
     /**
      * Envia mensagem via WhatsApp.
      *
@@ -30,23 +118,64 @@ public class WhatsAppService {
      * @return Resultado do envio
      */
     public SendResult enviarMensagem(String telefone, String mensagem) {
-        logger.info("Enviando WhatsApp para {} - Mensagem: {}...", telefone, mensagem.substring(0, Math.min(50, mensagem.length())));
-
-        // MOCK: Em producao, chamar API real do WhatsApp Business
-        try {
-            // Simula chamada a API
-            Thread.sleep(100);
+        return enviarMensagemAsync(telefone, mensagem).join();
+    }
 
-            String messageId = "wamid." + System.currentTimeMillis();
+    /**
+     * Envia mensagem via WhatsApp sem bloquear a thread chamadora.
+     *
+     * @param telefone Numero do telefone (formato: 5511999999999)
+     * @param mensagem Texto da mensagem
+     * @return Futuro com o resultado do envio (nunca completa com excecao)
+     */
+    public CompletableFuture<SendResult> enviarMensagemAsync(String telefone, String mensagem) {
+        logger.info("Enviando WhatsApp para {} - Mensagem: {}...", telefone, mensagem.substring(0, Math.min(50, mensagem.length())));
+        return enviar(payloadTexto(telefone, mensagem), "wamid.");
+    }
 
-            logger.info("WhatsApp enviado com sucesso - MessageID: {}", messageId);
+    /**
+     * Envia um lote de mensagens de texto em uma unica chamada a API.
+     *
+     * Usado pela FilaWhatsAppService; a lista de resultados segue a ordem
+     * das mensagens. Falhas individuais voltam como SendResult sem sucesso.
+     *
+     * @param mensagens Mensagens do lote
+     * @return Futuro com um resultado por mensagem
+     */
+    public CompletableFuture<List<SendResult>> enviarLoteAsync(List<Mensagem> mensagens) {
+        logger.info("Enviando lote WhatsApp com {} mensagens", mensagens.size());
 
-            return new SendResult(true, messageId, null);
+        if (mock) {
+            // MOCK: sem API real configurada, responde imediatamente
+            List<SendResult> resultados = new ArrayList<>(mensagens.size());
+            long agora = System.currentTimeMillis();
+            for (int i = 0; i < mensagens.size(); i++) {
+                resultados.add(new SendResult(true, "wamid." + agora + "." + mockSequence.incrementAndGet(), null));
+            }
+            return CompletableFuture.completedFuture(resultados);
+        }
 
-        } catch (Exception e) {
-            logger.error("Erro ao enviar WhatsApp: {}", e.getMessage());
-            return new SendResult(false, null, e.getMessage());
+        List<Map<String, Object>> payloads = new ArrayList<>(mensagens.size());
+        for (Mensagem m : mensagens) {
+            payloads.add(payloadTexto(m.getTelefone(), m.getTexto()));
         }
+
+        return webClient.post()
+            .uri(batchPath)
+            .bodyValue(Map.of("messages", payloads))
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(Duration.ofMillis(timeoutMs))
+            .map(resposta -> toSendResults(resposta, mensagens.size()))
+            .onErrorResume(e -> {
+                logger.error("Erro ao enviar lote WhatsApp: {}", e.getMessage());
+                List<SendResult> falhas = new ArrayList<>(mensagens.size());
+                for (int i = 0; i < mensagens.size(); i++) {
+                    falhas.add(new SendResult(false, null, e.getMessage()));
+                }
+                return Mono.just(falhas);
+            })
+            .toFuture();
     }
 
     /**
@@ -58,11 +187,108 @@ public class WhatsAppService {
      * @return Resultado do envio
      */
     public SendResult enviarTemplate(String telefone, String templateName, String... parametros) {
+        return enviarTemplateAsync(telefone, templateName, parametros).join();
+    }
+
+    /**
+     * Envia template de mensagem sem bloquear a thread chamadora.
+     *
+     * @param telefone Numero do telefone
+     * @param templateName Nome do template
+     * @param parametros Parametros do template
+     * @return Futuro com o resultado do envio (nunca completa com excecao)
+     */
+    public CompletableFuture<SendResult> enviarTemplateAsync(String telefone, String templateName, String... parametros) {
         logger.info("Enviando template {} para {}", templateName, telefone);
 
-        // MOCK: Em producao, chamar API real
-        String messageId = "wamid.template." + System.currentTimeMillis();
-        return new SendResult(true, messageId, null);
+        List<Map<String, Object>> parameters = new ArrayList<>(parametros.length);
+        for (String parametro : parametros) {
+            parameters.add(Map.of("type", "text", "text", parametro));
+        }
+
+        Map<String, Object> template = new LinkedHashMap<>();
+        template.put("name", templateName);
+        template.put("language", Map.of("code", templateLanguage));
+        template.put("components", List.of(Map.of("type", "body", "parameters", parameters)));
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("messaging_product", "whatsapp");
+        payload.put("to", telefone);
+        payload.put("type", "template");
+        payload.put("template", template);
+
+        return enviar(payload, "wamid.template.");
+    }
+
+    private Map<String, Object> payloadTexto(String telefone, String mensagem) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("messaging_product", "whatsapp");
+        payload.put("to", telefone);
+        payload.put("type", "text");
+        payload.put("text", Map.of("body", mensagem));
+        return payload;
+    }
+
+    private CompletableFuture<SendResult> enviar(Map<String, Object> payload, String mockPrefix) {
+        if (mock) {
+            // MOCK: sem API real configurada, responde imediatamente
+            String messageId = mockPrefix + System.currentTimeMillis() + "." + mockSequence.incrementAndGet();
+            return CompletableFuture.completedFuture(new SendResult(true, messageId, null));
+        }
+
+        return webClient.post()
+            .uri("/messages")
+            .bodyValue(payload)
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(Duration.ofMillis(timeoutMs))
+            .map(this::toSendResult)
+            .onErrorResume(e -> {
+                logger.error("Erro ao enviar WhatsApp: {}", e.getMessage());
+                return Mono.just(new SendResult(false, null, e.getMessage()));
+            })
+            .toFuture();
+    }
+
+    private SendResult toSendResult(JsonNode resposta) {
+        JsonNode messageId = resposta.path("messages").path(0).path("id");
+        if (messageId.isMissingNode() || messageId.isNull()) {
+            return new SendResult(false, null, "Resposta sem message id: " + resposta);
+        }
+        logger.info("WhatsApp enviado com sucesso - MessageID: {}", messageId.asText());
+        return new SendResult(true, messageId.asText(), null);
+    }
+
+    private List<SendResult> toSendResults(JsonNode resposta, int esperado) {
+        JsonNode itens = resposta.path("messages");
+        List<SendResult> resultados = new ArrayList<>(esperado);
+        for (int i = 0; i < esperado; i++) {
+            JsonNode item = itens.path(i);
+            JsonNode messageId = item.path("id");
+            if (messageId.isMissingNode() || messageId.isNull()) {
+                String erro = item.path("error").path("message").asText("Resposta sem message id");
+                resultados.add(new SendResult(false, null, erro));
+            } else {
+                resultados.add(new SendResult(true, messageId.asText(), null));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Mensagem de texto a enviar em lote.
+     */
+    public static class Mensagem {
+        private final String telefone;
+        private final String texto;
+
+        public Mensagem(String telefone, String texto) {
+            this.telefone = telefone;
+            this.texto = texto;
+        }
+
+        public String getTelefone() { return telefone; }
+        public String getTexto() { return texto; }
     }
 
     /**
@@ -0,0 +1,50 @@
+package com.operadora.support;
+
+/**
+ * Conversao de valores de variaveis de processo para o tipo esperado.
+ *
+ * Aceita o tipo exato, numeros de outro tamanho (Long -> Integer, Integer ->
+ * Double...) e texto (ex: variaveis enviadas como String pela API REST).
+ */
+public final class ConversaoVariavel {
+
+    private ConversaoVariavel() {
+    }
+
+    /**
+     * @param nome Nome da variavel (para a mensagem de erro)
+     * @param valor Valor lido (pode ser null)
+     * @param tipo Tipo esperado
+     * @return Valor convertido, ou null se ausente/vazio
+     * @throws IllegalArgumentException se o valor nao puder ser convertido
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T converter(String nome, Object valor, Class<T> tipo) {
+        if (valor == null || tipo.isInstance(valor)) {
+            return (T) valor;
+        }
+        try {
+            if (valor instanceof Number) {
+                Number n = (Number) valor;
+                if (tipo == Integer.class) return (T) Integer.valueOf(n.intValue());
+                if (tipo == Long.class) return (T) Long.valueOf(n.longValue());
+                if (tipo == Double.class) return (T) Double.valueOf(n.doubleValue());
+            }
+            if (valor instanceof String) {
+                String s = ((String) valor).trim();
+                if (s.isEmpty()) return null;
+                if (tipo == Integer.class) return (T) Integer.valueOf(s);
+                if (tipo == Long.class) return (T) Long.valueOf(s);
+                if (tipo == Double.class) return (T) Double.valueOf(s);
+                if (tipo == Boolean.class) return (T) Boolean.valueOf(s);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Variavel " + nome + " com valor invalido: " + valor);
+        }
+        if (tipo == String.class) {
+            return (T) valor.toString();
+        }
+        throw new IllegalArgumentException("Variavel " + nome + " com tipo inesperado: "
+                                           + valor.getClass().getSimpleName() + " (esperado " + tipo.getSimpleName() + ")");
+    }
+}
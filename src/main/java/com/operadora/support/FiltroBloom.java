@@ -0,0 +1,95 @@
+package com.operadora.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom
+ * ===============
+ *
+ * Conjunto probabilistico de strings: "nao contem" e definitivo,
+ * "talvez contenha" tem taxa de falso positivo ~ a configurada enquanto
+ * o numero de elementos nao passar do esperado.
+ *
+ * Bits em AtomicLongArray (adicionar e consultar sem lock). Nao ha
+ * remocao: para descartar elementos, reconstruir.
+ */
+public final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * @param elementosEsperados Elementos previstos
+     * @param taxaFalsoPositivo Taxa desejada (ex: 0.01)
+     */
+    public FiltroBloom(long elementosEsperados, double taxaFalsoPositivo) {
+        long n = Math.max(1, elementosEsperados);
+        long m = (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, ((m + 63) / 64) * 64);
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    }
+
+    public void adicionar(String valor) {
+        long h = hash(valor);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = indice(h1 + i * h2);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+                if ((atual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    /**
+     * @return false se o valor certamente nunca foi adicionado
+     */
+    public boolean talvezContenha(String valor) {
+        long h = hash(valor);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = indice(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private long indice(int combinado) {
+        return (combinado & 0x7fffffffL) % numBits;
+    }
+
+    /** FNV-1a 64 bits com mistura final (fmix64). */
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
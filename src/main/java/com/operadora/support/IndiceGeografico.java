@@ -0,0 +1,114 @@
+package com.operadora.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indice geografico em grade
+ * ===========================
+ *
+ * Indice espacial imutavel de pontos (lat/lon) em celulas de grade de
+ * tamanho fixo em graus. Coordenadas ficam em arrays primitivos; cada
+ * celula guarda apenas os indices dos pontos que contem.
+ *
+ * A busca percorre aneis de celulas ao redor do ponto consultado ate
+ * reunir o minimo de candidatos pedido (mais um anel, para nao perder
+ * pontos proximos na borda da celula).
+ */
+public final class IndiceGeografico {
+
+    private static final double KM_POR_GRAU = 111.32;
+
+    private final double tamanhoCelula;
+    private final double[] lat;
+    private final double[] lon;
+    private final Map<Long, int[]> celulas;
+
+    /**
+     * @param lat Latitudes dos pontos
+     * @param lon Longitudes dos pontos
+     * @param tamanhoCelula Tamanho da celula em graus (ex: 0.05 ~ 5,5 km)
+     */
+    public IndiceGeografico(double[] lat, double[] lon, double tamanhoCelula) {
+        this.lat = lat;
+        this.lon = lon;
+        this.tamanhoCelula = tamanhoCelula;
+
+        Map<Long, List<Integer>> agrupado = new HashMap<>();
+        for (int i = 0; i < lat.length; i++) {
+            agrupado.computeIfAbsent(chave(celula(lat[i]), celula(lon[i])), k -> new ArrayList<>()).add(i);
+        }
+
+        this.celulas = new HashMap<>(agrupado.size() * 2);
+        agrupado.forEach((k, v) -> celulas.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int tamanho() {
+        return lat.length;
+    }
+
+    /**
+     * Busca pontos proximos.
+     *
+     * @param latitude Latitude consultada
+     * @param longitude Longitude consultada
+     * @param minCandidatos Minimo de candidatos desejado
+     * @param maxAneis Limite de aneis percorridos
+     * @param visitante Recebe (indice, distanciaKm) de cada candidato
+     */
+    public void buscar(double latitude, double longitude, int minCandidatos, int maxAneis, Visitante visitante) {
+        int cLat = celula(latitude);
+        int cLon = celula(longitude);
+        int encontrados = 0;
+        int ultimoAnel = maxAneis;
+
+        for (int anel = 0; anel <= ultimoAnel; anel++) {
+            for (int dLat = -anel; dLat <= anel; dLat++) {
+                for (int dLon = -anel; dLon <= anel; dLon++) {
+                    if (Math.abs(dLat) != anel && Math.abs(dLon) != anel) {
+                        continue; // apenas a borda do anel
+                    }
+                    int[] pontos = celulas.get(chave(cLat + dLat, cLon + dLon));
+                    if (pontos == null) {
+                        continue;
+                    }
+                    for (int p : pontos) {
+                        visitante.visitar(p, distanciaKm(latitude, longitude, lat[p], lon[p]));
+                    }
+                    encontrados += pontos.length;
+                }
+            }
+
+            if (encontrados >= minCandidatos && ultimoAnel == maxAneis) {
+                ultimoAnel = Math.min(maxAneis, anel + 1);
+            }
+        }
+    }
+
+    /**
+     * Distancia aproximada (equiretangular), suficiente para ranking urbano.
+     */
+    public static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double x = (lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * KM_POR_GRAU;
+    }
+
+    private int celula(double grau) {
+        return (int) Math.floor(grau / tamanhoCelula);
+    }
+
+    private static long chave(int cLat, int cLon) {
+        return ((long) cLat << 32) | (cLon & 0xffffffffL);
+    }
+
+    /**
+     * Recebe os candidatos encontrados na busca.
+     */
+    @FunctionalInterface
+    public interface Visitante {
+        void visitar(int indice, double distanciaKm);
+    }
+}
@@ -0,0 +1,184 @@
+package com.operadora.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micro-batching de requisicoes
+ * ==============================
+ *
+ * Acumula itens submetidos por varias threads e os envia em lote quando
+ * a janela de tempo expira ou o lote atinge o tamanho maximo - o que
+ * ocorrer primeiro. Cada item recebe seu proprio futuro, resolvido com o
+ * resultado correspondente do lote.
+ *
+ * O envio do lote deve devolver uma lista de resultados na mesma ordem
+ * dos itens. Se o envio falhar, todos os futuros do lote falham.
+ *
+ * @param <I> Tipo do item submetido
+ * @param <O> Tipo do resultado de cada item
+ */
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final String nome;
+    private final int tamanhoLote;
+    private final long janelaNanos;
+    private final Function<List<I>, CompletableFuture<List<O>>> enviarLote;
+    private final Semaphore pendentes;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<Pendente<I, O>> buffer;
+    private ScheduledFuture<?> flushAgendado;
+    private volatile boolean fechado;
+
+    /**
+     * @param nome Nome usado em logs e na thread de flush
+     * @param tamanhoLote Tamanho maximo do lote
+     * @param janela Tempo maximo que um item espera pelo lote
+     * @param maxPendentes Itens aguardando resposta antes de bloquear quem submete
+     * @param enviarLote Funcao que envia o lote e devolve resultados na mesma ordem
+     */
+    public MicroBatcher(String nome, int tamanhoLote, Duration janela, int maxPendentes,
+                        Function<List<I>, CompletableFuture<List<O>>> enviarLote) {
+        this.nome = nome;
+        this.tamanhoLote = tamanhoLote;
+        this.janelaNanos = janela.toNanos();
+        this.enviarLote = enviarLote;
+        this.pendentes = new Semaphore(maxPendentes);
+        this.buffer = new ArrayList<>(tamanhoLote);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "batch-" + nome);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Submete um item para o proximo lote.
+     *
+     * Bloqueia apenas quando ha maxPendentes itens sem resposta (backpressure).
+     *
+     * @param item Item a enviar
+     * @return Futuro com o resultado do item
+     */
+    public CompletableFuture<O> submeter(I item) {
+        if (fechado) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Batcher encerrado: " + nome));
+        }
+
+        pendentes.acquireUninterruptibly();
+        Pendente<I, O> pendente = new Pendente<>(item);
+        pendente.futuro.whenComplete((r, e) -> pendentes.release());
+
+        List<Pendente<I, O>> cheio = null;
+        synchronized (lock) {
+            // close() pode ter feito o flush final depois da checagem acima
+            if (fechado) {
+                pendente.futuro.completeExceptionally(new IllegalStateException("Batcher encerrado: " + nome));
+                return pendente.futuro;
+            }
+            buffer.add(pendente);
+            if (buffer.size() >= tamanhoLote) {
+                cheio = trocarBuffer();
+            } else if (buffer.size() == 1) {
+                flushAgendado = scheduler.schedule(this::flush, janelaNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (cheio != null) {
+            despachar(cheio);
+        }
+        return pendente.futuro;
+    }
+
+    /**
+     * Envia imediatamente o lote em formacao.
+     */
+    public void flush() {
+        List<Pendente<I, O>> lote;
+        synchronized (lock) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            lote = trocarBuffer();
+        }
+        despachar(lote);
+    }
+
+    private List<Pendente<I, O>> trocarBuffer() {
+        List<Pendente<I, O>> lote = buffer;
+        buffer = new ArrayList<>(tamanhoLote);
+        if (flushAgendado != null) {
+            flushAgendado.cancel(false);
+            flushAgendado = null;
+        }
+        return lote;
+    }
+
+    private void despachar(List<Pendente<I, O>> lote) {
+        List<I> itens = new ArrayList<>(lote.size());
+        for (Pendente<I, O> p : lote) {
+            itens.add(p.item);
+        }
+
+        CompletableFuture<List<O>> resposta;
+        try {
+            resposta = enviarLote.apply(itens);
+        } catch (RuntimeException e) {
+            resposta = CompletableFuture.failedFuture(e);
+        }
+
+        resposta.whenComplete((resultados, erro) -> {
+            if (erro == null && resultados.size() != lote.size()) {
+                erro = new IllegalStateException("Lote " + nome + " devolveu " + resultados.size()
+                    + " resultados para " + lote.size() + " itens");
+            }
+            if (erro != null) {
+                logger.error("Falha no lote {} ({} itens): {}", nome, lote.size(), erro.getMessage());
+                for (Pendente<I, O> p : lote) {
+                    p.futuro.completeExceptionally(erro);
+                }
+                return;
+            }
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).futuro.complete(resultados.get(i));
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        List<Pendente<I, O>> lote;
+        synchronized (lock) {
+            fechado = true;
+            lote = trocarBuffer();
+        }
+        if (!lote.isEmpty()) {
+            despachar(lote);
+        }
+        scheduler.shutdown();
+    }
+
+    private static final class Pendente<I, O> {
+        private final I item;
+        private final CompletableFuture<O> futuro = new CompletableFuture<>();
+
+        private Pendente(I item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.operadora.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modelo XGBoost embarcado
+ * =========================
+ *
+ * Avalia em memoria um ensemble de arvores exportado com
+ * booster.dump_model(..., dump_format="json") / get_dump(dump_format="json").
+ *
+ * As arvores sao achatadas em arrays paralelos (sem objeto por no):
+ * feature[n] < 0 indica folha, cujo valor fica em valor[n]; nos internos
+ * usam limite[n] e os indices absolutos sim[n], nao[n] e ausente[n].
+ * A predicao percorre apenas arrays primitivos e nao aloca memoria.
+ *
+ * Objetivo suportado: binary:logistic (margem somada + sigmoide).
+ */
+public final class ModeloXGBoost {
+
+    private final int[] raizes;
+    private final int[] feature;
+    private final float[] limite;
+    private final int[] sim;
+    private final int[] nao;
+    private final int[] ausente;
+    private final float[] valor;
+    private final double margemBase;
+    private final int numFeatures;
+
+    private ModeloXGBoost(int[] raizes, int[] feature, float[] limite, int[] sim, int[] nao,
+                          int[] ausente, float[] valor, double margemBase, int numFeatures) {
+        this.raizes = raizes;
+        this.feature = feature;
+        this.limite = limite;
+        this.sim = sim;
+        this.nao = nao;
+        this.ausente = ausente;
+        this.valor = valor;
+        this.margemBase = margemBase;
+        this.numFeatures = numFeatures;
+    }
+
+    /**
+     * Carrega o dump JSON.
+     *
+     * @param in Conteudo do dump (array de arvores)
+     * @param nomesFeatures Nomes das features na ordem do vetor de entrada;
+     *                      splits "f0", "f1"... tambem sao aceitos
+     * @param baseScore base_score usado no treino (probabilidade, ex: 0.5)
+     * @return Modelo pronto para predicao
+     */
+    public static ModeloXGBoost carregar(InputStream in, List<String> nomesFeatures, double baseScore)
+            throws IOException {
+        JsonNode arvores = new ObjectMapper().readTree(in);
+        if (!arvores.isArray() || arvores.isEmpty()) {
+            throw new IOException("Dump XGBoost invalido: esperado array de arvores");
+        }
+
+        Construtor c = new Construtor(nomesFeatures);
+        int[] raizes = new int[arvores.size()];
+        for (int t = 0; t < arvores.size(); t++) {
+            raizes[t] = c.adicionarArvore(arvores.get(t));
+        }
+
+        double margemBase = Math.log(baseScore / (1.0 - baseScore));
+        return new ModeloXGBoost(raizes, c.feature.toArray(), c.limite.toArray(), c.sim.toArray(),
+                                 c.nao.toArray(), c.ausente.toArray(), c.valor.toArray(),
+                                 margemBase, nomesFeatures.size());
+    }
+
+    /**
+     * Probabilidade prevista (0.0 a 1.0).
+     *
+     * @param x Vetor de features; Double.NaN indica valor ausente
+     */
+    public double prever(double[] x) {
+        if (x.length < numFeatures) {
+            throw new IllegalArgumentException("Esperado " + numFeatures + " features, recebido " + x.length);
+        }
+        double margem = margemBase;
+        for (int raiz : raizes) {
+            int n = raiz;
+            int f;
+            while ((f = feature[n]) >= 0) {
+                // O XGBoost compara em float: converte antes, como no treino
+                float v = (float) x[f];
+                n = Float.isNaN(v) ? ausente[n] : (v < limite[n] ? sim[n] : nao[n]);
+            }
+            margem += valor[n];
+        }
+        return 1.0 / (1.0 + Math.exp(-margem));
+    }
+
+    public int getNumArvores() {
+        return raizes.length;
+    }
+
+    public int getNumNos() {
+        return feature.length;
+    }
+
+    /**
+     * Achata as arvores do dump. Os nodeids do XGBoost sao locais a cada
+     * arvore, entao cada arvore recebe um deslocamento no array global.
+     */
+    private static final class Construtor {
+        private final List<String> nomes;
+        private final IntLista feature = new IntLista();
+        private final FloatLista limite = new FloatLista();
+        private final IntLista sim = new IntLista();
+        private final IntLista nao = new IntLista();
+        private final IntLista ausente = new IntLista();
+        private final FloatLista valor = new FloatLista();
+
+        private Construtor(List<String> nomes) {
+            this.nomes = nomes;
+        }
+
+        int adicionarArvore(JsonNode raiz) throws IOException {
+            List<JsonNode> nos = new ArrayList<>();
+            coletar(raiz, nos);
+
+            int maxId = 0;
+            for (JsonNode no : nos) {
+                maxId = Math.max(maxId, no.path("nodeid").asInt());
+            }
+
+            int base = feature.size();
+            for (int i = 0; i <= maxId; i++) {
+                feature.add(-1);
+                limite.add(0f);
+                sim.add(-1);
+                nao.add(-1);
+                ausente.add(-1);
+                valor.add(0f);
+            }
+
+            for (JsonNode no : nos) {
+                int idx = base + no.path("nodeid").asInt();
+                if (no.has("leaf")) {
+                    valor.set(idx, (float) no.get("leaf").asDouble());
+                    continue;
+                }
+                feature.set(idx, indiceFeature(no.path("split").asText()));
+                limite.set(idx, (float) no.path("split_condition").asDouble());
+                sim.set(idx, base + no.path("yes").asInt());
+                nao.set(idx, base + no.path("no").asInt());
+                ausente.set(idx, base + no.path("missing").asInt(no.path("yes").asInt()));
+            }
+
+            return base + raiz.path("nodeid").asInt();
+        }
+
+        private void coletar(JsonNode no, List<JsonNode> nos) {
+            nos.add(no);
+            for (JsonNode filho : no.path("children")) {
+                coletar(filho, nos);
+            }
+        }
+
+        private int indiceFeature(String split) throws IOException {
+            int idx = nomes.indexOf(split);
+            if (idx >= 0) {
+                return idx;
+            }
+            if (split.length() > 1 && split.charAt(0) == 'f') {
+                try {
+                    idx = Integer.parseInt(split.substring(1));
+                    if (idx < nomes.size()) {
+                        return idx;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // cai no erro abaixo
+                }
+            }
+            throw new IOException("Feature desconhecida no dump XGBoost: " + split);
+        }
+    }
+
+    private static final class IntLista {
+        private int[] dados = new int[256];
+        private int tamanho;
+
+        void add(int v) {
+            if (tamanho == dados.length) {
+                dados = Arrays.copyOf(dados, tamanho * 2);
+            }
+            dados[tamanho++] = v;
+        }
+
+        void set(int i, int v) { dados[i] = v; }
+        int size() { return tamanho; }
+        int[] toArray() { return Arrays.copyOf(dados, tamanho); }
+    }
+
+    private static final class FloatLista {
+        private float[] dados = new float[256];
+        private int tamanho;
+
+        void add(float v) {
+            if (tamanho == dados.length) {
+                dados = Arrays.copyOf(dados, tamanho * 2);
+            }
+            dados[tamanho++] = v;
+        }
+
+        void set(int i, float v) { dados[i] = v; }
+        float[] toArray() { return Arrays.copyOf(dados, tamanho); }
+    }
+}
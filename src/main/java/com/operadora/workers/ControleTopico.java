@@ -0,0 +1,143 @@
+package com.operadora.workers;
+
+/**
+ * Controle adaptativo de um topico
+ * =================================
+ *
+ * Ajusta maxTasks e lockDuration do fetch-and-lock de um topico a partir
+ * da latencia observada dos handlers e do backlog percebido nas buscas:
+ *
+ * - Latencia: media movel exponencial (EWMA) por tarefa
+ * - maxTasks (AIMD): busca cheia (veio tudo que foi pedido) indica backlog,
+ *   entao cresce em passos aditivos; busca vazia corta pela metade. O teto
+ *   e o que as threads conseguem processar dentro do lock
+ * - lockDuration: tempo estimado para o lote inteiro passar pelas threads,
+ *   com margem, entre os limites configurados
+ * - Busca vazia: a proxima busca do topico espera com backoff exponencial
+ *
+ * Acesso apenas pela thread de busca, exceto registrarLatencia (threads de
+ * processamento), que grava a EWMA com volatile: perder uma amostra em
+ * corrida nao afeta o ajuste.
+ */
+final class ControleTopico {
+
+    private static final double ALFA = 0.2;
+    private static final double MARGEM_LOCK = 2.0;
+
+    private final String topico;
+    private final Limites limites;
+
+    private volatile double latenciaMs;
+    private volatile int maxTasks;
+    private volatile long lockDurationMs;
+
+    private long esperaMs;
+    private long proximaBuscaNanos;
+
+    ControleTopico(String topico, Limites limites) {
+        this.topico = topico;
+        this.limites = limites;
+        this.maxTasks = limites.maxTasksMin;
+        this.lockDurationMs = limites.lockMinMs;
+        this.esperaMs = limites.esperaMinMs;
+        this.latenciaMs = -1;
+    }
+
+    String getTopico() { return topico; }
+    int getMaxTasks() { return maxTasks; }
+    long getLockDurationMs() { return lockDurationMs; }
+    double getLatenciaMs() { return Math.max(0, latenciaMs); }
+    long getEsperaMs() { return esperaMs; }
+
+    boolean prontoParaBuscar(long agoraNanos) {
+        return agoraNanos >= proximaBuscaNanos;
+    }
+
+    long getProximaBuscaNanos() {
+        return proximaBuscaNanos;
+    }
+
+    /**
+     * Latencia de um handler (chamado pelas threads de processamento).
+     */
+    void registrarLatencia(long ms) {
+        double atual = latenciaMs;
+        latenciaMs = atual < 0 ? ms : atual + ALFA * (ms - atual);
+    }
+
+    /**
+     * Resultado de uma busca: ajusta maxTasks, lock e espera.
+     *
+     * @param solicitadas maxTasks pedido
+     * @param recebidas tarefas travadas
+     * @param agoraNanos instante da busca
+     */
+    void registrarBusca(int solicitadas, int recebidas, long agoraNanos) {
+        if (recebidas == 0) {
+            maxTasks = Math.max(limites.maxTasksMin, maxTasks / 2);
+            proximaBuscaNanos = agoraNanos + esperaMs * 1_000_000L;
+            esperaMs = Math.min(esperaMs * 2, limites.esperaMaxMs);
+            return;
+        }
+
+        esperaMs = limites.esperaMinMs;
+        proximaBuscaNanos = agoraNanos;
+
+        if (recebidas >= solicitadas) {
+            maxTasks = Math.min(tetoMaxTasks(), maxTasks + limites.incremento);
+        }
+        lockDurationMs = calcularLock(maxTasks);
+    }
+
+    /**
+     * Maximo de tarefas que as threads processam dentro do lock maximo.
+     */
+    private int tetoMaxTasks() {
+        double latencia = getLatenciaMs();
+        if (latencia <= 0) {
+            return limites.maxTasksMax;
+        }
+        long porLock = (long) (limites.lockMaxMs / (latencia * MARGEM_LOCK)) * limites.threads;
+        return (int) Math.max(limites.maxTasksMin, Math.min(limites.maxTasksMax, porLock));
+    }
+
+    /**
+     * Tempo para o lote passar pelas threads (em ondas de "threads" tarefas),
+     * com margem.
+     */
+    private long calcularLock(int lote) {
+        double latencia = getLatenciaMs();
+        if (latencia <= 0) {
+            return limites.lockMinMs;
+        }
+        int ondas = (lote + limites.threads - 1) / limites.threads;
+        long estimado = (long) (latencia * ondas * MARGEM_LOCK);
+        return Math.max(limites.lockMinMs, Math.min(limites.lockMaxMs, estimado));
+    }
+
+    /**
+     * Limites do ajuste (comuns a todos os topicos).
+     */
+    static final class Limites {
+        final int maxTasksMin;
+        final int maxTasksMax;
+        final int incremento;
+        final long lockMinMs;
+        final long lockMaxMs;
+        final long esperaMinMs;
+        final long esperaMaxMs;
+        final int threads;
+
+        Limites(int maxTasksMin, int maxTasksMax, int incremento, long lockMinMs, long lockMaxMs,
+                long esperaMinMs, long esperaMaxMs, int threads) {
+            this.maxTasksMin = Math.max(1, maxTasksMin);
+            this.maxTasksMax = Math.max(this.maxTasksMin, maxTasksMax);
+            this.incremento = Math.max(1, incremento);
+            this.lockMinMs = lockMinMs;
+            this.lockMaxMs = Math.max(lockMinMs, lockMaxMs);
+            this.esperaMinMs = esperaMinMs;
+            this.esperaMaxMs = Math.max(esperaMinMs, esperaMaxMs);
+            this.threads = Math.max(1, threads);
+        }
+    }
+}
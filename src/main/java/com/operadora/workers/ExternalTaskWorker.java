@@ -0,0 +1,444 @@
+package com.operadora.workers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.delegate.BpmnError;
+import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker Java de External Tasks
+ * ==============================
+ *
+ * Substitui os workers Python (maxTasks=1) do processo V1, atendendo os
+ * topicos com os mesmos services dos Java Delegates do V2.
+ *
+ * - Fetch-and-lock em lote direto no engine embarcado (ExternalTaskService),
+ *   limitado as vagas livres do executor: nunca trava mais tarefas do que
+ *   consegue processar antes do lock expirar
+ * - Cada topico tem seu ControleTopico: maxTasks e lockDuration ajustados
+ *   pela latencia observada e pelo backlog, e backoff proprio em buscas
+ *   vazias (topicos ociosos nao geram consultas no banco)
+ * - Tarefas processadas em paralelo num pool limitado
+ * - Locks prestes a expirar de tarefas na fila, em execucao ou aguardando
+ *   o complete sao estendidos (extendLock), em vez de expirar e a tarefa
+ *   ser reprocessada
+ * - Conclusoes agrupadas e gravadas numa unica transacao por lote; se o
+ *   lote falhar (ex: lock expirado de uma tarefa), conclui uma a uma
+ * - A API Java nao tem long polling (asyncResponseTimeout e exclusivo do
+ *   REST); o backoff por topico cumpre o papel de poupar o banco
+ *
+ * Ativacao: workers.enabled=true. Handlers sao beans TopicoHandler
+ * (ver pacote com.operadora.workers.handlers).
+ */
+@Component
+@ConditionalOnProperty(name = "workers.enabled", havingValue = "true")
+public class ExternalTaskWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalTaskWorker.class);
+
+    @Autowired
+    private ExternalTaskService externalTaskService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private List<TopicoHandler> handlers;
+
+    @Value("${workers.id:}")
+    private String workerId;
+
+    @Value("${workers.max-tasks:100}")
+    private int maxTasks;
+
+    @Value("${workers.adaptativo.max-tasks-min:1}")
+    private int maxTasksMin;
+
+    @Value("${workers.adaptativo.incremento:5}")
+    private int incrementoMaxTasks;
+
+    @Value("${workers.lock.min-ms:10000}")
+    private long lockMinMs;
+
+    @Value("${workers.lock.max-ms:300000}")
+    private long lockMaxMs;
+
+    @Value("${workers.lock.verificacao-ms:1000}")
+    private long verificacaoLockMs;
+
+    @Value("${workers.threads:32}")
+    private int threads;
+
+    @Value("${workers.max-em-voo:0}")
+    private int maxEmVoo;
+
+    @Value("${workers.conclusao.tamanho-lote:200}")
+    private int tamanhoLoteConclusao;
+
+    @Value("${workers.conclusao.janela-ms:20}")
+    private long janelaConclusaoMs;
+
+    @Value("${workers.espera.min-ms:100}")
+    private long esperaMinMs;
+
+    @Value("${workers.espera.max-ms:5000}")
+    private long esperaMaxMs;
+
+    @Value("${workers.retries:3}")
+    private int retries;
+
+    @Value("${workers.retry-timeout-ms:60000}")
+    private long retryTimeoutMs;
+
+    private final Map<String, TopicoHandler> porTopico = new HashMap<>();
+    private final List<ControleTopico> controles = new ArrayList<>();
+    private final Map<String, EmExecucao> emExecucao = new ConcurrentHashMap<>();
+    private final BlockingQueue<Conclusao> conclusoes = new LinkedBlockingQueue<>();
+
+    private Semaphore vagas;
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transacao;
+    private Thread buscador;
+    private Thread concluidor;
+    private ScheduledExecutorService renovadorLocks;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    void init() {
+        if (workerId == null || workerId.isBlank()) {
+            workerId = "worker-java-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        if (maxEmVoo <= 0) {
+            maxEmVoo = threads * 4;
+        }
+        ControleTopico.Limites limites = new ControleTopico.Limites(maxTasksMin, maxTasks, incrementoMaxTasks,
+                                                                    lockMinMs, lockMaxMs, esperaMinMs, esperaMaxMs, threads);
+        for (TopicoHandler handler : handlers) {
+            porTopico.put(handler.getTopico(), handler);
+            ControleTopico controle = new ControleTopico(handler.getTopico(), limites);
+            controles.add(controle);
+
+            Tags tags = Tags.of("topico", handler.getTopico());
+            meterRegistry.gauge("workers.topico.max_tasks", tags, controle, ControleTopico::getMaxTasks);
+            meterRegistry.gauge("workers.topico.lock_ms", tags, controle, ControleTopico::getLockDurationMs);
+            meterRegistry.gauge("workers.topico.latencia_ms", tags, controle, ControleTopico::getLatenciaMs);
+        }
+
+        vagas = new Semaphore(maxEmVoo);
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxEmVoo), r -> {
+                Thread t = new Thread(r, "worker-tarefa-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        transacao = new TransactionTemplate(transactionManager);
+
+        ativo = true;
+        buscador = iniciarThread("worker-fetch", this::loopBusca);
+        concluidor = iniciarThread("worker-complete", this::loopConclusao);
+        renovadorLocks = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "worker-lock");
+            t.setDaemon(true);
+            return t;
+        });
+        renovadorLocks.scheduleWithFixedDelay(this::renovarLocks, verificacaoLockMs, verificacaoLockMs,
+                                              TimeUnit.MILLISECONDS);
+
+        logger.info("Worker {} iniciado - Topicos: {}, maxTasks ate: {}, threads: {}, em voo: {}",
+                    workerId, porTopico.keySet(), maxTasks, threads, maxEmVoo);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        ativo = false;
+        buscador.interrupt();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        renovadorLocks.shutdownNow();
+        concluidor.join(TimeUnit.SECONDS.toMillis(10));
+        logger.info("Worker {} finalizado", workerId);
+    }
+
+    private Thread iniciarThread(String nome, Runnable loop) {
+        Thread t = new Thread(loop, nome);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // ========== BUSCA ==========
+
+    private void loopBusca() {
+        while (ativo) {
+            try {
+                // Aguarda ao menos uma vaga antes de buscar
+                vagas.acquire();
+                vagas.release();
+
+                boolean recebeu = false;
+                long proximaBusca = Long.MAX_VALUE;
+
+                for (ControleTopico controle : controles) {
+                    long agora = System.nanoTime();
+                    if (controle.prontoParaBuscar(agora)) {
+                        int livres = vagas.availablePermits();
+                        if (livres == 0) {
+                            break;
+                        }
+                        int lote = Math.min(controle.getMaxTasks(), livres);
+                        long lock = controle.getLockDurationMs();
+                        List<LockedExternalTask> tarefas = buscar(controle.getTopico(), lote, lock);
+                        controle.registrarBusca(lote, tarefas.size(), System.nanoTime());
+                        despachar(controle, tarefas, lock);
+                        recebeu |= !tarefas.isEmpty();
+                    }
+                    proximaBusca = Math.min(proximaBusca, controle.getProximaBuscaNanos());
+                }
+
+                if (!recebeu) {
+                    // Nenhum topico com trabalho: dorme ate o proximo topico liberar
+                    long esperaNanos = Math.min(proximaBusca - System.nanoTime(), esperaMaxMs * 1_000_000L);
+                    TimeUnit.NANOSECONDS.sleep(Math.max(1_000_000L, esperaNanos));
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Erro no fetch-and-lock: {}", e.getMessage(), e);
+                dormir(esperaMaxMs);
+            }
+        }
+    }
+
+    private List<LockedExternalTask> buscar(String topico, int lote, long lockMs) {
+        ExternalTaskQueryTopicBuilder query = externalTaskService.fetchAndLock(lote, workerId, true)
+            .topic(topico, lockMs);
+        List<String> variaveis = porTopico.get(topico).getVariaveis();
+        if (variaveis != null) {
+            query = query.variables(variaveis);
+        }
+        return query.execute();
+    }
+
+    private void despachar(ControleTopico controle, List<LockedExternalTask> tarefas, long lockMs)
+            throws InterruptedException {
+        for (LockedExternalTask tarefa : tarefas) {
+            vagas.acquire();
+            emExecucao.put(tarefa.getId(), new EmExecucao(controle, System.nanoTime() + lockMs * 1_000_000L));
+            executor.execute(() -> processar(controle, tarefa));
+        }
+    }
+
+    // ========== LOCKS ==========
+
+    /**
+     * Estende o lock de tarefas ainda nao concluidas quando resta
+     * menos de um quarto do lock atual do topico.
+     */
+    private void renovarLocks() {
+        long agora = System.nanoTime();
+        emExecucao.forEach((tarefaId, execucao) -> {
+            long lockMs = execucao.controle.getLockDurationMs();
+            long restanteMs = (execucao.lockExpiraNanos - agora) / 1_000_000L;
+            if (restanteMs > lockMs / 4) {
+                return;
+            }
+            try {
+                externalTaskService.extendLock(tarefaId, workerId, lockMs);
+                execucao.lockExpiraNanos = agora + lockMs * 1_000_000L;
+                meterRegistry.counter("workers.locks.estendidos", "topico", execucao.controle.getTopico()).increment();
+                logger.debug("[{}] Lock da tarefa {} estendido por {} ms",
+                             execucao.controle.getTopico(), tarefaId, lockMs);
+            } catch (Exception e) {
+                // Tarefa ja concluida ou lock perdido: nada a estender
+                logger.debug("[{}] Lock da tarefa {} nao estendido: {}",
+                             execucao.controle.getTopico(), tarefaId, e.getMessage());
+            }
+        });
+    }
+
+    // ========== PROCESSAMENTO ==========
+
+    private void processar(ControleTopico controle, LockedExternalTask tarefa) {
+        String topico = tarefa.getTopicName();
+        long inicio = System.nanoTime();
+        boolean enfileirada = false;
+        try {
+            Map<String, Object> saida = porTopico.get(topico).executar(tarefa);
+            controle.registrarLatencia((System.nanoTime() - inicio) / 1_000_000L);
+            // O lock continua sendo estendido ate o complete (concluirLote)
+            conclusoes.add(new Conclusao(tarefa.getId(), topico, saida, porTopico.get(topico)));
+            enfileirada = true;
+
+        } catch (BpmnError e) {
+            logger.warn("[{}] Erro de negocio na tarefa {}: {} - {}", topico, tarefa.getId(),
+                        e.getErrorCode(), e.getMessage());
+            try {
+                externalTaskService.handleBpmnError(tarefa.getId(), workerId, e.getErrorCode(), e.getMessage());
+            } catch (Exception falha) {
+                logger.error("[{}] Erro ao registrar erro de negocio da tarefa {}: {}", topico, tarefa.getId(),
+                             falha.getMessage());
+            }
+            meterRegistry.counter("workers.tarefas", "topico", topico, "resultado", "erro_bpmn").increment();
+
+        } catch (Exception e) {
+            int restantes = tarefa.getRetries() != null ? tarefa.getRetries() - 1 : retries;
+            logger.error("[{}] Falha na tarefa {} (retries restantes: {}): {}", topico, tarefa.getId(),
+                         Math.max(0, restantes), e.getMessage());
+            try {
+                externalTaskService.handleFailure(tarefa.getId(), workerId, e.getMessage(),
+                                                  e.toString(), Math.max(0, restantes), retryTimeoutMs);
+            } catch (Exception falha) {
+                logger.error("[{}] Erro ao registrar falha da tarefa {}: {}", topico, tarefa.getId(),
+                             falha.getMessage());
+            }
+            meterRegistry.counter("workers.tarefas", "topico", topico, "resultado", "falha").increment();
+
+        } finally {
+            if (!enfileirada) {
+                emExecucao.remove(tarefa.getId());
+            }
+            vagas.release();
+        }
+    }
+
+    // ========== CONCLUSAO EM LOTE ==========
+
+    private void loopConclusao() {
+        List<Conclusao> lote = new ArrayList<>(tamanhoLoteConclusao);
+        while (ativo || !conclusoes.isEmpty() || executor.getActiveCount() > 0) {
+            try {
+                Conclusao primeira = conclusoes.poll(janelaConclusaoMs, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                conclusoes.drainTo(lote, tamanhoLoteConclusao - 1);
+                concluirLote(lote);
+                lote.clear();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Erro no loop de conclusao: {}", e.getMessage(), e);
+                lote.clear();
+            }
+        }
+    }
+
+    private void concluirLote(List<Conclusao> lote) {
+        try {
+            transacao.executeWithoutResult(status -> {
+                for (Conclusao c : lote) {
+                    externalTaskService.complete(c.tarefaId, workerId, c.variaveis);
+                }
+            });
+            for (Conclusao c : lote) {
+                emExecucao.remove(c.tarefaId);
+                meterRegistry.counter("workers.tarefas", "topico", c.topico, "resultado", "sucesso").increment();
+            }
+            logger.debug("Lote de {} tarefas concluido", lote.size());
+
+        } catch (Exception e) {
+            logger.warn("Falha ao concluir lote de {} tarefas ({}), concluindo individualmente",
+                        lote.size(), e.getMessage());
+            for (Conclusao c : lote) {
+                try {
+                    externalTaskService.complete(c.tarefaId, workerId, c.variaveis);
+                    meterRegistry.counter("workers.tarefas", "topico", c.topico, "resultado", "sucesso").increment();
+                } catch (Exception individual) {
+                    logger.error("[{}] Tarefa {} nao concluida: {}", c.topico, c.tarefaId, individual.getMessage());
+                    meterRegistry.counter("workers.tarefas", "topico", c.topico, "resultado", "perdida").increment();
+                    desfazer(c);
+                } finally {
+                    emExecucao.remove(c.tarefaId);
+                }
+            }
+        }
+    }
+
+    private void desfazer(Conclusao c) {
+        try {
+            c.handler.desfazer(c.variaveis);
+        } catch (Exception e) {
+            logger.error("[{}] Erro ao desfazer a tarefa {}: {}", c.topico, c.tarefaId, e.getMessage());
+        }
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Tarefa travada por este worker, da busca ate o complete (ou o registro
+     * de falha).
+     */
+    private static final class EmExecucao {
+        private final ControleTopico controle;
+        private volatile long lockExpiraNanos;
+
+        private EmExecucao(ControleTopico controle, long lockExpiraNanos) {
+            this.controle = controle;
+            this.lockExpiraNanos = lockExpiraNanos;
+        }
+    }
+
+    /**
+     * Resultado aguardando conclusao no engine.
+     */
+    private static final class Conclusao {
+        private final String tarefaId;
+        private final String topico;
+        private final Map<String, Object> variaveis;
+        private final TopicoHandler handler;
+
+        private Conclusao(String tarefaId, String topico, Map<String, Object> variaveis, TopicoHandler handler) {
+            this.tarefaId = tarefaId;
+            this.topico = topico;
+            this.variaveis = variaveis;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.operadora.workers;
+
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler de um topico de External Task.
+ *
+ * Registrado como bean; o ExternalTaskWorker assina todos os topicos
+ * dos handlers encontrados no contexto.
+ */
+public final class TopicoHandler {
+
+    private final String topico;
+    private final List<String> variaveis;
+    private final Execucao execucao;
+    private final Desfazer desfazer;
+
+    /**
+     * @param topico Topico assinado
+     * @param variaveis Variaveis buscadas no fetch-and-lock (apenas as usadas)
+     * @param execucao Logica do topico; retorna as variaveis de saida
+     */
+    public TopicoHandler(String topico, List<String> variaveis, Execucao execucao) {
+        this(topico, variaveis, execucao, saida -> { });
+    }
+
+    /**
+     * @param desfazer Compensacao dos efeitos da execucao quando a tarefa
+     *                 nao pode ser concluida no engine
+     */
+    public TopicoHandler(String topico, List<String> variaveis, Execucao execucao, Desfazer desfazer) {
+        this.topico = topico;
+        this.variaveis = variaveis;
+        this.execucao = execucao;
+        this.desfazer = desfazer;
+    }
+
+    public String getTopico() {
+        return topico;
+    }
+
+    public List<String> getVariaveis() {
+        return variaveis;
+    }
+
+    Map<String, Object> executar(LockedExternalTask tarefa) throws Exception {
+        return execucao.executar(new VariaveisTarefa(tarefa), tarefa);
+    }
+
+    void desfazer(Map<String, Object> saida) {
+        desfazer.desfazer(saida);
+    }
+
+    /**
+     * Logica do topico. Lancar BpmnError sinaliza erro de negocio; qualquer
+     * outra excecao e registrada como falha (com retentativa).
+     */
+    @FunctionalInterface
+    public interface Execucao {
+        Map<String, Object> executar(VariaveisTarefa variaveis, LockedExternalTask tarefa) throws Exception;
+    }
+
+    /**
+     * Compensacao de uma execucao cujo complete falhou (lock expirado,
+     * tarefa cancelada): recebe as variaveis de saida da execucao.
+     */
+    @FunctionalInterface
+    public interface Desfazer {
+        void desfazer(Map<String, Object> saida);
+    }
+}
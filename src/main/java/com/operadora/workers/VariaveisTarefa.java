@@ -0,0 +1,34 @@
+package com.operadora.workers;
+
+import com.operadora.support.ConversaoVariavel;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+
+import java.util.Map;
+
+/**
+ * Leitura tipada das variaveis buscadas junto com a External Task.
+ *
+ * As variaveis chegam em memoria no fetch-and-lock; nenhuma leitura aqui
+ * vai ao banco.
+ */
+public final class VariaveisTarefa {
+
+    private final Map<String, Object> valores;
+
+    VariaveisTarefa(LockedExternalTask tarefa) {
+        this.valores = tarefa.getVariables();
+    }
+
+    public <T> T obrigatoria(String nome, Class<T> tipo) {
+        T valor = ConversaoVariavel.converter(nome, valores.get(nome), tipo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Variavel obrigatoria nao encontrada: " + nome);
+        }
+        return valor;
+    }
+
+    public <T> T opcional(String nome, Class<T> tipo, T padrao) {
+        T valor = ConversaoVariavel.converter(nome, valores.get(nome), tipo);
+        return valor != null ? valor : padrao;
+    }
+}
@@ -0,0 +1,126 @@
+package com.operadora.workers.handlers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.operadora.services.MensagemTemplateService;
+import com.operadora.services.MonitoramentoService;
+import com.operadora.services.OutboxWhatsAppService;
+import com.operadora.workers.TopicoHandler;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handlers: Comunicacao (processo V1)
+ * ====================================
+ *
+ * Topicos:
+ * - proativa-verificar-gatilhos
+ * - whatsapp-comunicacao-proativa
+ * - whatsapp-comunicar-tempo-real
+ *
+ * Mesma logica e mesmas variaveis de saida dos delegates de comunicacao do V2.
+ */
+@Configuration
+public class ComunicacaoHandlers {
+
+    @Autowired
+    private MonitoramentoService monitoramentoService;
+
+    @Autowired
+    private OutboxWhatsAppService outboxWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
+
+    @Bean
+    public TopicoHandler monitoramentoProativoHandler() {
+        return new TopicoHandler("proativa-verificar-gatilhos",
+            List.of("beneficiario_cpf", "nivel_risco"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String nivelRisco = vars.obrigatoria("nivel_risco", String.class);
+
+                MonitoramentoService.MonitoramentoResult resultado =
+                    monitoramentoService.verificarGatilhos(cpf, nivelRisco);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("gatilhos_identificados", resultado.getGatilhos());
+                saida.put("acoes_preventivas", resultado.getAcoesPreventivas());
+                saida.put("requer_contato_imediato", resultado.isRequerContatoImediato());
+                saida.put("proxima_acao", resultado.getProximaAcao());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler comunicacaoProativaHandler() {
+        return new TopicoHandler("whatsapp-comunicacao-proativa",
+            List.of("beneficiario_nome", "beneficiario_telefone", "proxima_acao"),
+            (vars, tarefa) -> {
+                String nome = vars.obrigatoria("beneficiario_nome", String.class);
+                String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+                String proximaAcao = vars.opcional("proxima_acao", String.class, "LEMBRETE_SAUDE");
+
+                String chave = "comunicacao." + proximaAcao;
+                if (!templates.existe(chave)) {
+                    chave = "comunicacao.PADRAO";
+                }
+                String mensagem = templates.renderizar(chave, Map.of("nome", nome));
+                Long outboxId = outboxWhatsApp.registrar(tarefa.getId(), tarefa.getProcessInstanceId(), "comunicacao", telefone, mensagem);
+
+                // Sem comunicacao_enviada: a outbox ja foi gravada e a correlacao da
+                // entrega pode chegar antes do complete, que a sobrescreveria
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("comunicacao_outbox_id", outboxId);
+                saida.put("comunicacao_tipo", proximaAcao);
+                saida.put("comunicacao_timestamp", Instant.now().toString());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler comunicarTempoRealHandler() {
+        return new TopicoHandler("whatsapp-comunicar-tempo-real",
+            List.of("beneficiario_nome", "beneficiario_telefone", "navegador_nome", "jornada_status"),
+            (vars, tarefa) -> {
+                String nome = vars.obrigatoria("beneficiario_nome", String.class);
+                String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+                String navegadorNome = vars.opcional("navegador_nome", String.class, "Equipe de Cuidados");
+                String jornadaStatus = vars.opcional("jornada_status", String.class, "EM_ACOMPANHAMENTO");
+
+                String mensagem = templates.renderizar("tempo_real", Map.of(
+                    "nome", nome,
+                    "navegador", navegadorNome,
+                    "status", traduzirStatus(jornadaStatus)
+                ));
+                Long outboxId = outboxWhatsApp.registrar(tarefa.getId(), tarefa.getProcessInstanceId(), "notificacao", telefone, mensagem);
+
+                // Sem notificacao_enviada: a outbox ja foi gravada e a correlacao da
+                // entrega pode chegar antes do complete, que a sobrescreveria
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("notificacao_outbox_id", outboxId);
+                saida.put("notificacao_tipo", "ATUALIZACAO_JORNADA");
+                saida.put("notificacao_timestamp", Instant.now().toString());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    private static String traduzirStatus(String status) {
+        switch (status) {
+            case "EM_ACOMPANHAMENTO": return "Em acompanhamento";
+            case "AGUARDANDO_AUTORIZACAO": return "Aguardando autorizacao";
+            case "AUTORIZADO": return "Autorizado";
+            case "AGENDADO": return "Consulta agendada";
+            case "CONCLUIDO": return "Atendimento concluido";
+            default: return status;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.operadora.workers.handlers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.operadora.services.AnalyticsService;
+import com.operadora.services.FollowupService;
+import com.operadora.services.NpsService;
+import com.operadora.workers.TopicoHandler;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handlers: Follow-up e Analytics (processo V1)
+ * ==============================================
+ *
+ * Topicos:
+ * - followup-pos-atendimento
+ * - followup-coletar-nps
+ * - analytics-analisar-desfechos
+ *
+ * Mesma logica e mesmas variaveis de saida dos delegates de follow-up do V2.
+ */
+@Configuration
+public class FollowupHandlers {
+
+    @Autowired
+    private FollowupService followupService;
+
+    @Autowired
+    private NpsService npsService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Bean
+    public TopicoHandler followupPosHandler() {
+        return new TopicoHandler("followup-pos-atendimento",
+            List.of("beneficiario_cpf", "beneficiario_nome", "beneficiario_telefone", "jornada_id"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String nome = vars.obrigatoria("beneficiario_nome", String.class);
+                String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+                String jornadaId = vars.opcional("jornada_id", String.class, null);
+
+                FollowupService.FollowupResult resultado = followupService.realizarFollowup(cpf, nome, telefone, jornadaId);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("followup_realizado", true);
+                saida.put("followup_resposta", resultado.getResposta());
+                saida.put("followup_satisfacao", resultado.getSatisfacao());
+                saida.put("followup_timestamp", Instant.now().toString());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler coletarNpsHandler() {
+        return new TopicoHandler("followup-coletar-nps",
+            List.of("beneficiario_cpf", "beneficiario_nome", "beneficiario_telefone"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String nome = vars.obrigatoria("beneficiario_nome", String.class);
+                String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+
+                NpsService.NpsResult resultado = npsService.coletarNps(cpf, nome, telefone);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("nps_enviado", true);
+                saida.put("nps_score", resultado.getScore());
+                saida.put("nps_categoria", resultado.getCategoria());
+                saida.put("nps_comentario", resultado.getComentario());
+                saida.put("nps_timestamp", Instant.now().toString());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler analisarDesfechosHandler() {
+        return new TopicoHandler("analytics-analisar-desfechos",
+            List.of("beneficiario_cpf", "nivel_risco", "nps_score", "jornada_id", "navegador_id"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String nivelRisco = vars.opcional("nivel_risco", String.class, "BAIXO");
+                Integer npsScore = vars.opcional("nps_score", Integer.class, 7);
+                String jornadaId = vars.opcional("jornada_id", String.class, null);
+                String navegadorId = vars.opcional("navegador_id", String.class, null);
+
+                AnalyticsService.DesfechoResult resultado = analyticsService.analisarDesfechos(
+                    cpf, nivelRisco, npsScore, jornadaId, navegadorId, tarefa.getProcessInstanceId());
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("desfecho_categoria", resultado.getCategoria());
+                saida.put("desfecho_recomendacoes", resultado.getRecomendacoes());
+                saida.put("ciclo_completo", true);
+                saida.put("ciclo_data_fim", Instant.now().toString());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+}
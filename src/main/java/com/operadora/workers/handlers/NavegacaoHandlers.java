@@ -0,0 +1,115 @@
+package com.operadora.workers.handlers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.operadora.services.JornadaService;
+import com.operadora.services.NavegadorService;
+import com.operadora.services.RedeCredenciadaService;
+import com.operadora.workers.TopicoHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handlers: Navegacao do Cuidado (processo V1)
+ * =============================================
+ *
+ * Topicos:
+ * - navegacao-atribuir-navegador
+ * - navegacao-rede-preferencial
+ * - navegacao-orquestrar-jornada
+ *
+ * Mesma logica e mesmas variaveis de saida dos delegates de navegacao do V2.
+ */
+@Configuration
+public class NavegacaoHandlers {
+
+    @Autowired
+    private NavegadorService navegadorService;
+
+    @Autowired
+    private RedeCredenciadaService redeService;
+
+    @Autowired
+    private JornadaService jornadaService;
+
+    @Bean
+    public TopicoHandler atribuirNavegadorHandler() {
+        return new TopicoHandler("navegacao-atribuir-navegador",
+            List.of("beneficiario_cpf", "nivel_risco", "fatores_risco"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String nivelRisco = vars.obrigatoria("nivel_risco", String.class);
+                String fatoresRisco = vars.opcional("fatores_risco", String.class, "");
+
+                NavegadorService.Navegador navegador = navegadorService.atribuirNavegador(cpf, nivelRisco, fatoresRisco);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("navegador_id", navegador.getId());
+                saida.put("navegador_nome", navegador.getNome());
+                saida.put("navegador_telefone", navegador.getTelefone());
+                saida.put("navegador_especialidade", navegador.getEspecialidade());
+                saida.put("navegador_atribuido", true);
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            },
+            // Complete falhou: a instancia nao recebeu o navegador, devolve a vaga
+            saida -> navegadorService.liberarNavegador((String) saida.get("navegador_id")));
+    }
+
+    @Bean
+    public TopicoHandler redePreferencialHandler() {
+        return new TopicoHandler("navegacao-rede-preferencial",
+            List.of("beneficiario_cpf", "fatores_risco", "navegador_especialidade",
+                    "beneficiario_latitude", "beneficiario_longitude"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String fatoresRisco = vars.opcional("fatores_risco", String.class, "");
+                String especialidade = vars.opcional("navegador_especialidade", String.class,
+                                                     NavegadorService.definirEspecialidade(fatoresRisco));
+                Double latitude = vars.opcional("beneficiario_latitude", Double.class, null);
+                Double longitude = vars.opcional("beneficiario_longitude", Double.class, null);
+
+                RedeCredenciadaService.Prestador prestador =
+                    redeService.buscarMelhorPrestador(cpf, especialidade, fatoresRisco, latitude, longitude);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("rede_prestador_id", prestador.getId());
+                saida.put("rede_prestador_nome", prestador.getNome());
+                saida.put("rede_prestador_endereco", prestador.getEndereco());
+                saida.put("rede_prestador_telefone", prestador.getTelefone());
+                saida.put("rede_qualidade_score", prestador.getQualidadeScore());
+                saida.put("rede_distancia_km", prestador.getDistanciaKm());
+                saida.put("rede_direcionada", true);
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler orquestrarJornadaHandler() {
+        return new TopicoHandler("navegacao-orquestrar-jornada",
+            List.of("beneficiario_cpf", "navegador_id", "rede_prestador_id", "fatores_risco"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+                String navegadorId = vars.obrigatoria("navegador_id", String.class);
+                String prestadorId = vars.opcional("rede_prestador_id", String.class, "");
+                String fatoresRisco = vars.opcional("fatores_risco", String.class, "");
+
+                JornadaService.Jornada jornada = jornadaService.criarJornada(cpf, navegadorId, prestadorId, fatoresRisco);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("jornada_id", jornada.getId());
+                saida.put("jornada_status", jornada.getStatus());
+                saida.put("jornada_etapas", jornada.getEtapas());
+                saida.put("jornada_proxima_etapa", jornada.getProximaEtapa());
+                saida.put("jornada_data_inicio", jornada.getDataInicio());
+                saida.put("jornada_criada", true);
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+}
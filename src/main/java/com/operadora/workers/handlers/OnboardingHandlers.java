@@ -0,0 +1,118 @@
+package com.operadora.workers.handlers;
+
+import org.camunda.bpm.engine.delegate.BpmnError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.operadora.services.MLService;
+import com.operadora.services.MensagemTemplateService;
+import com.operadora.services.OutboxWhatsAppService;
+import com.operadora.services.ScreeningService;
+import com.operadora.workers.TopicoHandler;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handlers: Onboarding (processo V1)
+ * ===================================
+ *
+ * Topicos:
+ * - whatsapp-enviar-boas-vindas
+ * - onboarding-realizar-screening
+ * - ml-estratificar-risco
+ *
+ * Mesma logica e mesmas variaveis de saida dos delegates de onboarding do V2.
+ */
+@Configuration
+public class OnboardingHandlers {
+
+    private static final String ERRO_INTEGRACAO = "ERRO_INTEGRACAO";
+
+    @Autowired
+    private OutboxWhatsAppService outboxWhatsApp;
+
+    @Autowired
+    private MensagemTemplateService templates;
+
+    @Autowired
+    private ScreeningService screeningService;
+
+    @Autowired
+    private MLService mlService;
+
+    @Bean
+    public TopicoHandler boasVindasHandler() {
+        return new TopicoHandler("whatsapp-enviar-boas-vindas",
+            List.of("beneficiario_nome", "beneficiario_telefone"),
+            (vars, tarefa) -> {
+                String nome = vars.obrigatoria("beneficiario_nome", String.class);
+                String telefone = vars.obrigatoria("beneficiario_telefone", String.class);
+
+                String mensagem = templates.renderizar("boas_vindas", Map.of("nome", nome));
+                Long outboxId = outboxWhatsApp.registrar(tarefa.getId(), tarefa.getProcessInstanceId(), "boas_vindas", telefone, mensagem);
+
+                // Sem boas_vindas_enviada: a outbox ja foi gravada e a correlacao da
+                // entrega pode chegar antes do complete, que a sobrescreveria
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("boas_vindas_outbox_id", outboxId);
+                saida.put("boas_vindas_timestamp", Instant.now().toString());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler screeningHandler() {
+        return new TopicoHandler("onboarding-realizar-screening",
+            List.of("beneficiario_cpf"),
+            (vars, tarefa) -> {
+                String cpf = vars.obrigatoria("beneficiario_cpf", String.class);
+
+                ScreeningService.ScreeningResult resultado = screeningService.realizarScreening(cpf);
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("screening_completo", true);
+                saida.put("screening_score", resultado.getScore());
+                saida.put("idade", resultado.getIdade());
+                saida.put("tem_doenca_cronica", resultado.isTemDoencaCronica());
+                saida.put("imc", resultado.getImc());
+                saida.put("fumante", resultado.isFumante());
+                saida.put("pratica_exercicio", resultado.isPraticaExercicio());
+                saida.put("respostas_screening", resultado.getRespostasJson());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+
+    @Bean
+    public TopicoHandler estratificarRiscoHandler() {
+        return new TopicoHandler("ml-estratificar-risco",
+            List.of("screening_score", "idade", "tem_doenca_cronica", "imc", "fumante"),
+            (vars, tarefa) -> {
+                Integer screeningScore = vars.opcional("screening_score", Integer.class, 50);
+                Integer idade = vars.obrigatoria("idade", Integer.class);
+                Boolean temDoencaCronica = vars.opcional("tem_doenca_cronica", Boolean.class, false);
+                Double imc = vars.opcional("imc", Double.class, 25.0);
+                Boolean fumante = vars.opcional("fumante", Boolean.class, false);
+
+                MLService.RiskResult resultado;
+                try {
+                    resultado = mlService.calcularRisco(screeningScore, idade, temDoencaCronica, imc, fumante);
+                } catch (MLService.MLServiceException e) {
+                    throw new BpmnError(ERRO_INTEGRACAO, "Falha na estratificacao ML: " + e.getMessage());
+                }
+
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("nivel_risco", resultado.getNivelRisco());
+                saida.put("score_risco", resultado.getScoreRisco());
+                saida.put("probabilidade_internacao", resultado.getProbabilidadeInternacao());
+                saida.put("fatores_risco", resultado.getFatoresRisco());
+                saida.put("delegate_status", "SUCESSO");
+                return saida;
+            });
+    }
+}
@@ -0,0 +1,98 @@
+package com.operadora.dmn;
+
+import org.camunda.bpm.dmn.engine.DmnDecision;
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: Tabela compilada x DMN engine
+ * =========================================
+ *
+ * Avalia a mesma sequencia de entradas (amostra fixa do dominio usado na
+ * conferencia de equivalencia) com a tabela compilada e com o DMN engine
+ * standalone, para cada decisao em dmn/.
+ *
+ * Execucao: metodo main (IDE) ou, apos mvn test-compile,
+ *   java -cp target/test-classes:target/classes:<classpath de teste> \
+ *        com.operadora.dmn.TabelaCompiladaBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabelaCompiladaBenchmark {
+
+    private static final int AMOSTRA = 1024;
+
+    @Param({"Decision_Plano_Cuidados", "Decision_Roteamento_Camada", "Decision_Tarefa_SelfService"})
+    public String decisionKey;
+
+    private AvaliadorDecisoes avaliador;
+    private TabelaCompilada tabela;
+    private DmnDecision decisao;
+    private List<Map<String, Object>> entradas;
+    private int proxima;
+
+    @Setup
+    public void setup() throws Exception {
+        avaliador = TabelaCompiladaEquivalenciaTest.novoAvaliador();
+        DmnModelInstance modelo = TabelaCompiladaEquivalenciaTest.modelo(decisionKey);
+        tabela = TabelaCompilada.compilar(modelo, decisionKey);
+        decisao = avaliador.decisao(modelo, decisionKey);
+
+        List<Map<String, Object>> dominio = avaliador.combinacoes(tabela);
+        Random random = new Random(42);
+        entradas = new ArrayList<>(AMOSTRA);
+        for (int i = 0; i < AMOSTRA; i++) {
+            entradas.add(dominio.get(random.nextInt(dominio.size())));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> compilado() {
+        Map<String, Object> e = proximaEntrada();
+        try {
+            return tabela.avaliar(e);
+        } catch (IllegalArgumentException naoCompilavel) {
+            // em producao essa entrada iria para o engine
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> engine() {
+        return avaliador.avaliarEngine(decisao, proximaEntrada());
+    }
+
+    private Map<String, Object> proximaEntrada() {
+        Map<String, Object> e = entradas.get(proxima);
+        proxima = (proxima + 1) & (AMOSTRA - 1);
+        return e;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(TabelaCompiladaBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.operadora.dmn;
+
+import org.camunda.bpm.model.dmn.Dmn;
+import org.camunda.bpm.model.dmn.DmnModelInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tabela compilada x DMN engine em todas as combinacoes do dominio das
+ * entradas (literais das celulas, limites numericos +-1, valor fora da
+ * tabela e nulo), para cada decisao em dmn/.
+ */
+class TabelaCompiladaEquivalenciaTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Decision_Plano_Cuidados", "Decision_Roteamento_Camada", "Decision_Tarefa_SelfService"})
+    void semDivergenciasDoEngine(String decisionKey) throws Exception {
+        AvaliadorDecisoes avaliador = novoAvaliador();
+        DmnModelInstance modelo = modelo(decisionKey);
+
+        TabelaCompilada tabela = TabelaCompilada.compilar(modelo, decisionKey);
+        AvaliadorDecisoes.Equivalencia equivalencia =
+            avaliador.conferir(avaliador.decisao(modelo, decisionKey), tabela);
+
+        assertThat(equivalencia.getCombinacoes()).isPositive();
+        assertThat(equivalencia.getDivergencias())
+            .as("divergencias: %s", equivalencia.getExemplos())
+            .isZero();
+    }
+
+    static AvaliadorDecisoes novoAvaliador() {
+        AvaliadorDecisoes avaliador = new AvaliadorDecisoes();
+        ReflectionTestUtils.setField(avaliador, "habilitado", true);
+        ReflectionTestUtils.setField(avaliador, "maxCombinacoes", 20000);
+        return avaliador;
+    }
+
+    static DmnModelInstance modelo(String decisionKey) throws Exception {
+        try (InputStream dmn = TabelaCompiladaEquivalenciaTest.class.getClassLoader()
+                .getResourceAsStream("dmn/" + decisionKey + ".dmn")) {
+            assertThat(dmn).as("dmn/%s.dmn no classpath", decisionKey).isNotNull();
+            return Dmn.readModelFromStream(dmn);
+        }
+    }
+}
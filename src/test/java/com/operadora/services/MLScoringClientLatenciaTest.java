@@ -0,0 +1,205 @@
+package com.operadora.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MLScoringClient contra um modelo stub local (/predict com latencia fixa
+ * por chamada): o micro-batching reduz as requisicoes HTTP e o timeout
+ * vira MLServiceException.
+ *
+ * O relatorio de latencia (p50/p99) e vazao com e sem batching e medido
+ * com relogio: fora do build padrao (mvn test -Pdesempenho).
+ */
+class MLScoringClientLatenciaTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MLScoringClientLatenciaTest.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final int LATENCIA_MS = 10;
+    private static final int CHAMADORES = 64;
+    private static final int CHAMADAS_POR_CHAMADOR = 50;
+    private static final int MAX_CONEXOES = 8;
+
+    private HttpServer stub;
+    private ExecutorService stubExecutor;
+    private final AtomicInteger requisicoesHttp = new AtomicInteger();
+    private volatile int latenciaMs = LATENCIA_MS;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        stubExecutor = Executors.newFixedThreadPool(64);
+        stub.setExecutor(stubExecutor);
+        stub.createContext("/predict", troca -> {
+            requisicoesHttp.incrementAndGet();
+            JsonNode corpo = JSON.readTree(troca.getRequestBody());
+            try {
+                Thread.sleep(latenciaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            double[] predicoes = new double[corpo.path("instances").size()];
+            Arrays.fill(predicoes, 0.42);
+            byte[] resposta = JSON.writeValueAsBytes(Map.of(
+                "predictions", predicoes, "model_version", "stub-1"));
+            troca.getResponseHeaders().add("Content-Type", "application/json");
+            troca.sendResponseHeaders(200, resposta.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(resposta);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void batchingAgrupaChamadasConcorrentes() throws Exception {
+        int chamadas = 256;
+        MLScoringClient cliente = novoCliente(true, 10000);
+        try {
+            List<CompletableFuture<Double>> scores = new ArrayList<>();
+            for (int i = 0; i < chamadas; i++) {
+                scores.add(cliente.score(new double[]{60, 70, 1, 31.0, 0}));
+            }
+            for (CompletableFuture<Double> score : scores) {
+                assertThat(score.get(30, TimeUnit.SECONDS)).isEqualTo(0.42);
+            }
+        } finally {
+            cliente.shutdown();
+        }
+
+        // Sem batching seria uma requisicao por chamada
+        assertThat(requisicoesHttp.get()).isLessThan(chamadas);
+    }
+
+    @Test
+    @Tag("desempenho")
+    void relatorioLatenciaComESemBatching() throws Exception {
+        Resultado semBatch = medir(false);
+        Resultado comBatch = medir(true);
+
+        logger.info("ML /predict stub ({} ms, {} chamadores, {} conexoes)", LATENCIA_MS, CHAMADORES, MAX_CONEXOES);
+        logger.info("  batch off: {}", semBatch);
+        logger.info("  batch on:  {}", comBatch);
+    }
+
+    @Test
+    void timeoutViraMLServiceException() throws Exception {
+        latenciaMs = 500;
+        MLScoringClient cliente = novoCliente(true, 100);
+        try {
+            MLService ml = new MLService();
+            ReflectionTestUtils.setField(ml, "modelPath", "");
+            ReflectionTestUtils.setField(ml, "mlApiEnabled", true);
+            ReflectionTestUtils.setField(ml, "modelVersion", "v1");
+            ReflectionTestUtils.setField(ml, "cacheMaxSize", 100L);
+            ReflectionTestUtils.setField(ml, "cacheTtlMinutes", 60L);
+            ReflectionTestUtils.setField(ml, "scoringClient", cliente);
+            ReflectionTestUtils.setField(ml, "meterRegistry", new SimpleMeterRegistry());
+            ml.init();
+
+            assertThatThrownBy(() -> ml.calcularRisco(60, 70, true, 31.0, false))
+                .isInstanceOf(MLService.MLServiceException.class);
+        } finally {
+            cliente.shutdown();
+        }
+    }
+
+    private Resultado medir(boolean batch) throws Exception {
+        MLScoringClient cliente = novoCliente(batch, 10000);
+        ExecutorService chamadores = Executors.newFixedThreadPool(CHAMADORES);
+        try {
+            // Aquecimento
+            for (int i = 0; i < 100; i++) {
+                cliente.score(new double[]{60, 70, 1, 31.0, 0}).get(10, TimeUnit.SECONDS);
+            }
+            requisicoesHttp.set(0);
+
+            long inicio = System.nanoTime();
+            List<Future<long[]>> tarefas = new ArrayList<>();
+            for (int c = 0; c < CHAMADORES; c++) {
+                tarefas.add(chamadores.submit(() -> {
+                    long[] latencias = new long[CHAMADAS_POR_CHAMADOR];
+                    for (int i = 0; i < CHAMADAS_POR_CHAMADOR; i++) {
+                        long t0 = System.nanoTime();
+                        cliente.score(new double[]{60, 70, 1, 31.0, 0}).get(30, TimeUnit.SECONDS);
+                        latencias[i] = System.nanoTime() - t0;
+                    }
+                    return latencias;
+                }));
+            }
+            long[] todas = new long[CHAMADORES * CHAMADAS_POR_CHAMADOR];
+            int pos = 0;
+            for (Future<long[]> tarefa : tarefas) {
+                long[] latencias = tarefa.get();
+                System.arraycopy(latencias, 0, todas, pos, latencias.length);
+                pos += latencias.length;
+            }
+            long duracao = System.nanoTime() - inicio;
+
+            Arrays.sort(todas);
+            return new Resultado(
+                todas[todas.length / 2] / 1e6,
+                todas[(int) (todas.length * 0.99)] / 1e6,
+                todas.length * 1e9 / duracao,
+                requisicoesHttp.get());
+        } finally {
+            chamadores.shutdownNow();
+            cliente.shutdown();
+        }
+    }
+
+    private MLScoringClient novoCliente(boolean batch, long timeoutMs) {
+        MLScoringClient cliente = new MLScoringClient();
+        ReflectionTestUtils.setField(cliente, "mlApiUrl", "http://127.0.0.1:" + stub.getAddress().getPort());
+        ReflectionTestUtils.setField(cliente, "timeoutMs", timeoutMs);
+        ReflectionTestUtils.setField(cliente, "maxConnections", MAX_CONEXOES);
+        ReflectionTestUtils.setField(cliente, "pendingAcquireMax", 1000);
+        ReflectionTestUtils.setField(cliente, "batchEnabled", batch);
+        ReflectionTestUtils.setField(cliente, "tamanhoLote", 64);
+        ReflectionTestUtils.setField(cliente, "janelaMs", 5L);
+        ReflectionTestUtils.setField(cliente, "maxPendentes", 10000);
+        cliente.init();
+        return cliente;
+    }
+
+    private record Resultado(double p50Ms, double p99Ms, double chamadasPorSegundo, int requisicoesHttp) {
+        @Override
+        public String toString() {
+            return String.format("p50 %.1f ms, p99 %.1f ms, %.0f chamadas/s, %d requisicoes HTTP",
+                                 p50Ms, p99Ms, chamadasPorSegundo, requisicoesHttp);
+        }
+    }
+}
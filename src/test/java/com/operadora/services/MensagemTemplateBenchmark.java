@@ -0,0 +1,84 @@
+package com.operadora.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: MensagemTemplateService x String.format
+ * ===================================================
+ *
+ * Renderiza as mensagens de boas-vindas e de tempo real com os templates
+ * pre-compilados e com o String.format usado antes nos delegates.
+ *
+ * Execucao: metodo main (IDE) ou, apos mvn test-compile,
+ *   java -cp target/test-classes:target/classes:<classpath de teste> \
+ *        com.operadora.services.MensagemTemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MensagemTemplateBenchmark {
+
+    private static final String FORMATO_BOAS_VINDAS =
+        "Ola %s! Bem-vindo(a) a Operadora Digital do Futuro! " +
+        "Estamos muito felizes em te-lo(a) conosco. " +
+        "Em breve, enviaremos um questionario rapido de saude para conhece-lo(a) melhor.";
+
+    private static final String FORMATO_TEMPO_REAL =
+        "Ola %s! Seu navegador de saude %s esta acompanhando sua jornada. " +
+        "Status atual: %s. Em caso de duvidas, responda esta mensagem.";
+
+    private MensagemTemplateService templates;
+    private Map<String, Object> valoresBoasVindas;
+    private Map<String, Object> valoresTempoReal;
+
+    @Setup
+    public void setup() throws Exception {
+        templates = new MensagemTemplateService();
+        templates.init();
+        valoresBoasVindas = Map.of("nome", "Maria");
+        valoresTempoReal = Map.of("nome", "Maria", "navegador", "Ana Paula", "status", "em acompanhamento");
+    }
+
+    @Benchmark
+    public String boasVindasStringFormat() {
+        return String.format(FORMATO_BOAS_VINDAS, "Maria");
+    }
+
+    @Benchmark
+    public String boasVindasTemplate() {
+        return templates.renderizar("boas_vindas", valoresBoasVindas);
+    }
+
+    @Benchmark
+    public String tempoRealStringFormat() {
+        return String.format(FORMATO_TEMPO_REAL, "Maria", "Ana Paula", "em acompanhamento");
+    }
+
+    @Benchmark
+    public String tempoRealTemplate() {
+        return templates.renderizar("tempo_real", valoresTempoReal);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(MensagemTemplateBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
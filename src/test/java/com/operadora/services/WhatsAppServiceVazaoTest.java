@@ -0,0 +1,151 @@
+package com.operadora.services;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vazao do transporte WhatsApp contra um servidor HTTP local com latencia
+ * fixa: caminho bloqueante (uma mensagem por thread ate a resposta) versus
+ * caminho assincrono, com o mesmo numero de threads chamadoras.
+ *
+ * Medida com relogio: fora do build padrao (mvn test -Pdesempenho).
+ */
+@Tag("desempenho")
+class WhatsAppServiceVazaoTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WhatsAppServiceVazaoTest.class);
+
+    private static final int LATENCIA_MS = 50;
+    private static final int THREADS = 8;
+    private static final int MENSAGENS_BLOQUEANTE = THREADS * 40;
+    private static final int MENSAGENS_ASSINCRONO = 4000;
+
+    private HttpServer stub;
+    private ExecutorService stubExecutor;
+    private WhatsAppService whatsApp;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        stubExecutor = Executors.newFixedThreadPool(400);
+        stub.setExecutor(stubExecutor);
+        stub.createContext("/messages", troca -> {
+            try {
+                Thread.sleep(LATENCIA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.getRequestBody().readAllBytes();
+            byte[] corpo = "{\"messages\":[{\"id\":\"wamid.stub\"}]}".getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().add("Content-Type", "application/json");
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(corpo);
+            }
+        });
+        stub.start();
+
+        whatsApp = new WhatsAppService();
+        ReflectionTestUtils.setField(whatsApp, "apiUrl", "http://127.0.0.1:" + stub.getAddress().getPort());
+        ReflectionTestUtils.setField(whatsApp, "apiToken", "stub");
+        ReflectionTestUtils.setField(whatsApp, "batchPath", "/messages/batch");
+        ReflectionTestUtils.setField(whatsApp, "templateLanguage", "pt_BR");
+        ReflectionTestUtils.setField(whatsApp, "maxConnections", 200);
+        ReflectionTestUtils.setField(whatsApp, "pendingAcquireMax", 10000);
+        ReflectionTestUtils.setField(whatsApp, "pendingAcquireTimeoutMs", 30000L);
+        ReflectionTestUtils.setField(whatsApp, "maxIdleTimeMs", 30000L);
+        ReflectionTestUtils.setField(whatsApp, "timeoutMs", 30000L);
+        whatsApp.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        whatsApp.shutdown();
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void assincronoTemVazaoDezVezesMaiorQueBloqueante() throws Exception {
+        // Aquecimento (conexoes do pool, JIT)
+        enviarAssincrono(400);
+
+        double bloqueante = enviarBloqueante(MENSAGENS_BLOQUEANTE);
+        double assincrono = enviarAssincrono(MENSAGENS_ASSINCRONO);
+
+        logger.info(String.format("WhatsApp stub (%d ms, %d threads): bloqueante %.0f msg/s, assincrono %.0f msg/s (%.1fx)",
+                                  LATENCIA_MS, THREADS, bloqueante, assincrono, assincrono / bloqueante));
+        assertThat(assincrono).isGreaterThanOrEqualTo(10 * bloqueante);
+    }
+
+    /**
+     * Cada thread aguarda a resposta antes da proxima mensagem.
+     */
+    private double enviarBloqueante(int total) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tarefas.add(threads.submit(() -> {
+                    for (int i = 0; i < total / THREADS; i++) {
+                        assertThat(whatsApp.enviarMensagem("5511999999999", "Mensagem de teste").isSuccess()).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+            return total * 1e9 / (System.nanoTime() - inicio);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * As mesmas threads disparam os envios sem aguardar; a concorrencia fica
+     * limitada pelo pool de conexoes do servico.
+     */
+    private double enviarAssincrono(int total) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<List<CompletableFuture<WhatsAppService.SendResult>>>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tarefas.add(threads.submit(() -> {
+                    List<CompletableFuture<WhatsAppService.SendResult>> envios = new ArrayList<>();
+                    for (int i = 0; i < total / THREADS; i++) {
+                        envios.add(whatsApp.enviarMensagemAsync("5511999999999", "Mensagem de teste"));
+                    }
+                    return envios;
+                }));
+            }
+            for (Future<List<CompletableFuture<WhatsAppService.SendResult>>> tarefa : tarefas) {
+                for (CompletableFuture<WhatsAppService.SendResult> envio : tarefa.get()) {
+                    assertThat(envio.join().isSuccess()).isTrue();
+                }
+            }
+            return total * 1e9 / (System.nanoTime() - inicio);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
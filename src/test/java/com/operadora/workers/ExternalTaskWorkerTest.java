@@ -0,0 +1,195 @@
+package com.operadora.workers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * ExternalTaskWorker contra a engine embarcada do contexto Spring: o worker
+ * busca, processa e conclui as tarefas sozinho, sem drenagem manual.
+ *
+ * Lock curto (400 ms) para exercitar a extensao do lock e a conclusao de
+ * uma tarefa cancelada durante a execucao. Banco H2 proprio, para nao
+ * dividir o engine com os demais testes.
+ */
+@SpringBootTest(properties = {
+    "workers.enabled=true",
+    "workers.threads=4",
+    "workers.lock.min-ms=400",
+    "workers.lock.max-ms=400",
+    "workers.lock.verificacao-ms=50",
+    "workers.espera.min-ms=10",
+    "workers.espera.max-ms=100",
+    "camunda.bpm.job-execution.enabled=false",
+    "spring.datasource.url=jdbc:h2:mem:camunda-worker-teste;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "analytics.desfechos.diretorio=target/desfechos-teste"
+})
+class ExternalTaskWorkerTest {
+
+    private static final String PROCESSO_V1 = "Process_Coordenacao_Cuidado";
+    private static final String PROCESSO_LENTO = "Process_Teste_Lento";
+    private static final String TOPICO_LENTO = "teste-lento";
+
+    /** Saidas recebidas pelo Desfazer do topico lento. */
+    private static final List<Map<String, Object>> desfeitas = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class TopicoLento {
+
+        /**
+         * Dorme espera_ms: com lock de 400 ms, so conclui se o worker
+         * estender o lock ate o complete.
+         */
+        @Bean
+        TopicoHandler topicoLentoHandler() {
+            return new TopicoHandler(TOPICO_LENTO, List.of("espera_ms"), (variaveis, tarefa) -> {
+                Thread.sleep(variaveis.obrigatoria("espera_ms", Number.class).longValue());
+                Map<String, Object> saida = new HashMap<>();
+                saida.put("lento_tarefa_id", tarefa.getId());
+                return saida;
+            }, desfeitas::add);
+        }
+    }
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private ExternalTaskService externalTaskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void implantarProcessoLento() {
+        if (repositoryService.createProcessDefinitionQuery().processDefinitionKey(PROCESSO_LENTO).count() > 0) {
+            return;
+        }
+        BpmnModelInstance modelo = Bpmn.createExecutableProcess(PROCESSO_LENTO)
+            .startEvent()
+            .serviceTask("Task_Lenta").camundaExternalTask(TOPICO_LENTO)
+            .endEvent("End_Lento")
+            .done();
+        repositoryService.createDeployment()
+            .addModelInstance(PROCESSO_LENTO + ".bpmn", modelo)
+            .deploy();
+    }
+
+    @Test
+    void workerConcluiAsInstanciasV1() {
+        double perdidasAntes = total("perdida");
+        double sucessoAntes = total("sucesso");
+        List<String> instancias = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            instancias.add(runtimeService
+                .startProcessInstanceByKey(PROCESSO_V1, "BEN-" + cpf(i), variaveisInicio(i))
+                .getId());
+        }
+
+        await().atMost(Duration.ofSeconds(60)).untilAsserted(() ->
+            assertThat(runtimeService.createProcessInstanceQuery()
+                .processDefinitionKey(PROCESSO_V1).count())
+                .isZero());
+
+        for (String id : instancias) {
+            assertThat(historyService.createHistoricActivityInstanceQuery()
+                .processInstanceId(id).activityId("End_Processo").count())
+                .as("instancia %s no fim", id)
+                .isEqualTo(1);
+        }
+        assertThat(total("perdida") - perdidasAntes).isZero();
+        // Ao menos boas-vindas, screening, estratificacao, follow-up, NPS e analytics por instancia
+        assertThat(total("sucesso") - sucessoAntes).isGreaterThanOrEqualTo(6.0 * instancias.size());
+    }
+
+    @Test
+    void lockEstendidoAteOComplete() {
+        double estendidosAntes = contador("workers.locks.estendidos", TOPICO_LENTO);
+        double perdidasAntes = contador("workers.tarefas", TOPICO_LENTO, "perdida");
+        String id = runtimeService.startProcessInstanceByKey(PROCESSO_LENTO, Map.of("espera_ms", 1500)).getId();
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+            assertThat(historyService.createHistoricActivityInstanceQuery()
+                .processInstanceId(id).activityId("End_Lento").count())
+                .isEqualTo(1));
+
+        assertThat(contador("workers.locks.estendidos", TOPICO_LENTO)).isGreaterThan(estendidosAntes);
+        assertThat(contador("workers.tarefas", TOPICO_LENTO, "perdida")).isEqualTo(perdidasAntes);
+        assertThat(historyService.createHistoricVariableInstanceQuery()
+            .processInstanceId(id).variableName("lento_tarefa_id").count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void tarefaCanceladaDuranteAExecucaoEDesfeita() {
+        double perdidasAntes = contador("workers.tarefas", TOPICO_LENTO, "perdida");
+        String id = runtimeService.startProcessInstanceByKey(PROCESSO_LENTO, Map.of("espera_ms", 1000)).getId();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+            assertThat(externalTaskService.createExternalTaskQuery()
+                .processInstanceId(id).locked().count())
+                .isEqualTo(1));
+        String tarefaId = externalTaskService.createExternalTaskQuery().processInstanceId(id).singleResult().getId();
+        runtimeService.deleteProcessInstance(id, "teste");
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+            assertThat(contador("workers.tarefas", TOPICO_LENTO, "perdida")).isEqualTo(perdidasAntes + 1));
+        assertThat(desfeitas).anySatisfy(saida -> assertThat(saida).containsEntry("lento_tarefa_id", tarefaId));
+    }
+
+    private double total(String resultado) {
+        return meterRegistry.find("workers.tarefas").tag("resultado", resultado).counters().stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    private double contador(String nome, String topico, String... resultado) {
+        Search busca = meterRegistry.find(nome).tag("topico", topico);
+        if (resultado.length > 0) {
+            busca = busca.tag("resultado", resultado[0]);
+        }
+        Counter counter = busca.counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static Map<String, Object> variaveisInicio(int i) {
+        Map<String, Object> variaveis = new HashMap<>();
+        variaveis.put("beneficiario_id", "WORKER-" + i);
+        variaveis.put("beneficiario_cpf", cpf(i));
+        variaveis.put("beneficiario_nome", "Beneficiario " + i);
+        variaveis.put("beneficiario_telefone", "11999999999");
+        return variaveis;
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", 22345678900L + i);
+    }
+}
@@ -0,0 +1,160 @@
+package com.operadora.workers;
+
+import com.operadora.model.MensagemOutbox;
+import com.operadora.repository.MensagemOutboxRepository;
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.junit5.ProcessEngineExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Processo V1 (External Tasks) ponta a ponta: o processo roda na engine
+ * embarcada do camunda-bpm-junit5 (camunda.cfg.xml) e cada topico e
+ * executado pelo handler Java registrado no contexto Spring, como faz o
+ * ExternalTaskWorker.
+ */
+@SpringBootTest(properties = {
+    "workers.enabled=false",
+    "camunda.bpm.job-execution.enabled=false",
+    "analytics.desfechos.diretorio=target/desfechos-teste"
+})
+class TopicosProcessoV1Test {
+
+    private static final String WORKER = "teste-v1";
+    private static final String PROCESSO = "Process_Coordenacao_Cuidado";
+
+    @RegisterExtension
+    static ProcessEngineExtension engine = ProcessEngineExtension.builder().build();
+
+    @Autowired
+    private List<TopicoHandler> handlers;
+
+    @Autowired
+    private MensagemOutboxRepository outboxRepository;
+
+    @Test
+    @Deployment(resources = {"bpmn/Process_Coordenacao_Cuidado.bpmn", "dmn/Decision_Plano_Cuidados.dmn"})
+    void topicosV1ConcluemAsInstancias() throws Exception {
+        Map<String, TopicoHandler> porTopico = porTopico();
+        List<String> instancias = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            instancias.add(engine.getRuntimeService()
+                .startProcessInstanceByKey(PROCESSO, "BEN-" + cpf(i), variaveisInicio(i))
+                .getId());
+        }
+
+        Set<String> executados = drenar(porTopico);
+
+        for (String id : instancias) {
+            assertThat(engine.getRuntimeService().createProcessInstanceQuery().processInstanceId(id).count())
+                .as("instancia %s concluida", id)
+                .isZero();
+            assertThat(engine.getHistoryService().createHistoricActivityInstanceQuery()
+                .processInstanceId(id).activityId("End_Processo").count())
+                .isEqualTo(1);
+        }
+        assertThat(executados).contains(
+            "whatsapp-enviar-boas-vindas", "onboarding-realizar-screening", "ml-estratificar-risco",
+            "followup-pos-atendimento", "followup-coletar-nps", "analytics-analisar-desfechos");
+        assertThat(engine.getHistoryService().createHistoricVariableInstanceQuery()
+            .variableName("plano_cuidados").count())
+            .isEqualTo(instancias.size());
+    }
+
+    @Test
+    @Deployment(resources = {"bpmn/Process_Coordenacao_Cuidado.bpmn", "dmn/Decision_Plano_Cuidados.dmn"})
+    void retentativaDaTarefaReaproveitaAMensagemDaOutbox() throws Exception {
+        Map<String, TopicoHandler> porTopico = porTopico();
+        engine.getRuntimeService().startProcessInstanceByKey(PROCESSO, "BEN-" + cpf(99), variaveisInicio(99));
+
+        ExternalTaskService tarefas = engine.getExternalTaskService();
+        TopicoHandler boasVindas = porTopico.get("whatsapp-enviar-boas-vindas");
+        LockedExternalTask tarefa = tarefas.fetchAndLock(1, WORKER)
+            .topic(boasVindas.getTopico(), 60000)
+            .variables(boasVindas.getVariaveis())
+            .execute()
+            .get(0);
+
+        // Primeira execucao: conclusao perdida (falha antes do complete)
+        Map<String, Object> primeira = boasVindas.executar(tarefa);
+        tarefas.handleFailure(tarefa.getId(), WORKER, "conclusao perdida", 1, 0);
+
+        LockedExternalTask retentativa = tarefas.fetchAndLock(1, WORKER)
+            .topic(boasVindas.getTopico(), 60000)
+            .variables(boasVindas.getVariaveis())
+            .execute()
+            .get(0);
+        Map<String, Object> segunda = boasVindas.executar(retentativa);
+        tarefas.complete(retentativa.getId(), WORKER, segunda);
+
+        assertThat(retentativa.getId()).isEqualTo(tarefa.getId());
+        assertThat(segunda.get("boas_vindas_outbox_id")).isEqualTo(primeira.get("boas_vindas_outbox_id"));
+        MensagemOutbox mensagem = outboxRepository.findByChaveIdempotencia(tarefa.getId()).orElseThrow();
+        assertThat(mensagem.getId()).isEqualTo(primeira.get("boas_vindas_outbox_id"));
+        assertThat(outboxRepository.findAll().stream()
+            .filter(m -> tarefa.getProcessInstanceId().equals(m.getProcessInstanceId()))
+            .count())
+            .isEqualTo(1);
+    }
+
+    /**
+     * Busca e conclui tarefas de todos os topicos ate nao restar nenhuma.
+     * Retorna os topicos executados.
+     */
+    private Set<String> drenar(Map<String, TopicoHandler> porTopico) throws Exception {
+        ExternalTaskService tarefas = engine.getExternalTaskService();
+        Set<String> executados = new HashSet<>();
+        for (int rodada = 0; rodada < 100; rodada++) {
+            ExternalTaskQueryBuilder busca = tarefas.fetchAndLock(100, WORKER);
+            for (TopicoHandler handler : porTopico.values()) {
+                busca = busca.topic(handler.getTopico(), 60000).variables(handler.getVariaveis());
+            }
+            List<LockedExternalTask> travadas = busca.execute();
+            if (travadas.isEmpty()) {
+                break;
+            }
+            for (LockedExternalTask tarefa : travadas) {
+                Map<String, Object> saida = porTopico.get(tarefa.getTopicName()).executar(tarefa);
+                tarefas.complete(tarefa.getId(), WORKER, saida);
+                executados.add(tarefa.getTopicName());
+            }
+        }
+        assertThat(tarefas.createExternalTaskQuery().count())
+            .as("tarefas sem handler ou nao concluidas")
+            .isZero();
+        return executados;
+    }
+
+    private Map<String, TopicoHandler> porTopico() {
+        return handlers.stream().collect(Collectors.toMap(TopicoHandler::getTopico, Function.identity()));
+    }
+
+    private static Map<String, Object> variaveisInicio(int i) {
+        Map<String, Object> variaveis = new HashMap<>();
+        variaveis.put("beneficiario_id", "TEST-" + i);
+        variaveis.put("beneficiario_cpf", cpf(i));
+        variaveis.put("beneficiario_nome", "Beneficiario " + i);
+        variaveis.put("beneficiario_telefone", "11999999999");
+        return variaveis;
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", 12345678900L + i);
+    }
+}
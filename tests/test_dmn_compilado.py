@@ -0,0 +1,146 @@
+#!/usr/bin/env python
+"""
+Testes de Integracao - DMN Compilado
+====================================
+
+Compara o endpoint /avaliar e o /lote com a API REST do Camunda.
+
+A equivalencia compilado x engine em todas as combinacoes do dominio das
+entradas fica no teste JUnit TabelaCompiladaEquivalenciaTest.
+
+Uso:
+    pytest tests/test_dmn_compilado.py -v
+"""
+
+import json
+import os
+from pathlib import Path
+
+import pytest
+import requests
+from dotenv import load_dotenv
+
+# Configuracao de paths
+PROJECT_ROOT = Path(__file__).parent.parent
+load_dotenv(PROJECT_ROOT / '.env')
+
+# URL do Camunda e da aplicacao
+CAMUNDA_URL = os.getenv("CAMUNDA_URL", "http://localhost:8080/engine-rest")
+APP_URL = os.getenv("APP_URL", CAMUNDA_URL.rsplit("/engine-rest", 1)[0])
+
+def rest_variables(variables: dict) -> dict:
+    """Formata variaveis no padrao da REST API do Camunda."""
+    formatted = {}
+    for key, value in variables.items():
+        if isinstance(value, bool):
+            formatted[key] = {"value": value, "type": "Boolean"}
+        elif isinstance(value, int):
+            formatted[key] = {"value": value, "type": "Integer"}
+        else:
+            formatted[key] = {"value": value, "type": "String"}
+    return formatted
+
+
+@pytest.fixture
+def camunda_available():
+    """Verifica se o Camunda esta disponivel."""
+    try:
+        response = requests.get(f"{CAMUNDA_URL}/engine", timeout=5)
+        return response.status_code == 200
+    except:
+        return False
+
+
+class TestAvaliar:
+    """Endpoint /avaliar com o mesmo resultado da REST API do engine."""
+
+    CASOS = [
+        ("Decision_Plano_Cuidados", {"nivel_risco": "COMPLEXO", "idade": 70, "tem_doenca_cronica": True}),
+        ("Decision_Plano_Cuidados", {"nivel_risco": "MODERADO", "idade": 75, "tem_doenca_cronica": False}),
+        ("Decision_Plano_Cuidados", {"nivel_risco": "BAIXO", "idade": 30, "tem_doenca_cronica": False}),
+        ("Decision_Roteamento_Camada", {"tipo_demanda": "TAREFA", "complexidade": "BAIXA",
+                                        "urgencia": "EMERGENCIA", "nivel_risco_paciente": "BAIXO"}),
+    ]
+
+    @pytest.mark.skipif(not os.getenv("CAMUNDA_URL"), reason="Camunda URL nao configurada")
+    @pytest.mark.parametrize("decision_key,variables", CASOS)
+    def test_igual_ao_engine(self, camunda_available, decision_key, variables):
+        """Mesmas saidas da primeira regra do engine."""
+        if not camunda_available:
+            pytest.skip("Camunda nao disponivel")
+
+        engine = requests.post(
+            f"{CAMUNDA_URL}/decision-definition/key/{decision_key}/evaluate",
+            json={"variables": rest_variables(variables)},
+            timeout=30
+        ).json()
+        compilado = requests.post(
+            f"{APP_URL}/api/decisoes/{decision_key}/avaliar",
+            json=variables,
+            timeout=30
+        ).json()
+
+        esperado = {k: v["value"] for k, v in engine[0].items()} if engine else None
+        assert compilado["resultado"] == esperado
+
+
+class TestLote:
+    """Endpoint NDJSON /lote: uma linha de resultado por entrada, na ordem."""
+
+    @pytest.mark.skipif(not os.getenv("CAMUNDA_URL"), reason="Camunda URL nao configurada")
+    def test_ordem_e_resultados(self, camunda_available):
+        """Resultado da linha N igual ao /avaliar da entrada N."""
+        if not camunda_available:
+            pytest.skip("Camunda nao disponivel")
+
+        urgencias = ["EMERGENCIA", "URGENTE", "ROTINA"]
+        riscos = ["BAIXO", "MODERADO", "ALTO", "COMPLEXO"]
+        linhas = [
+            {"tipo_demanda": "TAREFA", "complexidade": "BAIXA",
+             "urgencia": urgencias[i % 3], "nivel_risco_paciente": riscos[i % 4]}
+            for i in range(5000)
+        ]
+        corpo = "\n".join(json.dumps(l) for l in linhas) + "\n"
+
+        response = requests.post(
+            f"{APP_URL}/api/decisoes/Decision_Roteamento_Camada/lote",
+            data=corpo.encode("utf-8"),
+            headers={"Content-Type": "application/x-ndjson"},
+            stream=True,
+            timeout=120
+        )
+        assert response.status_code == 200
+        resultados = [json.loads(l) for l in response.iter_lines() if l]
+        assert len(resultados) == len(linhas)
+
+        for i in range(12):
+            esperado = requests.post(
+                f"{APP_URL}/api/decisoes/Decision_Roteamento_Camada/avaliar",
+                json=linhas[i],
+                timeout=30
+            ).json()["resultado"]
+            assert resultados[i]["resultado"] == esperado
+            assert resultados[i + 12 * 100]["resultado"] == esperado
+
+    @pytest.mark.skipif(not os.getenv("CAMUNDA_URL"), reason="Camunda URL nao configurada")
+    def test_linha_invalida(self, camunda_available):
+        """Linha com JSON invalido gera erro so naquela posicao."""
+        if not camunda_available:
+            pytest.skip("Camunda nao disponivel")
+
+        corpo = '{"intencao":"SEGUNDA_VIA_BOLETO","canal":"WHATSAPP"}\nnao-e-json\n{"intencao":"X","canal":"APP"}\n'
+        response = requests.post(
+            f"{APP_URL}/api/decisoes/Decision_Tarefa_SelfService/lote",
+            data=corpo.encode("utf-8"),
+            headers={"Content-Type": "application/x-ndjson"},
+            timeout=30
+        )
+        resultados = [json.loads(l) for l in response.text.splitlines() if l]
+        assert len(resultados) == 3
+        assert "resultado" in resultados[0]
+        assert "erro" in resultados[1]
+        assert "resultado" in resultados[2]
+
+
+if __name__ == "__main__":
+    pytest.main([__file__, "-v"])